@@ -0,0 +1,169 @@
+package polanski.option.agent;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.instrument.Instrumentation;
+import java.lang.instrument.UnmodifiableClassException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+
+import javax.management.ObjectName;
+
+/**
+ * Java agent profiling {@link polanski.option.Some} allocations and Option call sites.
+ * <p/>
+ * Arguments are given as comma separated key value pairs, e.g.
+ * {@code -javaagent:options-agent.jar=rate=1000,file=/tmp/options.txt,interval=60}
+ * <ul>
+ * <li>rate - every how many events one is sampled, 1000 by default</li>
+ * <li>file - file the report is periodically written to, none by default</li>
+ * <li>interval - seconds between the reports, 60 by default</li>
+ * <li>top - number of reported call sites, 20 by default</li>
+ * <li>jmx - whether to register the profiler as an MBean, true by default</li>
+ * </ul>
+ * The agent must be loaded by the same class loader as the Options library or by its parent.
+ * When attached to a running JVM, the already loaded Option classes are retransformed.
+ */
+public final class OptionAgent {
+
+    static final String OBJECT_NAME = "polanski.option:type=OptionProfiler";
+
+    OptionAgent() {
+        throw new AssertionError("Must not create an instance");
+    }
+
+    public static void premain(@Nullable final String args,
+                               @NotNull final Instrumentation instrumentation) throws Exception {
+        install(args, instrumentation);
+    }
+
+    public static void agentmain(@Nullable final String args,
+                                 @NotNull final Instrumentation instrumentation) throws Exception {
+        install(args, instrumentation);
+        if (!instrumentation.isRetransformClassesSupported()) {
+            System.err.println("Options agent cannot instrument the already loaded classes");
+            return;
+        }
+        final List<Class<?>> loaded = targets(instrumentation.getAllLoadedClasses());
+        try {
+            instrumentation.retransformClasses(loaded.toArray(new Class<?>[loaded.size()]));
+        } catch (UnmodifiableClassException e) {
+            System.err.println("Options agent could not instrument the loaded classes: " + e);
+        }
+    }
+
+    private static void install(@Nullable final String args,
+                                @NotNull final Instrumentation instrumentation) throws Exception {
+        final Arguments arguments = new Arguments(args);
+        OptionProfiler.INSTANCE.setSampleRate(arguments.mRate);
+        instrumentation.addTransformer(new OptionTransformer(),
+                                       instrumentation.isRetransformClassesSupported());
+        if (arguments.mJmx) {
+            ManagementFactory.getPlatformMBeanServer()
+                             .registerMBean(OptionProfiler.INSTANCE, new ObjectName(OBJECT_NAME));
+        }
+        if (arguments.mFile != null) {
+            scheduleReports(new File(arguments.mFile), arguments.mInterval, arguments.mTop);
+        }
+    }
+
+    /**
+     * Picks the instrumented classes out of @loaded, of every class loader that loaded them.
+     */
+    @NotNull
+    static List<Class<?>> targets(@NotNull final Class<?>[] loaded) {
+        final List<Class<?>> targets = new ArrayList<Class<?>>();
+        for (final Class<?> type : loaded) {
+            final String name = type.getName().replace('.', '/');
+            if (OptionTransformer.SOME.equals(name) || OptionTransformer.OPTION.equals(name)) {
+                targets.add(type);
+            }
+        }
+        return targets;
+    }
+
+    private static void scheduleReports(@NotNull final File file,
+                                        final int intervalSeconds,
+                                        final int top) {
+        final long interval = intervalSeconds * 1000L;
+        new Timer("options-agent-report", true).schedule(new TimerTask() {
+            @Override
+            public void run() {
+                writeReport(file, top);
+            }
+        }, interval, interval);
+        Runtime.getRuntime().addShutdownHook(new Thread("options-agent-shutdown") {
+            @Override
+            public void run() {
+                writeReport(file, top);
+            }
+        });
+    }
+
+    static void writeReport(@NotNull final File file, final int top) {
+        Writer writer = null;
+        try {
+            writer = new FileWriter(file);
+            writer.write(OptionProfiler.INSTANCE.report(top));
+        } catch (IOException e) {
+            System.err.println("Options agent could not write report: " + e);
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException ignored) {
+                    // Nothing more can be done
+                }
+            }
+        }
+    }
+
+    static final class Arguments {
+
+        int mRate = 1000;
+
+        @Nullable
+        String mFile;
+
+        int mInterval = 60;
+
+        int mTop = 20;
+
+        boolean mJmx = true;
+
+        Arguments(@Nullable final String args) {
+            if (args == null || args.trim().isEmpty()) {
+                return;
+            }
+            for (final String pair : args.split(",")) {
+                final int separator = pair.indexOf('=');
+                if (separator < 0) {
+                    throw new IllegalArgumentException("Expected key=value, got: " + pair);
+                }
+                final String key = pair.substring(0, separator).trim();
+                final String value = pair.substring(separator + 1).trim();
+                if ("rate".equals(key)) {
+                    mRate = Integer.parseInt(value);
+                } else if ("file".equals(key)) {
+                    mFile = value;
+                } else if ("interval".equals(key)) {
+                    mInterval = Integer.parseInt(value);
+                } else if ("top".equals(key)) {
+                    mTop = Integer.parseInt(value);
+                } else if ("jmx".equals(key)) {
+                    mJmx = Boolean.parseBoolean(value);
+                } else {
+                    throw new IllegalArgumentException("Unknown agent argument: " + key);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package polanski.option.agent;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects sampled statistics about {@link polanski.option.Some} allocations and the results of
+ * {@code Option.ofObj} and {@code Option.tryAsOption}, grouped by the call site.
+ * <p/>
+ * On average one in n events of each kind in a thread is sampled, the call stack is captured just
+ * for the sampled ones. The gaps between the samples are random, so a workload repeating with
+ * the period of the sample rate is not always sampled at the same step. Counts are scaled back by
+ * the sample rate, so they are estimates.
+ */
+public final class OptionProfiler implements OptionProfilerMXBean {
+
+    /**
+     * Profiler used by the instrumented classes.
+     */
+    @NotNull
+    public static final OptionProfiler INSTANCE = new OptionProfiler(1000);
+
+    private static final String CORE_PACKAGE = "polanski.option.";
+
+    private static final int ALLOCATION = 0;
+
+    private static final int OF_OBJ = 1;
+
+    private static final int TRY_AS_OPTION = 2;
+
+    @NotNull
+    private final ConcurrentMap<String, Site> mSites = new ConcurrentHashMap<String, Site>();
+
+    /**
+     * Seed of the next thread, advanced by a constant odd step and mixed, so every thread gets a
+     * different random sequence.
+     */
+    @NotNull
+    private final AtomicLong mSeeds;
+
+    @NotNull
+    private final ThreadLocal<Sampler> mSamplers = new ThreadLocal<Sampler>() {
+        @Override
+        protected Sampler initialValue() {
+            return new Sampler(mix(mSeeds.addAndGet(0x9E3779B97F4A7C15L)), mSampleRate);
+        }
+    };
+
+    private volatile int mSampleRate;
+
+    /**
+     * Constructor.
+     *
+     * @param sampleRate Every how many events one should be sampled
+     */
+    public OptionProfiler(final int sampleRate) {
+        this(sampleRate, System.nanoTime());
+    }
+
+    /**
+     * Constructor with a fixed @seed, so the sampled events are repeatable.
+     */
+    OptionProfiler(final int sampleRate, final long seed) {
+        setSampleRate(sampleRate);
+        mSeeds = new AtomicLong(seed);
+    }
+
+    /**
+     * Hook called from the constructor of {@link polanski.option.Some}.
+     */
+    public static void onSome() {
+        INSTANCE.recordAllocation();
+    }
+
+    /**
+     * Hook called when {@code Option.ofObj} is entered.
+     *
+     * @param value Value being wrapped
+     */
+    public static void onOfObj(@Nullable final Object value) {
+        INSTANCE.recordResult(value != null, true);
+    }
+
+    /**
+     * Hook called when {@code Option.tryAsOption} returns.
+     *
+     * @param isSome Whether the returned option is Some
+     */
+    public static void onTryAsOption(final boolean isSome) {
+        INSTANCE.recordResult(isSome, false);
+    }
+
+    /**
+     * Records creation of a Some.
+     */
+    public void recordAllocation() {
+        if (shouldSample(ALLOCATION)) {
+            final Site site = site(false);
+            if (site != null) {
+                site.mAllocations.addAndGet(mSampleRate);
+            }
+        }
+    }
+
+    /**
+     * Records an option returned to the caller.
+     *
+     * @param isSome    Whether the option is Some
+     * @param fromOfObj Whether the option was created by {@code ofObj}
+     */
+    public void recordResult(final boolean isSome, final boolean fromOfObj) {
+        if (shouldSample(fromOfObj ? OF_OBJ : TRY_AS_OPTION)) {
+            final Site site = site(fromOfObj);
+            if (site != null) {
+                (isSome ? site.mSomes : site.mNones).addAndGet(mSampleRate);
+            }
+        }
+    }
+
+    private boolean shouldSample(final int kind) {
+        return mSamplers.get().shouldSample(kind, mSampleRate);
+    }
+
+    private static long mix(final long seed) {
+        long z = seed;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        // Xorshift would stay at zero forever
+        return z == 0 ? 1 : z;
+    }
+
+    /**
+     * Finds the first frame outside of this profiler and the core Option classes.
+     *
+     * @param fromOfObj Whether called from {@code ofObj}, which is skipped when it was called by
+     *                  {@code tryAsOption}, as that one is recorded on its own. The skipped calls
+     *                  consume only the samples of ofObj, so the estimate of direct calls stays
+     *                  unbiased
+     * @return Statistics of the call site, null if the event should be ignored
+     */
+    @Nullable
+    private Site site(final boolean fromOfObj) {
+        final StackTraceElement[] stack = new Throwable().getStackTrace();
+        for (int i = 0; i < stack.length; i++) {
+            final StackTraceElement frame = stack[i];
+            final String className = frame.getClassName();
+            if (fromOfObj && "ofObj".equals(frame.getMethodName()) && isCore(className)) {
+                if (i + 1 < stack.length && "tryAsOption".equals(stack[i + 1].getMethodName())) {
+                    return null;
+                }
+            }
+            if (!isCore(className) && !className.equals(OptionProfiler.class.getName())) {
+                return siteOf(frame.toString());
+            }
+        }
+        return siteOf("<unknown>");
+    }
+
+    @NotNull
+    private Site siteOf(@NotNull final String name) {
+        final Site site = mSites.get(name);
+        if (site != null) {
+            return site;
+        }
+        final Site created = new Site(name);
+        final Site previous = mSites.putIfAbsent(name, created);
+        return previous == null ? created : previous;
+    }
+
+    private static boolean isCore(@NotNull final String className) {
+        return className.startsWith(CORE_PACKAGE)
+                && className.lastIndexOf('.') == CORE_PACKAGE.length() - 1;
+    }
+
+    /**
+     * Call sites sorted by the number of allocations, then by the number of created options.
+     *
+     * @param limit Maximum number of returned sites
+     * @return Sites with the most allocations
+     */
+    @NotNull
+    public List<Site> topSites(final int limit) {
+        final List<Site> sites = new ArrayList<Site>(mSites.values());
+        Collections.sort(sites, new Comparator<Site>() {
+            @Override
+            public int compare(final Site a, final Site b) {
+                final int byAllocations = compareLongs(b.getAllocations(), a.getAllocations());
+                return byAllocations != 0
+                        ? byAllocations
+                        : compareLongs(b.getSomes() + b.getNones(), a.getSomes() + a.getNones());
+            }
+        });
+        return sites.subList(0, Math.min(limit, sites.size()));
+    }
+
+    /**
+     * Human readable report of the sites with the most allocations.
+     *
+     * @param limit Maximum number of reported sites
+     * @return Report
+     */
+    @NotNull
+    public String report(final int limit) {
+        final StringBuilder b = new StringBuilder();
+        b.append(String.format("Option profile, sample rate 1/%d: %d Some allocations, %d Somes, %d Nones%n",
+                               mSampleRate, getSomeAllocations(), getSomeResults(), getNoneResults()));
+        b.append(String.format("%12s %12s %12s %6s  %s%n", "allocations", "somes", "nones", "some%", "site"));
+        for (final Site site : topSites(limit)) {
+            b.append(site).append(String.format("%n"));
+        }
+        return b.toString();
+    }
+
+    @Override
+    public int getSampleRate() {
+        return mSampleRate;
+    }
+
+    @Override
+    public void setSampleRate(final int rate) {
+        if (rate < 1) {
+            throw new IllegalArgumentException("Sample rate must be positive: " + rate);
+        }
+        mSampleRate = rate;
+    }
+
+    @Override
+    public long getSomeAllocations() {
+        long sum = 0;
+        for (final Site site : mSites.values()) {
+            sum += site.getAllocations();
+        }
+        return sum;
+    }
+
+    @Override
+    public long getSomeResults() {
+        long sum = 0;
+        for (final Site site : mSites.values()) {
+            sum += site.getSomes();
+        }
+        return sum;
+    }
+
+    @Override
+    public long getNoneResults() {
+        long sum = 0;
+        for (final Site site : mSites.values()) {
+            sum += site.getNones();
+        }
+        return sum;
+    }
+
+    @Override
+    public String[] getTopSites() {
+        final List<Site> sites = topSites(20);
+        final String[] result = new String[sites.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = sites.get(i).toString();
+        }
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        mSites.clear();
+    }
+
+    private static int compareLongs(final long a, final long b) {
+        return a < b ? -1 : (a == b ? 0 : 1);
+    }
+
+    /**
+     * Sampling state of a single thread.
+     * <p/>
+     * Every event kind counts down on its own, so that the events of one call, e.g. ofObj and
+     * the Some it creates, do not take turns in consuming the samples of each other. The gaps
+     * follow a geometric distribution with the mean of the sample rate, which keeps the scaled
+     * counts unbiased.
+     */
+    private static final class Sampler {
+
+        @NotNull
+        private final int[] mCountdowns = new int[3];
+
+        private long mState;
+
+        Sampler(final long seed, final int rate) {
+            mState = seed;
+            for (int kind = 0; kind < mCountdowns.length; kind++) {
+                mCountdowns[kind] = nextGap(rate);
+            }
+        }
+
+        boolean shouldSample(final int kind, final int rate) {
+            if (--mCountdowns[kind] > 0) {
+                return false;
+            }
+            mCountdowns[kind] = nextGap(rate);
+            return true;
+        }
+
+        private int nextGap(final int rate) {
+            if (rate == 1) {
+                return 1;
+            }
+            // Xorshift64*, uniform in [0, 1) from its top 53 bits
+            mState ^= mState >>> 12;
+            mState ^= mState << 25;
+            mState ^= mState >>> 27;
+            final double uniform = ((mState * 0x2545F4914F6CDD1DL) >>> 11) * 0x1.0p-53;
+            final double gap = Math.floor(Math.log(1 - uniform) / Math.log(1 - 1.0 / rate)) + 1;
+            return gap >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) gap;
+        }
+    }
+
+    /**
+     * Estimated statistics of a single call site.
+     */
+    public static final class Site {
+
+        @NotNull
+        private final String mName;
+
+        @NotNull
+        final AtomicLong mAllocations = new AtomicLong();
+
+        @NotNull
+        final AtomicLong mSomes = new AtomicLong();
+
+        @NotNull
+        final AtomicLong mNones = new AtomicLong();
+
+        Site(@NotNull final String name) {
+            mName = name;
+        }
+
+        @NotNull
+        public String getName() {
+            return mName;
+        }
+
+        public long getAllocations() {
+            return mAllocations.get();
+        }
+
+        public long getSomes() {
+            return mSomes.get();
+        }
+
+        public long getNones() {
+            return mNones.get();
+        }
+
+        /**
+         * Share of Somes among all options returned at this site.
+         *
+         * @return Ratio between 0 and 1, 0 if no options were returned
+         */
+        public double getSomeRatio() {
+            final long somes = getSomes();
+            final long total = somes + getNones();
+            return total == 0 ? 0 : (double) somes / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%12d %12d %12d %5.1f%%  %s",
+                                 getAllocations(), getSomes(), getNones(), getSomeRatio() * 100, mName);
+        }
+    }
+}
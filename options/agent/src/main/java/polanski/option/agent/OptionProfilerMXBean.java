@@ -0,0 +1,54 @@
+package polanski.option.agent;
+
+/**
+ * JMX view of the {@link OptionProfiler}.
+ */
+public interface OptionProfilerMXBean {
+
+    /**
+     * Every how many events one is sampled.
+     *
+     * @return Sample rate
+     */
+    int getSampleRate();
+
+    /**
+     * Changes the sample rate.
+     *
+     * @param rate Every how many events one should be sampled, 1 samples all of them
+     */
+    void setSampleRate(int rate);
+
+    /**
+     * Estimated number of {@link polanski.option.Some} instances created since the last reset.
+     *
+     * @return Estimated count of allocations
+     */
+    long getSomeAllocations();
+
+    /**
+     * Estimated number of Somes created by {@code ofObj} and {@code tryAsOption}.
+     *
+     * @return Estimated count of Somes
+     */
+    long getSomeResults();
+
+    /**
+     * Estimated number of Nones returned by {@code ofObj} and {@code tryAsOption}.
+     *
+     * @return Estimated count of Nones
+     */
+    long getNoneResults();
+
+    /**
+     * Call sites with the most allocations, one line per site.
+     *
+     * @return Formatted top sites
+     */
+    String[] getTopSites();
+
+    /**
+     * Clears all collected statistics.
+     */
+    void reset();
+}
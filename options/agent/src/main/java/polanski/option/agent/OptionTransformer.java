@@ -0,0 +1,90 @@
+package polanski.option.agent;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.commons.AdviceAdapter;
+
+import java.lang.instrument.ClassFileTransformer;
+import java.security.ProtectionDomain;
+
+/**
+ * Inserts calls to the {@link OptionProfiler} hooks into {@code Some} and {@code Option}.
+ */
+final class OptionTransformer implements ClassFileTransformer {
+
+    static final String SOME = "polanski/option/Some";
+
+    static final String OPTION = "polanski/option/Option";
+
+    private static final String PROFILER = "polanski/option/agent/OptionProfiler";
+
+    @Nullable
+    @Override
+    public byte[] transform(@Nullable final ClassLoader loader,
+                            @NotNull final String className,
+                            @Nullable final Class<?> classBeingRedefined,
+                            @Nullable final ProtectionDomain protectionDomain,
+                            @NotNull final byte[] classfileBuffer) {
+        if (!SOME.equals(className) && !OPTION.equals(className)) {
+            return null;
+        }
+        try {
+            return instrument(className, classfileBuffer);
+        } catch (RuntimeException e) {
+            // Leave the class untouched rather than break the application
+            return null;
+        }
+    }
+
+    @NotNull
+    static byte[] instrument(@NotNull final String className, @NotNull final byte[] bytes) {
+        final ClassReader reader = new ClassReader(bytes);
+        final ClassWriter writer = new ClassWriter(reader, ClassWriter.COMPUTE_MAXS);
+        reader.accept(new ClassVisitor(Opcodes.ASM5, writer) {
+            @Override
+            public MethodVisitor visitMethod(final int access,
+                                             final String name,
+                                             final String desc,
+                                             final String signature,
+                                             final String[] exceptions) {
+                final MethodVisitor visitor = super.visitMethod(access, name, desc, signature, exceptions);
+                if (SOME.equals(className) && "<init>".equals(name)) {
+                    return new AdviceAdapter(Opcodes.ASM5, visitor, access, name, desc) {
+                        @Override
+                        protected void onMethodEnter() {
+                            visitMethodInsn(INVOKESTATIC, PROFILER, "onSome", "()V", false);
+                        }
+                    };
+                }
+                if (OPTION.equals(className) && "ofObj".equals(name)) {
+                    return new AdviceAdapter(Opcodes.ASM5, visitor, access, name, desc) {
+                        @Override
+                        protected void onMethodEnter() {
+                            loadArg(0);
+                            visitMethodInsn(INVOKESTATIC, PROFILER, "onOfObj", "(Ljava/lang/Object;)V", false);
+                        }
+                    };
+                }
+                if (OPTION.equals(className) && "tryAsOption".equals(name)) {
+                    return new AdviceAdapter(Opcodes.ASM5, visitor, access, name, desc) {
+                        @Override
+                        protected void onMethodExit(final int opcode) {
+                            if (opcode == ARETURN) {
+                                dup();
+                                visitMethodInsn(INVOKEVIRTUAL, OPTION, "isSome", "()Z", false);
+                                visitMethodInsn(INVOKESTATIC, PROFILER, "onTryAsOption", "(Z)V", false);
+                            }
+                        }
+                    };
+                }
+                return visitor;
+            }
+        }, ClassReader.EXPAND_FRAMES);
+        return writer.toByteArray();
+    }
+}
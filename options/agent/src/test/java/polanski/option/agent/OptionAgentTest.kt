@@ -0,0 +1,18 @@
+package polanski.option.agent
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import polanski.option.None
+import polanski.option.Option
+import polanski.option.Some
+
+class OptionAgentTest {
+
+    @Test
+    fun targets_pickOnlyInstrumentedClasses() {
+        val loaded = arrayOf(String::class.java, Option::class.java, None::class.java, Some::class.java)
+
+        assertThat(OptionAgent.targets(loaded)).containsExactly(Option::class.java, Some::class.java)
+    }
+
+}
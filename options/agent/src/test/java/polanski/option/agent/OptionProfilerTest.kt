@@ -0,0 +1,135 @@
+package polanski.option.agent
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+
+class OptionProfilerTest {
+
+    private val seed = 42L
+
+    @Test
+    fun recordAllocation_attributesToCallingMethod() {
+        val profiler = OptionProfiler(1)
+
+        profiler.recordAllocation()
+
+        val site = profiler.topSites(1)[0]
+        assertThat(site.name).contains("recordAllocation_attributesToCallingMethod")
+        assertThat(site.allocations).isEqualTo(1)
+    }
+
+    @Test
+    fun recordResult_countsSomesAndNones() {
+        val profiler = OptionProfiler(1)
+
+        for (i in 1..4) {
+            profiler.recordResult(i < 4, false)
+        }
+
+        assertThat(profiler.someResults).isEqualTo(3)
+        assertThat(profiler.noneResults).isEqualTo(1)
+        assertThat(profiler.topSites(1)[0].someRatio).isEqualTo(0.75)
+    }
+
+    @Test
+    fun sampling_scalesCountsByRate() {
+        val profiler = OptionProfiler(10, seed)
+
+        for (i in 1..100000) {
+            profiler.recordAllocation()
+        }
+
+        assertEstimate(profiler.someAllocations, 100000, 0.05)
+        assertThat(profiler.topSites(10).size).isEqualTo(1)
+    }
+
+    @Test
+    fun sampling_countsEveryKindSeparately() {
+        val profiler = OptionProfiler(1000, seed)
+
+        for (i in 1..1000000) {
+            // Interleaved like the hooks of an ofObj call creating a Some
+            profiler.recordResult(true, true)
+            profiler.recordAllocation()
+        }
+
+        assertEstimate(profiler.someResults, 1000000, 0.15)
+        assertEstimate(profiler.someAllocations, 1000000, 0.15)
+    }
+
+    @Test
+    fun sampling_countsSomesAndNonesOfTryAsOption() {
+        val profiler = OptionProfiler(10, seed)
+
+        for (i in 1..100000) {
+            profiler.recordResult(true, true)
+            profiler.recordResult(false, false)
+        }
+
+        assertEstimate(profiler.someResults, 100000, 0.05)
+        assertEstimate(profiler.noneResults, 100000, 0.05)
+    }
+
+    @Test
+    fun sampling_whenInputIsPeriodic_countsEveryPhase() {
+        val profiler = OptionProfiler(100, seed)
+
+        for (i in 0..999999) {
+            // Every 4th value is null, a period dividing the sample rate
+            profiler.recordResult(i % 4 != 0, true)
+        }
+
+        assertEstimate(profiler.someResults, 750000, 0.1)
+        assertEstimate(profiler.noneResults, 250000, 0.1)
+    }
+
+    @Test
+    fun topSites_areSortedByAllocations() {
+        val profiler = OptionProfiler(1)
+
+        allocateOnce(profiler)
+        allocateTwice(profiler)
+
+        assertThat(profiler.topSites(2)[0].name).contains("allocateTwice")
+        assertThat(profiler.topSites(1)).hasSize(1)
+    }
+
+    @Test
+    fun report_containsSites() {
+        val profiler = OptionProfiler(1)
+        allocateOnce(profiler)
+
+        assertThat(profiler.report(5)).contains("allocateOnce").contains("sample rate 1/1")
+        assertThat(profiler.topSites).hasSize(1)
+    }
+
+    @Test
+    fun reset_clearsStatistics() {
+        val profiler = OptionProfiler(1)
+        allocateOnce(profiler)
+
+        profiler.reset()
+
+        assertThat(profiler.someAllocations).isEqualTo(0)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun setSampleRate_whenNotPositive_throwsException() {
+        OptionProfiler(0)
+    }
+
+    private fun assertEstimate(actual: Long, expected: Long, tolerance: Double) {
+        assertThat(actual).isGreaterThanOrEqualTo((expected * (1 - tolerance)).toLong())
+        assertThat(actual).isLessThanOrEqualTo((expected * (1 + tolerance)).toLong())
+    }
+
+    private fun allocateOnce(profiler: OptionProfiler) {
+        profiler.recordAllocation()
+    }
+
+    private fun allocateTwice(profiler: OptionProfiler) {
+        for (i in 1..2) {
+            profiler.recordAllocation()
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package polanski.option.agent
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import java.util.concurrent.Callable
+
+class OptionTransformerTest {
+
+    private val loader = InstrumentingClassLoader(javaClass.classLoader)
+
+    private val option = loader.loadClass("polanski.option.Option")
+
+    @Before
+    fun setUp() {
+        OptionProfiler.INSTANCE.sampleRate = 1
+        OptionProfiler.INSTANCE.reset()
+    }
+
+    @After
+    fun tearDown() {
+        OptionProfiler.INSTANCE.sampleRate = 1000
+        OptionProfiler.INSTANCE.reset()
+    }
+
+    @Test
+    fun ofObj_recordsAllocationAndResult() {
+        option.getMethod("ofObj", Any::class.java).invoke(null, "value")
+        option.getMethod("ofObj", Any::class.java).invoke(null, null)
+
+        assertThat(OptionProfiler.INSTANCE.someAllocations).isEqualTo(1)
+        assertThat(OptionProfiler.INSTANCE.someResults).isEqualTo(1)
+        assertThat(OptionProfiler.INSTANCE.noneResults).isEqualTo(1)
+    }
+
+    @Test
+    fun tryAsOption_recordsResultOnce() {
+        val tryAsOption = option.getMethod("tryAsOption", Callable::class.java)
+
+        tryAsOption.invoke(null, Callable { "value" })
+        tryAsOption.invoke(null, Callable { throw IllegalStateException() })
+
+        assertThat(OptionProfiler.INSTANCE.someResults).isEqualTo(1)
+        assertThat(OptionProfiler.INSTANCE.noneResults).isEqualTo(1)
+    }
+
+    @Test
+    fun transform_ignoresOtherClasses() {
+        assertThat(OptionTransformer().transform(null, "polanski/option/None", null, null, ByteArray(0)))
+                .isNull()
+    }
+
+    /**
+     * Loads the core Option classes on its own, instrumented by the transformer.
+     */
+    private class InstrumentingClassLoader(parent: ClassLoader) : ClassLoader(parent) {
+
+        override fun loadClass(name: String, resolve: Boolean): Class<*> {
+            if (!name.startsWith("polanski.option.") || name.lastIndexOf('.') != 15) {
+                return super.loadClass(name, resolve)
+            }
+            synchronized(this) {
+                val loaded = findLoadedClass(name)
+                if (loaded != null) {
+                    return loaded
+                }
+                val internalName = name.replace('.', '/')
+                val bytes = parent.getResourceAsStream("$internalName.class").readBytes()
+                val transformed = OptionTransformer().transform(this, internalName, null, null, bytes) ?: bytes
+                return defineClass(name, transformed, 0, transformed.size)
+            }
+        }
+    }
+}
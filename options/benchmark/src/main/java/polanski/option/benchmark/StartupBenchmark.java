@@ -0,0 +1,78 @@
+package polanski.option.benchmark;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+
+import polanski.option.Option;
+import polanski.option.function.Action0;
+import polanski.option.function.Action1;
+import polanski.option.function.Func1;
+import polanski.option.function.Func2;
+
+/**
+ * Measures the cost of the first use of {@link Option} in a fresh JVM: time to the first
+ * {@link Option} and the number of classes loaded on the way.
+ * <p/>
+ * Run with {@code -verbose:class} to see which classes were loaded.
+ */
+public final class StartupBenchmark {
+
+    StartupBenchmark() {
+        throw new AssertionError("Must not create an instance");
+    }
+
+    public static void main(final String[] args) {
+        // Management classes and the functions are loaded up front, so they are not counted
+        final ClassLoadingMXBean classLoading = ManagementFactory.getClassLoadingMXBean();
+        final long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        final Func1<String, Integer> length = new Func1<String, Integer>() {
+            @Override
+            public Integer call(final String s) {
+                return s.length();
+            }
+        };
+        final Func1<String, Boolean> notEmpty = new Func1<String, Boolean>() {
+            @Override
+            public Boolean call(final String s) {
+                return !s.isEmpty();
+            }
+        };
+        final Func2<String, Integer, String> concat = new Func2<String, Integer, String>() {
+            @Override
+            public String call(final String s, final Integer i) {
+                return s + i;
+            }
+        };
+        final Action1<String> onSome = new Action1<String>() {
+            @Override
+            public void call(final String s) {
+                // Do nothing
+            }
+        };
+        final Action0 onNone = new Action0() {
+            @Override
+            public void call() {
+                // Do nothing
+            }
+        };
+        final int classesBefore = classLoading.getLoadedClassCount();
+
+        final long start = System.nanoTime();
+        final Option<Integer> first = Option.ofObj("first").map(length);
+        final long firstOption = System.nanoTime() - start;
+        final int classesAfterFirst = classLoading.getLoadedClassCount();
+
+        Option.ofObj("second")
+              .filter(notEmpty)
+              .lift(first, concat)
+              .matchAction(onSome, onNone);
+        final long commonUsage = System.nanoTime() - start;
+        final int classesAfterCommon = classLoading.getLoadedClassCount();
+
+        System.out.println(String.format("JVM uptime before first Option: %d ms", uptime));
+        System.out.println(String.format("Time to first Option:           %d us", firstOption / 1000));
+        System.out.println(String.format("Time to common usage:           %d us", commonUsage / 1000));
+        System.out.println(String.format("Classes loaded by first Option: %d", classesAfterFirst - classesBefore));
+        System.out.println(String.format("Classes loaded by common usage: %d", classesAfterCommon - classesBefore));
+    }
+}
@@ -0,0 +1,272 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import polanski.option.function.Func1;
+import polanski.option.function.Func2;
+import polanski.option.function.Func3;
+
+/**
+ * Group of related optional values, that are read and updated together atomically.
+ * <p/>
+ * All the values are kept in a single immutable {@link Snapshot}, so reading any number of them
+ * consistently is a single volatile read, and updating several of them is a single
+ * compare-and-set of the whole snapshot. Every update creates a new snapshot with a higher
+ * version, so a snapshot that was replaced in the meantime is never mistaken for the current
+ * one.
+ * <pre>
+ * AtomicOptionGroup group = new AtomicOptionGroup();
+ * Slot&lt;String&gt; primary = group.newSlot();
+ * Slot&lt;String&gt; fallback = group.newSlot();
+ *
+ * Snapshot current = group.snapshot();
+ * group.compareAndSet(current, current.with(primary, fallbackOption).with(fallback, none()));
+ * </pre>
+ */
+public final class AtomicOptionGroup {
+
+    @NotNull
+    private static final Option<?>[] EMPTY = new Option<?>[0];
+
+    @NotNull
+    private final AtomicInteger mSlotCount = new AtomicInteger();
+
+    @NotNull
+    private final AtomicReference<Snapshot> mCurrent;
+
+    /**
+     * Constructor, the group has no slots.
+     */
+    public AtomicOptionGroup() {
+        mCurrent = new AtomicReference<Snapshot>(new Snapshot(this, EMPTY, 0));
+    }
+
+    /**
+     * Adds a slot to the group, its value is {@link Option#NONE} until it is set.
+     *
+     * @param <T> Type of the value in the slot
+     * @return Slot used to access the value in snapshots of this group
+     */
+    @NotNull
+    public <T> Slot<T> newSlot() {
+        return new Slot<T>(this, mSlotCount.getAndIncrement());
+    }
+
+    /**
+     * Current values of all the slots.
+     *
+     * @return Current snapshot
+     */
+    @NotNull
+    public Snapshot snapshot() {
+        return mCurrent.get();
+    }
+
+    /**
+     * Current value of @slot.
+     *
+     * @param slot Slot of this group
+     * @param <T>  Type of the value
+     * @return Current value
+     */
+    @NotNull
+    public <T> Option<T> get(@NotNull final Slot<T> slot) {
+        return mCurrent.get().get(slot);
+    }
+
+    /**
+     * Replaces the value of @slot, keeping the other slots unchanged.
+     *
+     * @param slot   Slot of this group
+     * @param option New value
+     * @param <T>    Type of the value
+     * @return Snapshot containing the new value
+     */
+    @NotNull
+    public <T> Snapshot set(@NotNull final Slot<T> slot, @NotNull final Option<T> option) {
+        while (true) {
+            final Snapshot current = mCurrent.get();
+            final Snapshot next = current.with(slot, option);
+            if (mCurrent.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Replaces all the values with @update, if the current snapshot is still @expected.
+     *
+     * @param expected Snapshot @update is based on
+     * @param update   New values, usually created by {@link Snapshot#with(Slot, Option)}
+     * @return true if the values were replaced, otherwise false
+     */
+    public boolean compareAndSet(@NotNull final Snapshot expected, @NotNull final Snapshot update) {
+        checkGroup(update.mGroup);
+        return mCurrent.compareAndSet(expected, update);
+    }
+
+    /**
+     * Replaces all the values with the result of @f, retrying with a fresh snapshot until no
+     * other update interferes. @f may be called several times, so it must not have side effects.
+     *
+     * @param f Function creating new values from the current ones
+     * @return Snapshot that was set
+     */
+    @NotNull
+    public Snapshot update(@NotNull final Func1<Snapshot, Snapshot> f) {
+        while (true) {
+            final Snapshot current = mCurrent.get();
+            final Snapshot next = f.call(current);
+            if (compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    private void checkGroup(@NotNull final AtomicOptionGroup group) {
+        if (group != this) {
+            throw new IllegalArgumentException("Snapshot or slot belongs to another group");
+        }
+    }
+
+    /**
+     * Typed index of a value in the snapshots of a group.
+     *
+     * @param <T> Type of the value
+     */
+    public static final class Slot<T> {
+
+        @NotNull
+        final AtomicOptionGroup mGroup;
+
+        final int mIndex;
+
+        Slot(@NotNull final AtomicOptionGroup group, final int index) {
+            mGroup = group;
+            mIndex = index;
+        }
+
+        @Override
+        public String toString() {
+            return "Slot " + mIndex;
+        }
+    }
+
+    /**
+     * Immutable values of all the slots of a group at one point in time.
+     */
+    public static final class Snapshot {
+
+        @NotNull
+        final AtomicOptionGroup mGroup;
+
+        @NotNull
+        private final Option<?>[] mValues;
+
+        private final long mVersion;
+
+        Snapshot(@NotNull final AtomicOptionGroup group,
+                 @NotNull final Option<?>[] values,
+                 final long version) {
+            mGroup = group;
+            mValues = values;
+            mVersion = version;
+        }
+
+        /**
+         * Version of the snapshot, higher for snapshots derived from this one.
+         *
+         * @return Version
+         */
+        public long getVersion() {
+            return mVersion;
+        }
+
+        /**
+         * Value of @slot.
+         *
+         * @param slot Slot of the group
+         * @param <T>  Type of the value
+         * @return Value of @slot in this snapshot
+         */
+        @SuppressWarnings("unchecked")
+        @NotNull
+        public <T> Option<T> get(@NotNull final Slot<T> slot) {
+            mGroup.checkGroup(slot.mGroup);
+            return slot.mIndex < mValues.length
+                    ? (Option<T>) mValues[slot.mIndex]
+                    : Option.<T>none();
+        }
+
+        /**
+         * Copy of this snapshot with @slot replaced by @option. This snapshot is not changed.
+         *
+         * @param slot   Slot of the group
+         * @param option New value
+         * @param <T>    Type of the value
+         * @return New snapshot
+         */
+        @NotNull
+        public <T> Snapshot with(@NotNull final Slot<T> slot, @NotNull final Option<T> option) {
+            mGroup.checkGroup(slot.mGroup);
+            final Option<?>[] values = new Option<?>[Math.max(mValues.length, slot.mIndex + 1)];
+            System.arraycopy(mValues, 0, values, 0, mValues.length);
+            for (int i = mValues.length; i < values.length; i++) {
+                values[i] = Option.NONE;
+            }
+            values[slot.mIndex] = option;
+            return new Snapshot(mGroup, values, mVersion + 1);
+        }
+
+        /**
+         * Combines the values of the slots using @f.
+         *
+         * @param slot1 First slot
+         * @param slot2 Second slot
+         * @param f     Function that combines the values
+         * @param <IN1> Input type
+         * @param <IN2> Input type
+         * @param <OUT> Result type
+         * @return Option of some if both slots are Some, otherwise None
+         */
+        @NotNull
+        public <IN1, IN2, OUT> Option<OUT> lift(@NotNull final Slot<IN1> slot1,
+                                                @NotNull final Slot<IN2> slot2,
+                                                @NotNull final Func2<IN1, IN2, OUT> f) {
+            return get(slot1).lift(get(slot2), f);
+        }
+
+        /**
+         * Combines the values of the slots using @f.
+         *
+         * @param slot1 First slot
+         * @param slot2 Second slot
+         * @param slot3 Third slot
+         * @param f     Function that combines the values
+         * @param <IN1> Input type
+         * @param <IN2> Input type
+         * @param <IN3> Input type
+         * @param <OUT> Result type
+         * @return Option of some if all the slots are Some, otherwise None
+         */
+        @NotNull
+        public <IN1, IN2, IN3, OUT> Option<OUT> lift(@NotNull final Slot<IN1> slot1,
+                                                     @NotNull final Slot<IN2> slot2,
+                                                     @NotNull final Slot<IN3> slot3,
+                                                     @NotNull final Func3<IN1, IN2, IN3, OUT> f) {
+            return get(slot1).lift(get(slot2), get(slot3), f);
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder b = new StringBuilder("Snapshot ").append(mVersion).append(" [");
+            for (int i = 0; i < mValues.length; i++) {
+                b.append(i == 0 ? "" : ", ").append(mValues[i]);
+            }
+            return b.append(']').toString();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import polanski.option.function.Func0;
+import polanski.option.function.Func1;
+import polanski.option.function.Func2;
+import polanski.option.function.Func3;
+
+/**
+ * Common base of {@link OptionCell} and {@link DerivedOptionCell}, a node of a graph of optional
+ * values where derived values are recomputed only when their inputs change.
+ * <p/>
+ * Every cell has a version, that changes only when its value stops being equal to the previous
+ * one, so a change that produces an equal value does not recompute anything downstream.
+ *
+ * @param <T> Type of the value
+ */
+public abstract class BaseOptionCell<T> {
+
+    /**
+     * Epoch of the graph this cell belongs to, possibly already merged into another one.
+     */
+    @NotNull
+    private volatile Epoch mEpoch;
+
+    BaseOptionCell(@NotNull final Epoch epoch) {
+        mEpoch = epoch;
+    }
+
+    /**
+     * Current epoch of the graph this cell belongs to.
+     */
+    @NotNull
+    final Epoch epoch() {
+        final Epoch epoch = mEpoch;
+        final Epoch root = epoch.root();
+        if (root != epoch) {
+            mEpoch = root;
+        }
+        return root;
+    }
+
+    /**
+     * Current value, derived cells recompute it first if any of their inputs changed.
+     *
+     * @return Current value
+     */
+    @NotNull
+    public abstract Option<T> get();
+
+    /**
+     * Version of the current value, it changes only when the value changes.
+     *
+     * @return Version of the value
+     */
+    public abstract long getVersion();
+
+    /**
+     * Derives a cell by mapping the value of this cell with @f.
+     *
+     * @param f     Function mapping the value
+     * @param <OUT> Result type
+     * @return Cell of the mapped value, None while this cell is None
+     */
+    @NotNull
+    public <OUT> DerivedOptionCell<OUT> map(@NotNull final Func1<T, OUT> f) {
+        return new DerivedOptionCell<OUT>(new BaseOptionCell<?>[]{this}, new Func0<Option<OUT>>() {
+            @Override
+            public Option<OUT> call() {
+                return get().map(f);
+            }
+        });
+    }
+
+    /**
+     * Derives a cell by mapping the value of this cell with @f.
+     *
+     * @param f     Function mapping the value to an option
+     * @param <OUT> Result type
+     * @return Cell of the mapped value, None while this cell is None
+     */
+    @NotNull
+    public <OUT> DerivedOptionCell<OUT> flatMap(@NotNull final Func1<T, Option<OUT>> f) {
+        return new DerivedOptionCell<OUT>(new BaseOptionCell<?>[]{this}, new Func0<Option<OUT>>() {
+            @Override
+            public Option<OUT> call() {
+                return get().flatMap(f);
+            }
+        });
+    }
+
+    /**
+     * Derives a cell combining the values of this cell and @cell1 using @f.
+     *
+     * @param cell1 Cell that should be combined with this cell
+     * @param f     Function that combines the values
+     * @param <IN1> Input type
+     * @param <OUT> Result type
+     * @return Cell of the combined value, None while any of the cells is None
+     */
+    @NotNull
+    public <IN1, OUT> DerivedOptionCell<OUT> lift(@NotNull final BaseOptionCell<IN1> cell1,
+                                                  @NotNull final Func2<T, IN1, OUT> f) {
+        return new DerivedOptionCell<OUT>(new BaseOptionCell<?>[]{this, cell1},
+                                          new Func0<Option<OUT>>() {
+                                              @Override
+                                              public Option<OUT> call() {
+                                                  return get().lift(cell1.get(), f);
+                                              }
+                                          });
+    }
+
+    /**
+     * Derives a cell combining the values of this cell, @cell1 and @cell2 using @f.
+     *
+     * @param cell1 Cell that should be combined with this cell
+     * @param cell2 Cell that should be combined with this cell
+     * @param f     Function that combines the values
+     * @param <IN1> Input type
+     * @param <IN2> Input type
+     * @param <OUT> Result type
+     * @return Cell of the combined value, None while any of the cells is None
+     */
+    @NotNull
+    public <IN1, IN2, OUT> DerivedOptionCell<OUT> lift(@NotNull final BaseOptionCell<IN1> cell1,
+                                                       @NotNull final BaseOptionCell<IN2> cell2,
+                                                       @NotNull final Func3<T, IN1, IN2, OUT> f) {
+        return new DerivedOptionCell<OUT>(new BaseOptionCell<?>[]{this, cell1, cell2},
+                                          new Func0<Option<OUT>>() {
+                                              @Override
+                                              public Option<OUT> call() {
+                                                  return get().lift(cell1.get(), cell2.get(), f);
+                                              }
+                                          });
+    }
+
+    @Override
+    public String toString() {
+        return get().toString();
+    }
+
+    /**
+     * Counter incremented after every change of an {@link OptionCell} of a graph, derived cells
+     * verified in the current epoch are up to date without looking at their inputs.
+     * <p/>
+     * Every input cell starts a graph of its own, so changes in one graph do not invalidate the
+     * cells of the others. Deriving a cell from cells of several graphs merges their epochs.
+     */
+    static final class Epoch {
+
+        @NotNull
+        private static final Object MERGE_LOCK = new Object();
+
+        @NotNull
+        private final AtomicLong mCount = new AtomicLong();
+
+        @Nullable
+        private volatile Epoch mMergedInto;
+
+        /**
+         * Merges the epochs of @cells into one.
+         */
+        @NotNull
+        static Epoch merge(@NotNull final BaseOptionCell<?>[] cells) {
+            synchronized (MERGE_LOCK) {
+                final Epoch root = cells[0].epoch();
+                for (int i = 1; i < cells.length; i++) {
+                    final Epoch other = cells[i].epoch();
+                    if (other != root) {
+                        other.mMergedInto = root;
+                        // Past every count the cells of either graph were verified at
+                        final long merged = Math.max(root.mCount.get(), other.mCount.get()) + 1;
+                        raise(root.mCount, merged);
+                    }
+                }
+                return root;
+            }
+        }
+
+        private static void raise(@NotNull final AtomicLong count, final long atLeast) {
+            while (true) {
+                final long current = count.get();
+                if (current >= atLeast || count.compareAndSet(current, atLeast)) {
+                    return;
+                }
+            }
+        }
+
+        long count() {
+            return mCount.get();
+        }
+
+        /**
+         * Increments the count. When the epoch was merged meanwhile, the epoch it was merged into
+         * is incremented as well, so the change is not lost.
+         */
+        void advance() {
+            Epoch epoch = this;
+            while (epoch != null) {
+                epoch.mCount.incrementAndGet();
+                epoch = epoch.mMergedInto;
+            }
+        }
+
+        @NotNull
+        Epoch root() {
+            Epoch epoch = this;
+            Epoch next;
+            while ((next = epoch.mMergedInto) != null) {
+                epoch = next;
+            }
+            return epoch;
+        }
+    }
+}
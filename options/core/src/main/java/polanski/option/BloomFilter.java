@@ -0,0 +1,218 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import polanski.option.function.Func1;
+
+/**
+ * Thread safe, lock-free Bloom filter answering whether a key was possibly added.
+ * <p/>
+ * A key that was added is always reported as possibly contained, a key that was not added is
+ * reported as contained with roughly the false positive rate given on creation, as long as no
+ * more than the expected number of keys are added.
+ * <p/>
+ * Both probe hashes are derived from a single 64-bit hash of the key. By default that is the
+ * {@link Object#hashCode()} of the key, so keys with colliding hash codes are never told apart
+ * and the false positive rate cannot go below the chance of such a collision, about
+ * expectedInsertions / 2^32. Filters with a lower rate should be given a 64-bit hash function,
+ * see {@link #strings(long, double)} and {@link #longs(long, double)}.
+ *
+ * @param <T> Type of the keys
+ */
+public final class BloomFilter<T> {
+
+    private static final double HASH_CODE_RANGE = 4294967296.0;
+
+    @NotNull
+    private static final Func1<String, Long> STRING_HASH = new Func1<String, Long>() {
+        @Override
+        public Long call(final String value) {
+            // 64-bit FNV-1a over the chars, mixed afterwards like every other hash
+            long hash = 0xCBF29CE484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash = (hash ^ value.charAt(i)) * 0x100000001B3L;
+            }
+            return hash;
+        }
+    };
+
+    @NotNull
+    private static final Func1<Long, Long> LONG_HASH = new Func1<Long, Long>() {
+        @Override
+        public Long call(final Long value) {
+            return value;
+        }
+    };
+
+    @NotNull
+    private final AtomicLongArray mBits;
+
+    @Nullable
+    private final Func1<T, Long> mHash;
+
+    private final long mBitCount;
+
+    private final int mHashCount;
+
+    /**
+     * Constructor of a filter hashing the keys with their {@link Object#hashCode()}.
+     * <p/>
+     * As 32-bit hash codes cannot get the rate below about @expectedInsertions / 2^32, the
+     * filter is never sized for a lower rate, as the additional bits would be wasted.
+     *
+     * @param expectedInsertions Number of keys expected to be added
+     * @param falsePositiveRate  Acceptable ratio of keys wrongly reported as contained, between
+     *                           0 and 1 exclusive
+     */
+    public BloomFilter(final long expectedInsertions, final double falsePositiveRate) {
+        this(expectedInsertions, falsePositiveRate, null);
+    }
+
+    /**
+     * Constructor of a filter hashing the keys with @hash.
+     *
+     * @param expectedInsertions Number of keys expected to be added
+     * @param falsePositiveRate  Acceptable ratio of keys wrongly reported as contained, between
+     *                           0 and 1 exclusive
+     * @param hash               Function returning a 64-bit hash of a key, it does not need to
+     *                           be well distributed, the bits are mixed anyway
+     */
+    public BloomFilter(final long expectedInsertions,
+                       final double falsePositiveRate,
+                       @Nullable final Func1<T, Long> hash) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive: " + expectedInsertions);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        final double rate = hash == null
+                ? Math.max(falsePositiveRate, Math.min(0.5, expectedInsertions / HASH_CODE_RANGE))
+                : falsePositiveRate;
+        final double ln2 = Math.log(2);
+        final long bits = (long) Math.ceil(-expectedInsertions * Math.log(rate) / (ln2 * ln2));
+        final long words = Math.max(1, (bits + 63) >>> 6);
+        if (words > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bloom filter would be too large: " + bits + " bits");
+        }
+        mBits = new AtomicLongArray((int) words);
+        mHash = hash;
+        mBitCount = words << 6;
+        mHashCount = Math.max(1, (int) Math.round((double) mBitCount / expectedInsertions * ln2));
+    }
+
+    /**
+     * Creates a filter of strings hashed to 64 bits, so its rate is not limited by
+     * {@link String#hashCode()} collisions.
+     *
+     * @param expectedInsertions Number of keys expected to be added
+     * @param falsePositiveRate  Acceptable ratio of keys wrongly reported as contained
+     * @return Filter
+     */
+    @NotNull
+    public static BloomFilter<String> strings(final long expectedInsertions,
+                                              final double falsePositiveRate) {
+        return new BloomFilter<String>(expectedInsertions, falsePositiveRate, STRING_HASH);
+    }
+
+    /**
+     * Creates a filter of longs hashed with all their 64 bits, so its rate is not limited by
+     * {@link Long#hashCode()} collisions.
+     *
+     * @param expectedInsertions Number of keys expected to be added
+     * @param falsePositiveRate  Acceptable ratio of keys wrongly reported as contained
+     * @return Filter
+     */
+    @NotNull
+    public static BloomFilter<Long> longs(final long expectedInsertions,
+                                          final double falsePositiveRate) {
+        return new BloomFilter<Long>(expectedInsertions, falsePositiveRate, LONG_HASH);
+    }
+
+    /**
+     * Adds @key to the filter.
+     *
+     * @param key Key to be added
+     * @return true if the filter changed, false if @key was possibly added before
+     */
+    public boolean put(@NotNull final T key) {
+        final long hash = hash(key);
+        final long hash1 = hash & 0xFFFFFFFFL;
+        final long hash2 = hash >>> 32;
+        boolean changed = false;
+        for (int i = 0; i < mHashCount; i++) {
+            final long bit = (hash1 + i * hash2) % mBitCount;
+            final int word = (int) (bit >>> 6);
+            final long mask = 1L << bit;
+            while (true) {
+                final long current = mBits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+                if (mBits.compareAndSet(word, current, current | mask)) {
+                    changed = true;
+                    break;
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Indicates if @key was possibly added.
+     *
+     * @param key Key to be checked
+     * @return false if @key was certainly not added, otherwise true
+     */
+    public boolean mightContain(@NotNull final T key) {
+        final long hash = hash(key);
+        final long hash1 = hash & 0xFFFFFFFFL;
+        final long hash2 = hash >>> 32;
+        for (int i = 0; i < mHashCount; i++) {
+            final long bit = (hash1 + i * hash2) % mBitCount;
+            if ((mBits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number of bits of the filter.
+     *
+     * @return Number of bits
+     */
+    public long bitCount() {
+        return mBitCount;
+    }
+
+    /**
+     * Number of bits set for every key.
+     *
+     * @return Number of hash functions
+     */
+    public int hashCount() {
+        return mHashCount;
+    }
+
+    private long hash(@NotNull final T key) {
+        return mix(mHash == null ? key.hashCode() : mHash.call(key));
+    }
+
+    /**
+     * Spreads the bits of the hash over a long, so the two derived hashes are independent
+     * enough for double hashing.
+     */
+    private static long mix(final long hash) {
+        long h = hash * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
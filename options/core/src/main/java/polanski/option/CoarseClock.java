@@ -0,0 +1,163 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Millisecond clock advanced by a single thread, so reading it is a volatile read instead of a
+ * call to the OS clock. Advancing the clock also runs a timer wheel calling the tasks scheduled
+ * with {@link #schedule(long, Runnable)}.
+ * <p/>
+ * The shared clock is advanced by a daemon thread started on its first use. The time is counted
+ * from the start of the clock and lags behind the real time by at most a few ticks, which is good
+ * enough for expiration of cached values. Tests create their own clock and advance it by hand.
+ */
+final class CoarseClock {
+
+    static final long TICK_MILLIS = 1;
+
+    private static final int WHEEL_SIZE = 1024;
+
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    @NotNull
+    private final List<List<Task>> mWheel = new ArrayList<List<Task>>(WHEEL_SIZE);
+
+    private volatile long mNow;
+
+    /**
+     * Last tick whose slot of the wheel was processed, guarded by mWheel.
+     */
+    private long mLastTick;
+
+    CoarseClock() {
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            mWheel.add(new ArrayList<Task>());
+        }
+    }
+
+    /**
+     * Clock shared by all the expiring options, the ticking thread starts with the first call.
+     */
+    @NotNull
+    static CoarseClock shared() {
+        return Shared.INSTANCE;
+    }
+
+    /**
+     * Current time of the clock.
+     *
+     * @return Milliseconds since the start of the clock
+     */
+    long now() {
+        return mNow;
+    }
+
+    /**
+     * Converts @duration to a time that can be compared with {@link #now()}, saturating on
+     * overflow.
+     */
+    long deadline(final long duration, @NotNull final TimeUnit unit) {
+        final long millis = unit.toMillis(duration);
+        final long now = mNow;
+        return millis > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + millis;
+    }
+
+    /**
+     * Calls @task on the thread advancing the clock once the clock reaches @deadline. The task
+     * has to be short, the clock does not advance while it runs.
+     */
+    void schedule(final long deadline, @NotNull final Runnable task) {
+        synchronized (mWheel) {
+            final long tick = Math.max(deadline, mLastTick + 1);
+            mWheel.get((int) (tick & WHEEL_MASK)).add(new Task(deadline, task));
+        }
+    }
+
+    /**
+     * Number of the tasks waiting on the wheel.
+     */
+    int scheduled() {
+        synchronized (mWheel) {
+            int count = 0;
+            for (final List<Task> slot : mWheel) {
+                count += slot.size();
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Moves the clock to @now and runs the tasks that became due. Called by a single thread.
+     */
+    void advanceTo(final long now) {
+        mNow = now;
+        final List<Runnable> due = new ArrayList<Runnable>();
+        synchronized (mWheel) {
+            // After a long pause every slot is visited once, the remaining tasks are not due yet
+            final long first = Math.max(mLastTick + 1, now - WHEEL_MASK);
+            for (long tick = first; tick <= now; tick++) {
+                final List<Task> slot = mWheel.get((int) (tick & WHEEL_MASK));
+                for (int i = slot.size() - 1; i >= 0; i--) {
+                    final Task task = slot.get(i);
+                    if (task.mDeadline <= now) {
+                        due.add(task.mRunnable);
+                        // Order within a slot does not matter, move the last task into the gap
+                        slot.set(i, slot.get(slot.size() - 1));
+                        slot.remove(slot.size() - 1);
+                    }
+                }
+            }
+            mLastTick = Math.max(mLastTick, now);
+        }
+        for (final Runnable task : due) {
+            try {
+                task.run();
+            } catch (RuntimeException ignored) {
+                // A failing task must not stop the clock
+            }
+        }
+    }
+
+    private static final class Shared {
+
+        @NotNull
+        static final CoarseClock INSTANCE = new CoarseClock();
+
+        static {
+            final long origin = System.nanoTime();
+            final Thread ticker = new Thread("Coarse clock") {
+                @Override
+                public void run() {
+                    while (true) {
+                        try {
+                            Thread.sleep(TICK_MILLIS);
+                        } catch (InterruptedException ignored) {
+                            // Keep ticking, the clock lives as long as the application
+                        }
+                        final long elapsed = System.nanoTime() - origin;
+                        INSTANCE.advanceTo(TimeUnit.NANOSECONDS.toMillis(elapsed));
+                    }
+                }
+            };
+            ticker.setDaemon(true);
+            ticker.start();
+        }
+    }
+
+    private static final class Task {
+
+        final long mDeadline;
+
+        @NotNull
+        final Runnable mRunnable;
+
+        Task(final long deadline, @NotNull final Runnable runnable) {
+            mDeadline = deadline;
+            mRunnable = runnable;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import polanski.option.function.Func0;
+import polanski.option.function.Func1;
+
+import static polanski.option.Option.ofObj;
+
+/**
+ * Thread safe version of {@link OptionMap}.
+ * <p/>
+ * Values are stored already wrapped in {@link Option}, so lookups return the stored {@link Some}
+ * instance or {@link Option#NONE} without allocating.
+ *
+ * @param <K> Type of the keys
+ * @param <V> Type of the values
+ */
+public final class ConcurrentOptionMap<K, V> {
+
+    @NotNull
+    private final ConcurrentMap<K, Option<V>> mMap;
+
+    /**
+     * Constructor, creates an empty map with default capacity.
+     */
+    public ConcurrentOptionMap() {
+        mMap = new ConcurrentHashMap<K, Option<V>>();
+    }
+
+    /**
+     * Constructor, creates an empty map that can hold @expectedSize entries without resizing.
+     *
+     * @param expectedSize Number of entries expected to be stored in the map
+     */
+    public ConcurrentOptionMap(final int expectedSize) {
+        mMap = new ConcurrentHashMap<K, Option<V>>(expectedSize);
+    }
+
+    /**
+     * Returns value stored under the @key.
+     *
+     * @param key Key of the value
+     * @return Stored Some if the key exists, otherwise None
+     */
+    @NotNull
+    public Option<V> get(@NotNull final K key) {
+        return orNone(mMap.get(key));
+    }
+
+    /**
+     * Returns value stored under the @key, if it does not exist then the value supplied by @def.
+     *
+     * @param key Key of the value
+     * @param def Function that returns default value
+     * @return Stored value if the key exists, otherwise the default
+     */
+    @NotNull
+    public V getOrDefault(@NotNull final K key, @NotNull final Func0<V> def) {
+        final Option<V> value = mMap.get(key);
+        return value == null ? def.call() : value.getUnsafe();
+    }
+
+    /**
+     * Indicates if the map contains the @key.
+     *
+     * @param key Key to be checked
+     * @return true if value for the key is stored, otherwise false
+     */
+    public boolean containsKey(@NotNull final K key) {
+        return mMap.containsKey(key);
+    }
+
+    /**
+     * Stores the @option under the @key, storing None removes the key.
+     *
+     * @param key    Key of the value
+     * @param option Option to be stored
+     * @return Previously stored value if it existed, otherwise None
+     */
+    @NotNull
+    public Option<V> put(@NotNull final K key, @NotNull final Option<V> option) {
+        return orNone(option.isNone() ? mMap.remove(key) : mMap.put(key, option));
+    }
+
+    /**
+     * Returns value stored under the @key, if it does not exist then computes it with @f and
+     * stores it.
+     * <p/>
+     * When several threads compute the same key at once, @f may be called more than once, but
+     * all of them receive the value that was stored first.
+     *
+     * @param key Key of the value
+     * @param f   Function creating the value for the key, if it returns null nothing is stored
+     * @return Stored or computed value, None if @f returned null
+     */
+    @NotNull
+    public Option<V> computeIfNone(@NotNull final K key,
+                                   @NotNull final Func1<K, V> f) {
+        final Option<V> value = mMap.get(key);
+        if (value != null) {
+            return value;
+        }
+        final Option<V> computed = ofObj(f.call(key));
+        if (computed.isNone()) {
+            return computed;
+        }
+        final Option<V> previous = mMap.putIfAbsent(key, computed);
+        return previous == null ? computed : previous;
+    }
+
+    /**
+     * Removes the value stored under the @key.
+     *
+     * @param key Key of the value
+     * @return Removed value if it existed, otherwise None
+     */
+    @NotNull
+    public Option<V> remove(@NotNull final K key) {
+        return orNone(mMap.remove(key));
+    }
+
+    /**
+     * Number of stored entries.
+     *
+     * @return Size of the map
+     */
+    public int size() {
+        return mMap.size();
+    }
+
+    /**
+     * Indicates if the map has no entries.
+     *
+     * @return true if the map is empty, otherwise false
+     */
+    public boolean isEmpty() {
+        return mMap.isEmpty();
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        mMap.clear();
+    }
+
+    @NotNull
+    private static <V> Option<V> orNone(final Option<V> value) {
+        return value == null ? Option.<V>none() : value;
+    }
+
+    @Override
+    public String toString() {
+        return mMap.toString();
+    }
+}
@@ -0,0 +1,157 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+import polanski.option.function.Action0;
+import polanski.option.function.Func0;
+
+/**
+ * Optional value bound to the current thread for the duration of a block of code, e.g. the
+ * tenant or the trace id of the request being handled.
+ * <p/>
+ * The value is stored as the option it is read as, so {@link #get()} does not allocate and
+ * binding an existing option does not allocate either. Blocks can be nested, the previous value
+ * is restored when a block ends. Tasks passed to other threads do not see the value unless they
+ * are wrapped with {@link #wrap(Runnable)} or submitted through {@link #propagating(Executor,
+ * ContextOption[])}.
+ * <p/>
+ * The value is kept in a {@link ThreadLocal}, not a {@code ScopedValue}, because the library
+ * targets Java 6 and cannot reference the newer API.
+ *
+ * @param <T> Type of the value
+ */
+public final class ContextOption<T> {
+
+    @NotNull
+    private final ThreadLocal<Option<T>> mCurrent = new ThreadLocal<Option<T>>();
+
+    /**
+     * Value bound to the current thread.
+     *
+     * @return Current value, None outside of any block
+     */
+    @NotNull
+    public Option<T> get() {
+        final Option<T> current = mCurrent.get();
+        return current == null ? Option.<T>none() : current;
+    }
+
+    /**
+     * Runs @action with @option bound to the current thread.
+     *
+     * @param option Option to be bound
+     * @param action Code to be run
+     */
+    public void runWith(@NotNull final Option<T> option, @NotNull final Action0 action) {
+        final Option<T> previous = mCurrent.get();
+        mCurrent.set(option);
+        try {
+            action.call();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Calls @f with @option bound to the current thread.
+     *
+     * @param option Option to be bound
+     * @param f      Code to be called
+     * @param <R>    Result type
+     * @return Result of @f
+     */
+    public <R> R callWith(@NotNull final Option<T> option, @NotNull final Func0<R> f) {
+        final Option<T> previous = mCurrent.get();
+        mCurrent.set(option);
+        try {
+            return f.call();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Wraps @task, so it runs with the value bound to the current thread now, no matter which
+     * thread runs it later.
+     *
+     * @param task Task to be wrapped
+     * @return Task binding the captured value
+     */
+    @NotNull
+    public Runnable wrap(@NotNull final Runnable task) {
+        final Option<T> captured = get();
+        return new Runnable() {
+            @Override
+            public void run() {
+                final Option<T> previous = mCurrent.get();
+                mCurrent.set(captured);
+                try {
+                    task.run();
+                } finally {
+                    restore(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * Wraps @task, so it is called with the value bound to the current thread now, no matter
+     * which thread calls it later.
+     *
+     * @param task Task to be wrapped
+     * @param <R>  Result type
+     * @return Task binding the captured value
+     */
+    @NotNull
+    public <R> Callable<R> wrap(@NotNull final Callable<R> task) {
+        final Option<T> captured = get();
+        return new Callable<R>() {
+            @Override
+            public R call() throws Exception {
+                final Option<T> previous = mCurrent.get();
+                mCurrent.set(captured);
+                try {
+                    return task.call();
+                } finally {
+                    restore(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * Wraps @executor, so every task it runs sees the values @contexts had on the thread that
+     * submitted it.
+     *
+     * @param executor Executor running the tasks
+     * @param contexts Contexts to be propagated
+     * @return Executor propagating the contexts
+     */
+    @NotNull
+    public static Executor propagating(@NotNull final Executor executor,
+                                       @NotNull final ContextOption<?>... contexts) {
+        return new Executor() {
+            @Override
+            public void execute(@NotNull final Runnable command) {
+                Runnable task = command;
+                for (final ContextOption<?> context : contexts) {
+                    task = context.wrap(task);
+                }
+                executor.execute(task);
+            }
+        };
+    }
+
+    private void restore(@Nullable final Option<T> previous) {
+        if (previous == null) {
+            // Do not keep the map entry of threads that never had a value, e.g. pooled ones
+            mCurrent.remove();
+        } else {
+            mCurrent.set(previous);
+        }
+    }
+}
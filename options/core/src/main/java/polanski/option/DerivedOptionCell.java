@@ -0,0 +1,112 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+import polanski.option.function.Func0;
+
+/**
+ * Cell computed from other cells, created by the map, flatMap and lift methods of
+ * {@link BaseOptionCell}.
+ * <p/>
+ * The value is computed on the first read and memoized together with the versions of the inputs
+ * it was computed from. Later reads recompute it only when any of those versions changed, and
+ * when no {@link OptionCell} of the same graph changed since the last read, they return the
+ * memoized value after a couple of volatile reads. Changes in unrelated graphs do not count. When a recomputed value equals the previous one, the version and
+ * the option instance are kept, so cells derived from this one are not recomputed.
+ * <p/>
+ * Reads can happen from any thread, recomputations of a single cell are serialized.
+ *
+ * @param <T> Type of the value
+ */
+public final class DerivedOptionCell<T> extends BaseOptionCell<T> {
+
+    @NotNull
+    private final BaseOptionCell<?>[] mInputs;
+
+    @NotNull
+    private final Func0<Option<T>> mCompute;
+
+    @Nullable
+    private volatile State<T> mState;
+
+    DerivedOptionCell(@NotNull final BaseOptionCell<?>[] inputs,
+                      @NotNull final Func0<Option<T>> compute) {
+        super(Epoch.merge(inputs));
+        mInputs = inputs;
+        mCompute = compute;
+    }
+
+    @NotNull
+    @Override
+    public Option<T> get() {
+        return validate().mValue;
+    }
+
+    @Override
+    public long getVersion() {
+        return validate().mVersion;
+    }
+
+    @NotNull
+    private State<T> validate() {
+        // Read before the inputs, a change racing with the validation moves the epoch past it
+        final long epoch = epoch().count();
+        final State<T> state = mState;
+        if (state != null && state.mVerifiedAt == epoch) {
+            return state;
+        }
+        synchronized (this) {
+            final State<T> current = mState;
+            if (current != null && current.mVerifiedAt == epoch) {
+                return current;
+            }
+            // Versions are read before the values the computation reads
+            final long[] versions = new long[mInputs.length];
+            for (int i = 0; i < mInputs.length; i++) {
+                versions[i] = mInputs[i].getVersion();
+            }
+            final State<T> next;
+            if (current != null && Arrays.equals(versions, current.mInputVersions)) {
+                next = new State<T>(current.mValue, current.mVersion, epoch, versions);
+            } else {
+                final Option<T> computed = mCompute.call();
+                final Option<T> value = computed == null ? Option.<T>none() : computed;
+                if (current == null) {
+                    next = new State<T>(value, 0, epoch, versions);
+                } else if (value.equals(current.mValue)) {
+                    next = new State<T>(current.mValue, current.mVersion, epoch, versions);
+                } else {
+                    next = new State<T>(value, current.mVersion + 1, epoch, versions);
+                }
+            }
+            mState = next;
+            return next;
+        }
+    }
+
+    private static final class State<T> {
+
+        @NotNull
+        final Option<T> mValue;
+
+        final long mVersion;
+
+        final long mVerifiedAt;
+
+        @NotNull
+        final long[] mInputVersions;
+
+        State(@NotNull final Option<T> value,
+              final long version,
+              final long verifiedAt,
+              @NotNull final long[] inputVersions) {
+            mValue = value;
+            mVersion = version;
+            mVerifiedAt = verifiedAt;
+            mInputVersions = inputVersions;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Fixed size column of optional primitive doubles.
+ * <p/>
+ * Presence of the values is kept in a bitmap, 64 entries per word, next to an array of the
+ * unboxed values. Values of missing entries are undefined. Bulk operations over whole columns
+ * are provided by {@link OptionColumns}.
+ */
+public final class DoubleOptionColumn {
+
+    @NotNull
+    final long[] mPresence;
+
+    @NotNull
+    final double[] mValues;
+
+    private final int mSize;
+
+    /**
+     * Constructor, creates a column with all entries missing.
+     *
+     * @param size Number of entries
+     */
+    public DoubleOptionColumn(final int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Size cannot be negative: " + size);
+        }
+        mSize = size;
+        mPresence = new long[(size + 63) >>> 6];
+        mValues = new double[size];
+    }
+
+    /**
+     * Number of entries.
+     *
+     * @return Size of the column
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Indicates if the entry at @index has a value.
+     *
+     * @param index Index of the entry
+     * @return true if the value exists, otherwise false
+     */
+    public boolean isSome(final int index) {
+        checkIndex(index);
+        return (mPresence[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Returns the value at @index if it exists, otherwise @def.
+     *
+     * @param index Index of the entry
+     * @param def   Default value
+     * @return Value of the entry or the default
+     */
+    public double getOrDefault(final int index, final double def) {
+        return isSome(index) ? mValues[index] : def;
+    }
+
+    /**
+     * Returns the entry at @index as an {@link Option}, the value is boxed.
+     *
+     * @param index Index of the entry
+     * @return Some of the value if it exists, otherwise None
+     */
+    @NotNull
+    public Option<Double> get(final int index) {
+        return isSome(index) ? Option.ofObj(mValues[index]) : Option.<Double>none();
+    }
+
+    /**
+     * Sets the value of the entry at @index.
+     *
+     * @param index Index of the entry
+     * @param value Value to be set
+     */
+    public void set(final int index, final double value) {
+        checkIndex(index);
+        mValues[index] = value;
+        mPresence[index >>> 6] |= 1L << index;
+    }
+
+    /**
+     * Sets the entry at @index from an {@link Option}.
+     *
+     * @param index  Index of the entry
+     * @param option Option of the value, None makes the entry missing
+     */
+    public void set(final int index, @NotNull final Option<Double> option) {
+        if (option.isSome()) {
+            set(index, option.getUnsafe());
+        } else {
+            clear(index);
+        }
+    }
+
+    /**
+     * Makes the entry at @index missing.
+     *
+     * @param index Index of the entry
+     */
+    public void clear(final int index) {
+        checkIndex(index);
+        mPresence[index >>> 6] &= ~(1L << index);
+    }
+
+    /**
+     * Number of entries with a value.
+     *
+     * @return Count of present entries
+     */
+    public int count() {
+        int count = 0;
+        for (final long word : mPresence) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + mSize);
+        }
+    }
+}
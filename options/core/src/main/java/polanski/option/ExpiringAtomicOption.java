@@ -0,0 +1,285 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import polanski.option.function.Action1;
+import polanski.option.function.Func0;
+
+/**
+ * Atomic holder of an {@link ExpiringOption}, every value set lives for the same time to live.
+ * <p/>
+ * Reads check the deadline against a shared coarse clock, so they do not call the OS clock.
+ * With a loader, the value is loaded again in the background once a read finds it close to its
+ * deadline, so frequently read values do not expire. Listeners added with
+ * {@link #onExpired(Action1, Executor)} are submitted to their executor by a timer wheel once a
+ * value expires without being replaced.
+ *
+ * @param <T> Type of the value
+ */
+public final class ExpiringAtomicOption<T> {
+
+    @NotNull
+    private final AtomicReference<ExpiringOption<T>> mCurrent =
+            new AtomicReference<ExpiringOption<T>>(ExpiringOption.<T>empty());
+
+    @NotNull
+    private final List<ExpiryListener<T>> mExpiryListeners =
+            new CopyOnWriteArrayList<ExpiryListener<T>>();
+
+    @NotNull
+    private final CoarseClock mClock;
+
+    @NotNull
+    private final AtomicBoolean mRefreshing = new AtomicBoolean();
+
+    /**
+     * Indicates that {@link #mExpiryTask} is on the timer wheel, so there is at most one entry
+     * per holder no matter how often the value is replaced.
+     */
+    @NotNull
+    private final AtomicBoolean mExpiryScheduled = new AtomicBoolean();
+
+    @NotNull
+    private final Runnable mExpiryTask = new Runnable() {
+        @Override
+        public void run() {
+            expireOrReschedule();
+        }
+    };
+
+    private final long mTtl;
+
+    @NotNull
+    private final TimeUnit mUnit;
+
+    @Nullable
+    private final Func0<Option<T>> mLoader;
+
+    private final long mRefreshAheadMillis;
+
+    @Nullable
+    private final Executor mExecutor;
+
+    /**
+     * Time before which a failed load is not retried.
+     */
+    private volatile long mNextAttempt;
+
+    /**
+     * Constructor, the holder is empty.
+     *
+     * @param ttl  Time to live of the values
+     * @param unit Unit of @ttl
+     */
+    public ExpiringAtomicOption(final long ttl, @NotNull final TimeUnit unit) {
+        this(ttl, unit, null, 0, null, CoarseClock.shared());
+    }
+
+    /**
+     * Constructor of a holder loading its value with @loader, the first read starts the load.
+     * <p/>
+     * A load starts when a read happens less than @refreshAhead before the deadline, or while
+     * the holder is empty. Only one load runs at a time. When @loader returns None or throws,
+     * the current value is kept and the load is not retried for @refreshAhead.
+     *
+     * @param ttl          Time to live of the values
+     * @param unit         Unit of @ttl and @refreshAhead
+     * @param loader       Function loading the value
+     * @param refreshAhead Time before the deadline at which a read starts a load
+     * @param executor     Executor running the loads
+     */
+    public ExpiringAtomicOption(final long ttl,
+                                @NotNull final TimeUnit unit,
+                                @NotNull final Func0<Option<T>> loader,
+                                final long refreshAhead,
+                                @NotNull final Executor executor) {
+        this(ttl, unit, loader, refreshAhead, executor, CoarseClock.shared());
+    }
+
+    ExpiringAtomicOption(final long ttl,
+                         @NotNull final TimeUnit unit,
+                         @Nullable final Func0<Option<T>> loader,
+                         final long refreshAhead,
+                         @Nullable final Executor executor,
+                         @NotNull final CoarseClock clock) {
+        mTtl = ttl;
+        mUnit = unit;
+        mLoader = loader;
+        mRefreshAheadMillis = unit.toMillis(refreshAhead);
+        mExecutor = executor;
+        mClock = clock;
+    }
+
+    /**
+     * Current value.
+     *
+     * @return Value set less than the time to live ago, otherwise None
+     */
+    @NotNull
+    public Option<T> get() {
+        final ExpiringOption<T> current = mCurrent.get();
+        if (mLoader != null) {
+            refreshIfDue(current);
+        }
+        return current.get();
+    }
+
+    /**
+     * Current value together with its deadline.
+     *
+     * @return Current expiring option
+     */
+    @NotNull
+    public ExpiringOption<T> getExpiring() {
+        return mCurrent.get();
+    }
+
+    /**
+     * Replaces the value, its time to live starts now.
+     *
+     * @param option New value, None empties the holder
+     */
+    public void set(@NotNull final Option<T> option) {
+        final ExpiringOption<T> next = ExpiringOption.of(option, mTtl, mUnit, mClock);
+        mCurrent.set(next);
+        scheduleExpiry(next);
+    }
+
+    /**
+     * Empties the holder.
+     */
+    public void clear() {
+        mCurrent.set(ExpiringOption.<T>empty());
+    }
+
+    /**
+     * Atomically empties the holder and returns the previous value.
+     *
+     * @return Previous value, None if it expired
+     */
+    @NotNull
+    public Option<T> getAndClear() {
+        return mCurrent.getAndSet(ExpiringOption.<T>empty()).get();
+    }
+
+    /**
+     * Adds a listener called on @executor with every value that expires without being replaced.
+     * Only values set after the listener was added are tracked.
+     * <p/>
+     * The executor is called by the thread advancing the shared clock, so it must not block, but
+     * the listener itself may take as long as it needs.
+     *
+     * @param listener Listener of expired values
+     * @param executor Executor running the listener
+     */
+    public void onExpired(@NotNull final Action1<Option<T>> listener,
+                          @NotNull final Executor executor) {
+        mExpiryListeners.add(new ExpiryListener<T>(listener, executor));
+    }
+
+    private void scheduleExpiry(@NotNull final ExpiringOption<T> expiring) {
+        if (mExpiryListeners.isEmpty() || expiring.getIgnoringExpiry().isNone()) {
+            return;
+        }
+        // A pending task is due no later than this value, so it reschedules itself for it
+        if (mExpiryScheduled.compareAndSet(false, true)) {
+            mClock.schedule(expiring.expiresAt(), mExpiryTask);
+        }
+    }
+
+    /**
+     * Runs on the clock thread, the wheel references only the holder and never a replaced value.
+     */
+    private void expireOrReschedule() {
+        while (true) {
+            final ExpiringOption<T> current = mCurrent.get();
+            if (current.getIgnoringExpiry().isNone()) {
+                // Cleared or already expired, unless a value was set before the flag was reset
+                mExpiryScheduled.set(false);
+                if (mCurrent.get().getIgnoringExpiry().isNone()
+                    || !mExpiryScheduled.compareAndSet(false, true)) {
+                    return;
+                }
+            } else if (mClock.now() < current.expiresAt()) {
+                mClock.schedule(current.expiresAt(), mExpiryTask);
+                return;
+            } else if (mCurrent.compareAndSet(current, ExpiringOption.<T>empty())) {
+                final Option<T> expired = current.getIgnoringExpiry();
+                for (final ExpiryListener<T> listener : mExpiryListeners) {
+                    listener.expired(expired);
+                }
+            }
+        }
+    }
+
+    private void refreshIfDue(@NotNull final ExpiringOption<T> current) {
+        final long now = mClock.now();
+        final boolean due = current.getIgnoringExpiry().isNone()
+                            || now >= current.expiresAt() - mRefreshAheadMillis;
+        if (due && now >= mNextAttempt && mRefreshing.compareAndSet(false, true)) {
+            try {
+                mExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        refresh();
+                    }
+                });
+            } catch (RuntimeException e) {
+                mRefreshing.set(false);
+                throw e;
+            }
+        }
+    }
+
+    private void refresh() {
+        boolean loaded = false;
+        try {
+            final Option<T> option = mLoader.call();
+            if (option != null && option.isSome()) {
+                set(option);
+                loaded = true;
+            }
+        } finally {
+            if (!loaded) {
+                mNextAttempt = mClock.deadline(mRefreshAheadMillis, TimeUnit.MILLISECONDS);
+            }
+            mRefreshing.set(false);
+        }
+    }
+
+    private static final class ExpiryListener<T> {
+
+        @NotNull
+        private final Action1<Option<T>> mListener;
+
+        @NotNull
+        private final Executor mExecutor;
+
+        ExpiryListener(@NotNull final Action1<Option<T>> listener,
+                       @NotNull final Executor executor) {
+            mListener = listener;
+            mExecutor = executor;
+        }
+
+        void expired(@NotNull final Option<T> expired) {
+            try {
+                mExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        mListener.call(expired);
+                    }
+                });
+            } catch (RuntimeException ignored) {
+                // A rejecting executor must not keep the other listeners from being notified
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable option that turns into None once its time to live passes.
+ * <p/>
+ * Expiration is checked against a shared coarse clock with a millisecond resolution, so reading
+ * the value does not call the OS clock. The value may therefore be returned up to a few
+ * milliseconds after its exact deadline.
+ *
+ * @param <T> Type of the value
+ */
+public final class ExpiringOption<T> {
+
+    @NotNull
+    private static final ExpiringOption<Object> EMPTY =
+            new ExpiringOption<Object>(Option.none(), null, Long.MAX_VALUE);
+
+    @NotNull
+    private final Option<T> mOption;
+
+    /**
+     * Clock the deadline is checked against, null for the empty option that never expires.
+     */
+    @Nullable
+    private final CoarseClock mClock;
+
+    private final long mExpiresAt;
+
+    private ExpiringOption(@NotNull final Option<T> option,
+                           @Nullable final CoarseClock clock,
+                           final long expiresAt) {
+        mOption = option;
+        mClock = clock;
+        mExpiresAt = expiresAt;
+    }
+
+    /**
+     * Creates an option holding @value for @ttl. Named like {@link Option#ofObj(Object)}, so
+     * that a null argument is not ambiguous with {@link #of(Option, long, TimeUnit)}.
+     *
+     * @param value Value, null creates an empty option
+     * @param ttl   Time to live
+     * @param unit  Unit of @ttl
+     * @param <T>   Type of the value
+     * @return Expiring option
+     */
+    @NotNull
+    public static <T> ExpiringOption<T> ofObj(@Nullable final T value,
+                                              final long ttl,
+                                              @NotNull final TimeUnit unit) {
+        return of(Option.ofObj(value), ttl, unit);
+    }
+
+    /**
+     * Creates an option holding @option for @ttl.
+     *
+     * @param option Option to be held
+     * @param ttl    Time to live
+     * @param unit   Unit of @ttl
+     * @param <T>    Type of the value
+     * @return Expiring option
+     */
+    @NotNull
+    public static <T> ExpiringOption<T> of(@NotNull final Option<T> option,
+                                           final long ttl,
+                                           @NotNull final TimeUnit unit) {
+        return of(option, ttl, unit, CoarseClock.shared());
+    }
+
+    @NotNull
+    static <T> ExpiringOption<T> of(@NotNull final Option<T> option,
+                                    final long ttl,
+                                    @NotNull final TimeUnit unit,
+                                    @NotNull final CoarseClock clock) {
+        return option.isSome()
+                ? new ExpiringOption<T>(option, clock, clock.deadline(ttl, unit))
+                : ExpiringOption.<T>empty();
+    }
+
+    /**
+     * Empty option, that never expires.
+     *
+     * @param <T> Type of the value
+     * @return Empty option
+     */
+    @SuppressWarnings("unchecked")
+    @NotNull
+    public static <T> ExpiringOption<T> empty() {
+        return (ExpiringOption<T>) EMPTY;
+    }
+
+    /**
+     * Current value.
+     *
+     * @return The held option before its deadline, otherwise None
+     */
+    @NotNull
+    public Option<T> get() {
+        return isExpired() ? Option.<T>none() : mOption;
+    }
+
+    /**
+     * Returns the held option, whether it expired or not.
+     *
+     * @return Held option
+     */
+    @NotNull
+    public Option<T> getIgnoringExpiry() {
+        return mOption;
+    }
+
+    /**
+     * Checks whether the deadline passed.
+     *
+     * @return true after the deadline, otherwise false
+     */
+    public boolean isExpired() {
+        return mClock != null && mClock.now() >= mExpiresAt;
+    }
+
+    /**
+     * Time left until the deadline.
+     *
+     * @param unit Unit of the result
+     * @return Remaining time, 0 if expired and {@link Long#MAX_VALUE} for empty options
+     */
+    public long remaining(@NotNull final TimeUnit unit) {
+        if (mClock == null || mExpiresAt == Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        return unit.convert(Math.max(0, mExpiresAt - mClock.now()), TimeUnit.MILLISECONDS);
+    }
+
+    long expiresAt() {
+        return mExpiresAt;
+    }
+
+    @Override
+    public String toString() {
+        return get().toString();
+    }
+}
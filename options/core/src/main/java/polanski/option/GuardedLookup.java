@@ -0,0 +1,89 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import polanski.option.function.Func1;
+
+/**
+ * Lookup that calls the loader only for keys a {@link BloomFilter} might contain, all the other
+ * keys are answered with {@link Option#NONE} right away.
+ * <p/>
+ * Created by {@link Options#guarded(BloomFilter, Func1)}. Counts how many lookups were answered
+ * by the filter alone and how many reached the loader just to return None.
+ *
+ * @param <K> Type of the keys
+ * @param <V> Type of the values
+ */
+public final class GuardedLookup<K, V> implements Func1<K, Option<V>> {
+
+    @NotNull
+    private final BloomFilter<K> mFilter;
+
+    @NotNull
+    private final Func1<K, Option<V>> mLoader;
+
+    @NotNull
+    private final AtomicLong mTrueNegatives = new AtomicLong();
+
+    @NotNull
+    private final AtomicLong mFalsePositives = new AtomicLong();
+
+    @NotNull
+    private final AtomicLong mHits = new AtomicLong();
+
+    GuardedLookup(@NotNull final BloomFilter<K> filter,
+                  @NotNull final Func1<K, Option<V>> loader) {
+        mFilter = filter;
+        mLoader = loader;
+    }
+
+    @NotNull
+    @Override
+    public Option<V> call(@NotNull final K key) {
+        if (!mFilter.mightContain(key)) {
+            mTrueNegatives.incrementAndGet();
+            return Option.none();
+        }
+        final Option<V> result = mLoader.call(key);
+        (result.isSome() ? mHits : mFalsePositives).incrementAndGet();
+        return result;
+    }
+
+    /**
+     * Adds @key to the filter, so it will be passed to the loader.
+     *
+     * @param key Key known to the loader
+     */
+    public void add(@NotNull final K key) {
+        mFilter.put(key);
+    }
+
+    /**
+     * Number of lookups answered with None without calling the loader.
+     *
+     * @return Number of true negatives
+     */
+    public long getTrueNegatives() {
+        return mTrueNegatives.get();
+    }
+
+    /**
+     * Number of lookups the filter let through, but the loader returned None.
+     *
+     * @return Number of false positives
+     */
+    public long getFalsePositives() {
+        return mFalsePositives.get();
+    }
+
+    /**
+     * Number of lookups the loader returned Some for.
+     *
+     * @return Number of hits
+     */
+    public long getHits() {
+        return mHits.get();
+    }
+}
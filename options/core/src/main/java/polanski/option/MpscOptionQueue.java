@@ -0,0 +1,57 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link OptionQueue} for any number of producer threads and a single consumer thread.
+ * <p/>
+ * Producers claim a slot by increasing the producer index with compare-and-set, then publish the
+ * value into it. The consumer waits for a claimed slot to be published, so values are always
+ * polled in the order of their claims.
+ *
+ * @param <T> Type of the values
+ */
+final class MpscOptionQueue<T> extends OptionQueue<T> {
+
+    MpscOptionQueue(final int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    public boolean offer(@NotNull final Option<T> option) {
+        if (option.isNone()) {
+            return true;
+        }
+        final int capacity = mMask + 1;
+        while (true) {
+            final long index = mProducerIndex.get();
+            if (index - mConsumerIndex.get() >= capacity) {
+                return false;
+            }
+            if (mProducerIndex.compareAndSet(index, index + 1)) {
+                mBuffer.lazySet((int) index & mMask, option);
+                return true;
+            }
+        }
+    }
+
+    @NotNull
+    @Override
+    public Option<T> poll() {
+        final long index = mConsumerIndex.get();
+        final int slot = (int) index & mMask;
+        Option<T> option = mBuffer.get(slot);
+        if (option == null) {
+            if (index == mProducerIndex.get()) {
+                return Option.none();
+            }
+            // The slot is claimed, but its producer did not publish the value yet
+            while ((option = mBuffer.get(slot)) == null) {
+                Thread.yield();
+            }
+        }
+        mBuffer.lazySet(slot, null);
+        mConsumerIndex.lazySet(index + 1);
+        return option;
+    }
+}
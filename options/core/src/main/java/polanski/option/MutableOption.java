@@ -0,0 +1,186 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+
+import polanski.option.function.Func0;
+import polanski.option.function.Func1;
+
+import static polanski.option.Option.ofObj;
+
+/**
+ * Mutable holder of a possibly missing value, that can be reused instead of creating a new
+ * {@link Option} for every value.
+ * <p/>
+ * Meant only for the hottest loops, where the holder does not escape. When the value has to be
+ * kept or passed on, convert it with {@link #toOption()}. Instances are not thread safe, use
+ * {@link #acquire()} and {@link #release(MutableOption)} to reuse them within a thread.
+ *
+ * @param <T> Type of the value
+ */
+public final class MutableOption<T> {
+
+    private static final int MAX_POOLED = 16;
+
+    @NotNull
+    private static final ThreadLocal<ArrayDeque<MutableOption<?>>> POOL =
+            new ThreadLocal<ArrayDeque<MutableOption<?>>>() {
+                @Override
+                protected ArrayDeque<MutableOption<?>> initialValue() {
+                    return new ArrayDeque<MutableOption<?>>(MAX_POOLED);
+                }
+            };
+
+    @Nullable
+    private T mValue;
+
+    /**
+     * Constructor, the holder is empty.
+     */
+    public MutableOption() {
+    }
+
+    /**
+     * Takes an empty holder from the pool of the current thread, or creates one if the pool
+     * is empty.
+     *
+     * @param <T> Type of the value
+     * @return Empty holder
+     */
+    @SuppressWarnings("unchecked")
+    @NotNull
+    public static <T> MutableOption<T> acquire() {
+        final MutableOption<?> pooled = POOL.get().pollLast();
+        return pooled == null ? new MutableOption<T>() : (MutableOption<T>) pooled;
+    }
+
+    /**
+     * Empties the holder and returns it to the pool of the current thread. The holder must not
+     * be used after it was released.
+     *
+     * @param option Holder to be released
+     */
+    public static void release(@NotNull final MutableOption<?> option) {
+        option.mValue = null;
+        final ArrayDeque<MutableOption<?>> pool = POOL.get();
+        if (pool.size() < MAX_POOLED) {
+            pool.addLast(option);
+        }
+    }
+
+    /**
+     * Indicates if holder contains value
+     *
+     * @return true if the value exists, otherwise false
+     */
+    public boolean isSome() {
+        return mValue != null;
+    }
+
+    /**
+     * Indicates if holder does not contain a value
+     *
+     * @return true if the value does not exist, otherwise false
+     */
+    public boolean isNone() {
+        return mValue == null;
+    }
+
+    /**
+     * Forcefully unwraps the value.
+     * <p/>
+     * Caution! Check {@link #isSome()} first.
+     *
+     * @return Value if exists, otherwise throws exception that shouldn't be caught
+     */
+    @NotNull
+    public T getUnsafe() {
+        final T value = mValue;
+        if (value == null) {
+            throw new IllegalStateException();
+        }
+        return value;
+    }
+
+    /**
+     * Returns current value if it exists, otherwise the value supplied by @def
+     *
+     * @param def Function that returns default value
+     * @return If value exists, then returns it, otherwise the default
+     */
+    @NotNull
+    public T orDefault(@NotNull final Func0<T> def) {
+        final T value = mValue;
+        return value == null ? def.call() : value;
+    }
+
+    /**
+     * Replaces the value. Named apart from {@link #set(Option)}, so that a null argument is not
+     * ambiguous.
+     *
+     * @param value New value, null empties the holder
+     * @return this holder
+     */
+    @NotNull
+    public MutableOption<T> setValue(@Nullable final T value) {
+        mValue = value;
+        return this;
+    }
+
+    /**
+     * Replaces the value with the value of @option.
+     *
+     * @param option Option whose value should be held, None empties the holder
+     * @return this holder
+     */
+    @NotNull
+    public MutableOption<T> set(@NotNull final Option<T> option) {
+        mValue = option.isSome() ? option.getUnsafe() : null;
+        return this;
+    }
+
+    /**
+     * Empties the holder.
+     *
+     * @return this holder
+     */
+    @NotNull
+    public MutableOption<T> clear() {
+        mValue = null;
+        return this;
+    }
+
+    /**
+     * Converts the value with @selector into @target, if the value does not exist, then @target
+     * is emptied.
+     *
+     * @param selector Function that converts the value
+     * @param target   Holder the converted value is written to, may be this holder
+     * @param <OUT>    Result type
+     * @return @target
+     */
+    @NotNull
+    public <OUT> MutableOption<OUT> map(@NotNull final Func1<T, OUT> selector,
+                                        @NotNull final MutableOption<OUT> target) {
+        final T value = mValue;
+        target.mValue = value == null ? null : selector.call(value);
+        return target;
+    }
+
+    /**
+     * Creates an immutable snapshot of the holder.
+     *
+     * @return Some of the current value if it exists, otherwise None
+     */
+    @NotNull
+    public Option<T> toOption() {
+        return ofObj(mValue);
+    }
+
+    @Override
+    public String toString() {
+        return mValue == null ? "None" : mValue.toString();
+    }
+}
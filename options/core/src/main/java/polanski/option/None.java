@@ -21,6 +21,8 @@ import polanski.option.function.FuncN;
  */
 public final class None<T> extends Option<T> {
 
+    private static final long serialVersionUID = 1L;
+
     None() {
     }
 
@@ -152,4 +154,14 @@ public final class None<T> extends Option<T> {
     public boolean equals(final Object o) {
         return o instanceof None;
     }
+
+    /**
+     * Keeps {@link Option#NONE} the only instance after deserialization, as it is compared by
+     * identity.
+     *
+     * @return {@link Option#NONE}
+     */
+    private Object readResolve() {
+        return NONE;
+    }
 }
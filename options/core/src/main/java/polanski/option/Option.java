@@ -3,6 +3,7 @@ package polanski.option;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.Serializable;
 import java.util.List;
 import java.util.concurrent.Callable;
 
@@ -21,7 +22,9 @@ import polanski.option.function.FuncN;
  *
  * @param <T> type of object that could possibly be missing
  */
-public abstract class Option<T> {
+public abstract class Option<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     /**
      * Representation of non existing value
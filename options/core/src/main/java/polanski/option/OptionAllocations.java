@@ -0,0 +1,174 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+
+import polanski.option.function.Action0;
+
+/**
+ * Test assertions on the number of bytes allocated by a piece of code, for guarding the
+ * allocation-free hot paths of the library and of its users.
+ * <p/>
+ * Bytes are counted with the per-thread allocation counter of HotSpot based JVMs
+ * ({@code com.sun.management.ThreadMXBean}), accessed reflectively so the class loads on any
+ * platform. Use {@link #isSupported()} to skip the checks where the counter is missing.
+ * <p/>
+ * The measured code is first run enough times to be compiled, then measured in several rounds
+ * of many runs each. The round allocating the fewest bytes is reported, minus the bytes allocated
+ * by the measurement itself, so a single round disturbed by class loading or a compilation does
+ * not fail the check.
+ */
+public final class OptionAllocations {
+
+    private static final int WARM_UP_RUNS = 20000;
+
+    private static final int ROUNDS = 5;
+
+    private static final int RUNS_PER_ROUND = 1000;
+
+    @Nullable
+    private static final Counter COUNTER = Counter.create();
+
+    @NotNull
+    private static final Action0 EMPTY = new Action0() {
+        @Override
+        public void call() {
+        }
+    };
+
+    OptionAllocations() {
+        throw new AssertionError("Must not create an instance");
+    }
+
+    /**
+     * Indicates if allocations can be measured on the current JVM.
+     *
+     * @return true if the per-thread allocation counter is available, otherwise false
+     */
+    public static boolean isSupported() {
+        return COUNTER != null;
+    }
+
+    /**
+     * Measures the average number of bytes allocated by a single run of @action.
+     *
+     * @param action Code to be measured, run many times on the calling thread
+     * @return Bytes allocated per run, rounded up so that any allocation counts
+     * @throws IllegalStateException when allocations cannot be measured on this JVM
+     */
+    public static long measure(@NotNull final Action0 action) {
+        return (measureRound(action) + RUNS_PER_ROUND - 1) / RUNS_PER_ROUND;
+    }
+
+    /**
+     * Asserts that a single run of @action allocates at most @bytes on average.
+     *
+     * @param bytes  Allowed number of bytes per run
+     * @param action Code to be measured, run many times on the calling thread
+     * @throws IllegalStateException when allocations cannot be measured on this JVM
+     */
+    public static void assertAllocatesAtMost(final long bytes, @NotNull final Action0 action) {
+        // Compared in total, a per run average would round small allocations down to nothing
+        final long allocated = measureRound(action);
+        if (allocated > bytes * RUNS_PER_ROUND) {
+            throw new AssertionError(String.format(
+                    "Expected at most %d bytes allocated per run, but was %.3f",
+                    bytes, (double) allocated / RUNS_PER_ROUND));
+        }
+    }
+
+    /**
+     * Asserts that @action does not allocate.
+     *
+     * @param action Code to be measured, run many times on the calling thread
+     * @throws IllegalStateException when allocations cannot be measured on this JVM
+     */
+    public static void assertDoesNotAllocate(@NotNull final Action0 action) {
+        assertAllocatesAtMost(0, action);
+    }
+
+    /**
+     * Bytes allocated by @action in the least disturbed round of RUNS_PER_ROUND runs.
+     */
+    private static long measureRound(@NotNull final Action0 action) {
+        final Counter counter = COUNTER;
+        if (counter == null) {
+            throw new IllegalStateException("Thread allocation counter is not supported");
+        }
+        for (int i = 0; i < WARM_UP_RUNS; i++) {
+            action.call();
+        }
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            final long calibration = allocatedInRound(counter, EMPTY);
+            final long measured = allocatedInRound(counter, action);
+            best = Math.min(best, Math.max(0, measured - calibration));
+        }
+        return best;
+    }
+
+    private static long allocatedInRound(@NotNull final Counter counter,
+                                         @NotNull final Action0 action) {
+        final long before = counter.allocatedBytes();
+        for (int i = 0; i < RUNS_PER_ROUND; i++) {
+            action.call();
+        }
+        return counter.allocatedBytes() - before;
+    }
+
+    /**
+     * Reflective access to {@code com.sun.management.ThreadMXBean#getThreadAllocatedBytes}.
+     */
+    private static final class Counter {
+
+        @NotNull
+        private final Object mBean;
+
+        @NotNull
+        private final Method mAllocatedBytes;
+
+        @NotNull
+        private final ThreadLocal<Object[]> mArguments = new ThreadLocal<Object[]>() {
+            @Override
+            protected Object[] initialValue() {
+                return new Object[]{Thread.currentThread().getId()};
+            }
+        };
+
+        private Counter(@NotNull final Object bean, @NotNull final Method allocatedBytes) {
+            mBean = bean;
+            mAllocatedBytes = allocatedBytes;
+        }
+
+        @Nullable
+        static Counter create() {
+            try {
+                final Object bean = ManagementFactory.getThreadMXBean();
+                final Class<?> type = Class.forName("com.sun.management.ThreadMXBean");
+                if (!type.isInstance(bean)
+                    || !(Boolean) type.getMethod("isThreadAllocatedMemorySupported").invoke(bean)) {
+                    return null;
+                }
+                type.getMethod("setThreadAllocatedMemoryEnabled", boolean.class).invoke(bean, true);
+                final Counter counter =
+                        new Counter(bean, type.getMethod("getThreadAllocatedBytes", long.class));
+                return counter.allocatedBytes() < 0 ? null : counter;
+            } catch (Exception e) {
+                return null;
+            } catch (LinkageError e) {
+                return null;
+            }
+        }
+
+        long allocatedBytes() {
+            try {
+                return (Long) mAllocatedBytes.invoke(mBean, mArguments.get());
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not read thread allocation counter", e);
+            }
+        }
+    }
+}
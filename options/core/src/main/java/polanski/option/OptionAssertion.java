@@ -57,7 +57,7 @@ public final class OptionAssertion<T> {
             throw fail("Option was not Some");
         }
 
-        if (!matches(actual, equalsPredicate(expected))) {
+        if (!Objects.equals(OptionUnsafe.getUnsafe(actual), expected)) {
             throw fail(String.format("Actual Option value: <%s> did not equal expected value: <%s>",
                                      OptionUnsafe.getUnsafe(actual),
                                      expected));
@@ -86,16 +86,6 @@ public final class OptionAssertion<T> {
         return this;
     }
 
-    @NotNull
-    private static <T> Func1<T, Boolean> equalsPredicate(@NotNull final T expected) {
-        return new Func1<T, Boolean>() {
-            @Override
-            public Boolean call(final T t) {
-                return Objects.equals(t, expected);
-            }
-        };
-    }
-
     private static <T> boolean matches(@NotNull final Option<T> actual,
                                        @NotNull final Func1<T, Boolean> predicate) {
         return actual.filter(predicate).isSome();
@@ -0,0 +1,283 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import polanski.option.function.Func1;
+
+import static polanski.option.Option.ofObj;
+
+/**
+ * Collects single key lookups of concurrent callers into batches, loaded with a single call of a
+ * batch loader.
+ * <p/>
+ * A batch is loaded once @window elapsed since its first key was requested, or right away when
+ * it reaches the maximal size, whichever comes first. Keys requested several times within a batch
+ * are loaded once. Keys missing in the map returned by the loader are completed with
+ * {@link Option#NONE}.
+ * <p/>
+ * The window timer of a batch loaded early is cancelled. A {@code ScheduledThreadPoolExecutor}
+ * drops cancelled timers from its queue only with its remove on cancel policy set.
+ *
+ * @param <K> Type of the keys
+ * @param <V> Type of the values
+ */
+public final class OptionBatcher<K, V> {
+
+    @NotNull
+    private final Func1<Collection<K>, Map<K, V>> mLoader;
+
+    @NotNull
+    private final ScheduledExecutorService mScheduler;
+
+    private final long mWindowNanos;
+
+    private final int mMaxBatchSize;
+
+    @NotNull
+    private final Object mLock = new Object();
+
+    @Nullable
+    private Map<K, BatchFuture<V>> mPending;
+
+    /**
+     * Timer dispatching the pending batch once its window elapses, guarded by mLock.
+     */
+    @Nullable
+    private ScheduledFuture<?> mWindowTimer;
+
+    /**
+     * Constructor.
+     *
+     * @param loader       Function loading the values of a batch of keys, called on @scheduler
+     * @param scheduler    Executor that waits for the batching window and runs @loader
+     * @param window       Time to collect keys for, counted from the first key of a batch
+     * @param unit         Unit of @window
+     * @param maxBatchSize Number of keys that causes a batch to be loaded right away
+     */
+    public OptionBatcher(@NotNull final Func1<Collection<K>, Map<K, V>> loader,
+                         @NotNull final ScheduledExecutorService scheduler,
+                         final long window,
+                         @NotNull final TimeUnit unit,
+                         final int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Max batch size must be positive: " + maxBatchSize);
+        }
+        mLoader = loader;
+        mScheduler = scheduler;
+        mWindowNanos = unit.toNanos(window);
+        mMaxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Requests @key to be loaded with the next batch.
+     *
+     * @param key Key to be loaded
+     * @return Future completed with Some of the loaded value or None if the loader did not
+     * return a value for @key. If the loader throws, or the scheduler rejects the batch, the
+     * future fails with that exception.
+     */
+    @NotNull
+    public Future<Option<V>> getAsync(@NotNull final K key) {
+        Map<K, BatchFuture<V>> full = null;
+        ScheduledFuture<?> timer = null;
+        final BatchFuture<V> future;
+        synchronized (mLock) {
+            if (mPending == null) {
+                final Map<K, BatchFuture<V>> batch = new LinkedHashMap<K, BatchFuture<V>>();
+                try {
+                    mWindowTimer = mScheduler.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            dispatch(batch);
+                        }
+                    }, mWindowNanos, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    // The batch would never be dispatched, so it is not started at all
+                    final BatchFuture<V> rejected = new BatchFuture<V>();
+                    rejected.fail(e);
+                    return rejected;
+                }
+                mPending = batch;
+            }
+            final BatchFuture<V> existing = mPending.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            future = new BatchFuture<V>();
+            mPending.put(key, future);
+            if (mPending.size() >= mMaxBatchSize) {
+                full = mPending;
+                timer = mWindowTimer;
+                mPending = null;
+                mWindowTimer = null;
+            }
+        }
+        if (timer != null) {
+            timer.cancel(false);
+        }
+        if (full != null) {
+            final Map<K, BatchFuture<V>> batch = full;
+            try {
+                mScheduler.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        load(batch);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                fail(batch, e);
+            }
+        }
+        return future;
+    }
+
+    /**
+     * Loads @key with the next batch and waits for the result.
+     *
+     * @param key Key to be loaded
+     * @return Some of the loaded value, None if the loader did not return a value for @key,
+     * the loader failed or the calling thread was interrupted
+     */
+    @NotNull
+    public Option<V> get(@NotNull final K key) {
+        try {
+            return getAsync(key).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Option.none();
+        } catch (ExecutionException e) {
+            return Option.none();
+        }
+    }
+
+    /**
+     * Loads the keys collected so far right away, without waiting for the batching window.
+     */
+    public void flush() {
+        final Map<K, BatchFuture<V>> batch;
+        final ScheduledFuture<?> timer;
+        synchronized (mLock) {
+            batch = mPending;
+            timer = mWindowTimer;
+            mPending = null;
+            mWindowTimer = null;
+        }
+        if (timer != null) {
+            timer.cancel(false);
+        }
+        if (batch != null) {
+            load(batch);
+        }
+    }
+
+    private void dispatch(@NotNull final Map<K, BatchFuture<V>> batch) {
+        synchronized (mLock) {
+            if (mPending != batch) {
+                // Already loaded because it was full or flushed
+                return;
+            }
+            mPending = null;
+            mWindowTimer = null;
+        }
+        load(batch);
+    }
+
+    private void load(@NotNull final Map<K, BatchFuture<V>> batch) {
+        final Map<K, V> values;
+        try {
+            final Map<K, V> loaded = mLoader.call(Collections.unmodifiableSet(batch.keySet()));
+            values = loaded == null ? Collections.<K, V>emptyMap() : loaded;
+        } catch (Throwable e) {
+            fail(batch, e);
+            return;
+        }
+        for (final Map.Entry<K, BatchFuture<V>> entry : batch.entrySet()) {
+            entry.getValue().complete(ofObj(values.get(entry.getKey())));
+        }
+    }
+
+    private static <K, V> void fail(@NotNull final Map<K, BatchFuture<V>> batch,
+                                    @NotNull final Throwable error) {
+        for (final BatchFuture<V> future : batch.values()) {
+            future.fail(error);
+        }
+    }
+
+    /**
+     * Future completed by the batch it belongs to, it cannot be cancelled.
+     */
+    private static final class BatchFuture<V> implements Future<Option<V>> {
+
+        @NotNull
+        private final CountDownLatch mDone = new CountDownLatch(1);
+
+        @Nullable
+        private volatile Option<V> mResult;
+
+        @Nullable
+        private volatile Throwable mError;
+
+        void complete(@NotNull final Option<V> result) {
+            mResult = result;
+            mDone.countDown();
+        }
+
+        void fail(@NotNull final Throwable error) {
+            mError = error;
+            mDone.countDown();
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return mDone.getCount() == 0;
+        }
+
+        @Override
+        public Option<V> get() throws InterruptedException, ExecutionException {
+            mDone.await();
+            return result();
+        }
+
+        @Override
+        public Option<V> get(final long timeout, @NotNull final TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            if (!mDone.await(timeout, unit)) {
+                throw new TimeoutException();
+            }
+            return result();
+        }
+
+        @NotNull
+        private Option<V> result() throws ExecutionException {
+            final Throwable error = mError;
+            if (error != null) {
+                throw new ExecutionException(error);
+            }
+            return mResult;
+        }
+    }
+}
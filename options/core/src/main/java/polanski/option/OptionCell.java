@@ -0,0 +1,80 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static polanski.option.Option.ofObj;
+
+/**
+ * Input of a graph of {@link BaseOptionCell}, holding a value that is set from outside.
+ *
+ * @param <T> Type of the value
+ */
+public final class OptionCell<T> extends BaseOptionCell<T> {
+
+    @NotNull
+    private final Object mLock = new Object();
+
+    @NotNull
+    private volatile Option<T> mValue;
+
+    private volatile long mVersion;
+
+    /**
+     * Constructor, the value will be set to {@link Option#NONE}.
+     */
+    public OptionCell() {
+        this(null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param value Initial value, null sets {@link Option#NONE}
+     */
+    public OptionCell(@Nullable final T value) {
+        super(new Epoch());
+        mValue = ofObj(value);
+    }
+
+    @NotNull
+    @Override
+    public Option<T> get() {
+        return mValue;
+    }
+
+    @Override
+    public long getVersion() {
+        return mVersion;
+    }
+
+    /**
+     * Replaces the value. When @option is equal to the current value nothing changes, so the
+     * derived cells are not recomputed.
+     *
+     * @param option New value
+     * @return true if the value changed, false if it was equal to the current one
+     */
+    public boolean set(@NotNull final Option<T> option) {
+        synchronized (mLock) {
+            if (option.equals(mValue)) {
+                return false;
+            }
+            // Derived cells read the version before the value, so publishing the value first means
+            // they may recompute once more, but never keep an old value with the new version
+            mValue = option;
+            mVersion++;
+        }
+        epoch().advance();
+        return true;
+    }
+
+    /**
+     * Sets the value to {@link Option#NONE}.
+     *
+     * @return true if the value changed, false if it was already None
+     */
+    public boolean clear() {
+        return set(Option.<T>none());
+    }
+}
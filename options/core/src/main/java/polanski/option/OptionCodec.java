@@ -0,0 +1,30 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary encoding of the values wrapped in {@link Option}, used by {@link OptionCodecs}.
+ *
+ * @param <T> Type of the values
+ */
+public interface OptionCodec<T> {
+
+    /**
+     * Writes @value at the position of @out.
+     *
+     * @param value Value to be written
+     * @param out   Buffer the value is written to
+     */
+    void encode(@NotNull T value, @NotNull ByteBuffer out);
+
+    /**
+     * Reads a value written by {@link #encode(Object, ByteBuffer)} from the position of @in.
+     *
+     * @param in Buffer the value is read from
+     * @return Read value
+     */
+    @NotNull
+    T decode(@NotNull ByteBuffer in);
+}
@@ -0,0 +1,239 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static polanski.option.Option.ofObj;
+
+/**
+ * Compact binary encoding of {@link Option} and of sequences of options.
+ * <p/>
+ * A single option is written as a presence byte, 1 for Some and 0 for None, followed by the value
+ * written by an {@link OptionCodec} if it is Some. A sequence is written as its length, a
+ * presence bitmap with a bit for every option, and then the values of the Somes only, so a None
+ * costs a single bit.
+ * <p/>
+ * Ints and longs are written as zig-zag varints, so small numbers of either sign take a single
+ * byte. Writing to a buffer that is too small throws {@link java.nio.BufferOverflowException},
+ * reading a truncated buffer throws {@link java.nio.BufferUnderflowException}.
+ */
+public final class OptionCodecs {
+
+    /**
+     * Codec of ints as zig-zag varints, taking 1 to 5 bytes.
+     */
+    @NotNull
+    public static final OptionCodec<Integer> INT = new OptionCodec<Integer>() {
+        @Override
+        public void encode(@NotNull final Integer value, @NotNull final ByteBuffer out) {
+            writeVarLong(out, ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+        }
+
+        @NotNull
+        @Override
+        public Integer decode(@NotNull final ByteBuffer in) {
+            final int zigZag = (int) readVarLong(in);
+            return (zigZag >>> 1) ^ -(zigZag & 1);
+        }
+    };
+
+    /**
+     * Codec of longs as zig-zag varints, taking 1 to 10 bytes.
+     */
+    @NotNull
+    public static final OptionCodec<Long> LONG = new OptionCodec<Long>() {
+        @Override
+        public void encode(@NotNull final Long value, @NotNull final ByteBuffer out) {
+            writeVarLong(out, (value << 1) ^ (value >> 63));
+        }
+
+        @NotNull
+        @Override
+        public Long decode(@NotNull final ByteBuffer in) {
+            final long zigZag = readVarLong(in);
+            return (zigZag >>> 1) ^ -(zigZag & 1);
+        }
+    };
+
+    /**
+     * Codec of doubles, taking 8 bytes.
+     */
+    @NotNull
+    public static final OptionCodec<Double> DOUBLE = new OptionCodec<Double>() {
+        @Override
+        public void encode(@NotNull final Double value, @NotNull final ByteBuffer out) {
+            out.putDouble(value);
+        }
+
+        @NotNull
+        @Override
+        public Double decode(@NotNull final ByteBuffer in) {
+            return in.getDouble();
+        }
+    };
+
+    /**
+     * Codec of strings as their varint length followed by UTF-8 bytes. Decoding throws
+     * IllegalArgumentException when the length does not fit the buffer.
+     */
+    @NotNull
+    public static final OptionCodec<String> STRING = new OptionCodec<String>() {
+        @Override
+        public void encode(@NotNull final String value, @NotNull final ByteBuffer out) {
+            final byte[] bytes = value.getBytes(UTF_8);
+            writeVarLong(out, bytes.length);
+            out.put(bytes);
+        }
+
+        @NotNull
+        @Override
+        public String decode(@NotNull final ByteBuffer in) {
+            final long length = readVarLong(in);
+            if (length < 0 || length > in.remaining()) {
+                throw new IllegalArgumentException(String.format(
+                        "Invalid string length %d for %d remaining bytes", length, in.remaining()));
+            }
+            final byte[] bytes = new byte[(int) length];
+            in.get(bytes);
+            return new String(bytes, UTF_8);
+        }
+    };
+
+    @NotNull
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final byte NONE_MARKER = 0;
+
+    private static final byte SOME_MARKER = 1;
+
+    OptionCodecs() {
+        throw new AssertionError("Must not create an instance");
+    }
+
+    /**
+     * Writes @option at the position of @out.
+     *
+     * @param option Option to be written
+     * @param codec  Codec of the value
+     * @param out    Buffer the option is written to
+     * @param <T>    Wrapped type
+     */
+    public static <T> void encode(@NotNull final Option<T> option,
+                                  @NotNull final OptionCodec<T> codec,
+                                  @NotNull final ByteBuffer out) {
+        if (option.isSome()) {
+            out.put(SOME_MARKER);
+            codec.encode(option.getUnsafe(), out);
+        } else {
+            out.put(NONE_MARKER);
+        }
+    }
+
+    /**
+     * Reads an option written by {@link #encode(Option, OptionCodec, ByteBuffer)}.
+     *
+     * @param codec Codec of the value
+     * @param in    Buffer the option is read from
+     * @param <T>   Wrapped type
+     * @return Read option, None is always {@link Option#NONE}
+     * @throws IllegalArgumentException when the presence byte is invalid
+     */
+    @NotNull
+    public static <T> Option<T> decode(@NotNull final OptionCodec<T> codec,
+                                       @NotNull final ByteBuffer in) {
+        final byte marker = in.get();
+        switch (marker) {
+            case NONE_MARKER:
+                return Option.none();
+            case SOME_MARKER:
+                return ofObj(codec.decode(in));
+            default:
+                throw new IllegalArgumentException("Invalid presence byte: " + marker);
+        }
+    }
+
+    /**
+     * Writes @options at the position of @out, the presence bitmap first, then the values of
+     * the Somes.
+     *
+     * @param options Options to be written
+     * @param codec   Codec of the values
+     * @param out     Buffer the options are written to
+     * @param <T>     Wrapped type
+     */
+    public static <T> void encodeAll(@NotNull final List<Option<T>> options,
+                                     @NotNull final OptionCodec<T> codec,
+                                     @NotNull final ByteBuffer out) {
+        final int size = options.size();
+        writeVarLong(out, size);
+        for (int start = 0; start < size; start += 8) {
+            int bits = 0;
+            for (int i = start; i < Math.min(start + 8, size); i++) {
+                if (options.get(i).isSome()) {
+                    bits |= 1 << (i - start);
+                }
+            }
+            out.put((byte) bits);
+        }
+        for (int i = 0; i < size; i++) {
+            final Option<T> option = options.get(i);
+            if (option.isSome()) {
+                codec.encode(option.getUnsafe(), out);
+            }
+        }
+    }
+
+    /**
+     * Reads options written by {@link #encodeAll(List, OptionCodec, ByteBuffer)}.
+     *
+     * @param codec Codec of the values
+     * @param in    Buffer the options are read from
+     * @param <T>   Wrapped type
+     * @return Read options, Nones are always {@link Option#NONE}
+     * @throws IllegalArgumentException when the number of options does not fit the buffer
+     */
+    @NotNull
+    public static <T> List<Option<T>> decodeAll(@NotNull final OptionCodec<T> codec,
+                                                @NotNull final ByteBuffer in) {
+        final long size = readVarLong(in);
+        // Checked before anything is allocated, every option takes at least a bit of the bitmap
+        if (size < 0 || (size + 7) >>> 3 > in.remaining()) {
+            throw new IllegalArgumentException(String.format(
+                    "Invalid number of options %d for %d remaining bytes", size, in.remaining()));
+        }
+        final int bitmapStart = in.position();
+        final int bitmapSize = (int) ((size + 7) >>> 3);
+        in.position(bitmapStart + bitmapSize);
+        final List<Option<T>> options = new ArrayList<Option<T>>((int) size);
+        for (int i = 0; i < size; i++) {
+            final boolean isSome = (in.get(bitmapStart + (i >>> 3)) & (1 << (i & 7))) != 0;
+            options.add(isSome ? ofObj(codec.decode(in)) : Option.<T>none());
+        }
+        return options;
+    }
+
+    private static void writeVarLong(@NotNull final ByteBuffer out, final long value) {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            out.put((byte) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        out.put((byte) remaining);
+    }
+
+    private static long readVarLong(@NotNull final ByteBuffer in) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = in.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
@@ -0,0 +1,51 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.Charset;
+
+/**
+ * Layout of the files written by {@link OptionColumnWriter} and read by
+ * {@link OptionColumnReader}. All numbers are big-endian.
+ * <pre>
+ * header   int magic "OPTC", int format version, int value type, int reserved, long count
+ * bitmap   ceil(count / 64) longs, bit (i % 64) of long (i / 64) is set if value i is Some
+ * values   longs and doubles: count values of 8 bytes, zero for Nones
+ *          strings: count longs with the file offset of every string, -1 for Nones,
+ *          followed by the strings, each an int length and that many bytes of UTF-8
+ * </pre>
+ * The header and the bitmap are a multiple of 8 bytes, so all fixed width values are aligned.
+ */
+final class OptionColumnFormat {
+
+    static final int MAGIC = 0x4F505443;
+
+    static final int VERSION = 1;
+
+    static final int TYPE_LONG = 1;
+
+    static final int TYPE_DOUBLE = 2;
+
+    static final int TYPE_STRING = 3;
+
+    static final int HEADER_SIZE = 24;
+
+    static final int COUNT_OFFSET = 16;
+
+    static final long NO_OFFSET = -1;
+
+    @NotNull
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    OptionColumnFormat() {
+        throw new AssertionError("Must not create an instance");
+    }
+
+    static long bitmapSize(final long count) {
+        return ((count + 63) >>> 6) << 3;
+    }
+
+    static long valuesStart(final long count) {
+        return HEADER_SIZE + bitmapSize(count);
+    }
+}
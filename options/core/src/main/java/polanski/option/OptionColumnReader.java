@@ -0,0 +1,238 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static polanski.option.Option.ofObj;
+import static polanski.option.OptionColumnFormat.COUNT_OFFSET;
+import static polanski.option.OptionColumnFormat.HEADER_SIZE;
+import static polanski.option.OptionColumnFormat.MAGIC;
+import static polanski.option.OptionColumnFormat.TYPE_DOUBLE;
+import static polanski.option.OptionColumnFormat.TYPE_LONG;
+import static polanski.option.OptionColumnFormat.TYPE_STRING;
+import static polanski.option.OptionColumnFormat.UTF_8;
+import static polanski.option.OptionColumnFormat.VERSION;
+import static polanski.option.OptionColumnFormat.valuesStart;
+
+/**
+ * Reads options by index from a column file written by {@link OptionColumnWriter}.
+ * <p/>
+ * The file is memory-mapped, so opening it costs the same regardless of its size and only the
+ * pages that are read get loaded. Values are read with absolute gets only, so a reader can be
+ * shared by any number of threads. A single mapping cannot exceed 2GB, so larger files are
+ * mapped as a list of chunks, each a multiple of 8 bytes so that no fixed width value spans two
+ * of them. Only strings may span chunks, they are then read piece by piece.
+ *
+ * @param <T> Type of the values
+ */
+public final class OptionColumnReader<T> {
+
+    /**
+     * Largest multiple of 8 that fits a mapping.
+     */
+    static final long MAX_CHUNK_SIZE = Integer.MAX_VALUE & ~7L;
+
+    @NotNull
+    private final MappedByteBuffer[] mChunks;
+
+    private final int mChunkShift;
+
+    private final long mChunkMask;
+
+    private final int mType;
+
+    private final long mSize;
+
+    private final long mValuesStart;
+
+    private OptionColumnReader(@NotNull final MappedByteBuffer[] chunks,
+                               final long chunkSize,
+                               final int type,
+                               final long size) {
+        mChunks = chunks;
+        mChunkShift = Long.numberOfTrailingZeros(chunkSize);
+        mChunkMask = chunkSize - 1;
+        mType = type;
+        mSize = size;
+        mValuesStart = valuesStart(size);
+    }
+
+    /**
+     * Opens a column of longs.
+     *
+     * @param file File written by {@link OptionColumnWriter#longs(File, long)}
+     * @return Reader
+     * @throws IOException when the file cannot be mapped or is not a column of longs
+     */
+    @NotNull
+    public static OptionColumnReader<Long> longs(@NotNull final File file) throws IOException {
+        return open(file, TYPE_LONG);
+    }
+
+    /**
+     * Opens a column of doubles.
+     *
+     * @param file File written by {@link OptionColumnWriter#doubles(File, long)}
+     * @return Reader
+     * @throws IOException when the file cannot be mapped or is not a column of doubles
+     */
+    @NotNull
+    public static OptionColumnReader<Double> doubles(@NotNull final File file) throws IOException {
+        return open(file, TYPE_DOUBLE);
+    }
+
+    /**
+     * Opens a column of strings.
+     *
+     * @param file File written by {@link OptionColumnWriter#strings(File, long)}
+     * @return Reader
+     * @throws IOException when the file cannot be mapped or is not a column of strings
+     */
+    @NotNull
+    public static OptionColumnReader<String> strings(@NotNull final File file) throws IOException {
+        return open(file, TYPE_STRING);
+    }
+
+    @NotNull
+    private static <T> OptionColumnReader<T> open(@NotNull final File file, final int type)
+            throws IOException {
+        return open(file, type, Long.highestOneBit(MAX_CHUNK_SIZE));
+    }
+
+    /**
+     * Opens @file mapped in chunks of @chunkSize bytes, a power of two and at least 32.
+     */
+    @NotNull
+    static <T> OptionColumnReader<T> open(@NotNull final File file,
+                                          final int type,
+                                          final long chunkSize) throws IOException {
+        if (chunkSize < HEADER_SIZE + 8 || chunkSize > MAX_CHUNK_SIZE
+            || Long.bitCount(chunkSize) != 1) {
+            throw new IllegalArgumentException("Invalid chunk size: " + chunkSize);
+        }
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            final long length = raf.length();
+            if (length < HEADER_SIZE) {
+                throw new IOException("Not an option column file: " + file);
+            }
+            // The mappings stay valid after the file is closed
+            final FileChannel channel = raf.getChannel();
+            final int chunkCount = (int) ((length + chunkSize - 1) / chunkSize);
+            final MappedByteBuffer[] chunks = new MappedByteBuffer[chunkCount];
+            for (int i = 0; i < chunks.length; i++) {
+                final long position = i * chunkSize;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                                        Math.min(chunkSize, length - position));
+            }
+            // The header is smaller than any chunk, so it is always in the first one
+            final MappedByteBuffer header = chunks[0];
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not an option column file: " + file);
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("Unsupported column file version " + header.getInt(4)
+                                      + ": " + file);
+            }
+            if (header.getInt(8) != type) {
+                throw new IOException("Column file contains values of type " + header.getInt(8)
+                                      + " instead of " + type + ": " + file);
+            }
+            final long count = header.getLong(COUNT_OFFSET);
+            if (count < 0 || count > (length - HEADER_SIZE) / 8
+                || valuesStart(count) + count * 8 > length) {
+                throw new IOException("Column file is truncated: " + file);
+            }
+            return new OptionColumnReader<T>(chunks, chunkSize, type, count);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Number of values in the column.
+     *
+     * @return Number of values
+     */
+    public long size() {
+        return mSize;
+    }
+
+    /**
+     * Indicates if the value at @index is Some, without reading the value.
+     *
+     * @param index Index of the value
+     * @return true if the value exists, otherwise false
+     */
+    public boolean isSome(final long index) {
+        checkIndex(index);
+        return (getLong(HEADER_SIZE + ((index >>> 6) << 3)) & (1L << index)) != 0;
+    }
+
+    /**
+     * Reads the value at @index.
+     *
+     * @param index Index of the value
+     * @return Some of the value if it was written as Some, otherwise None
+     */
+    @SuppressWarnings("unchecked")
+    @NotNull
+    public Option<T> get(final long index) {
+        if (!isSome(index)) {
+            return Option.none();
+        }
+        final long position = mValuesStart + (index << 3);
+        switch (mType) {
+            case TYPE_LONG:
+                return (Option<T>) ofObj(getLong(position));
+            case TYPE_DOUBLE:
+                return (Option<T>) ofObj(Double.longBitsToDouble(getLong(position)));
+            default:
+                return (Option<T>) ofObj(readString(getLong(position)));
+        }
+    }
+
+    /**
+     * Reads the long at @position, which is aligned to 8 bytes and so never spans two chunks.
+     */
+    private long getLong(final long position) {
+        return mChunks[(int) (position >>> mChunkShift)].getLong((int) (position & mChunkMask));
+    }
+
+    @NotNull
+    private String readString(final long offset) {
+        final byte[] length = new byte[4];
+        read(offset, length);
+        final byte[] bytes = new byte[ByteBuffer.wrap(length).getInt()];
+        read(offset + 4, bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Fills @bytes with the bytes at @position, that may span any number of chunks.
+     */
+    private void read(final long position, @NotNull final byte[] bytes) {
+        int done = 0;
+        while (done < bytes.length) {
+            final long at = position + done;
+            // Duplicates keep the position of the shared buffer untouched for other threads
+            final ByteBuffer chunk = mChunks[(int) (at >>> mChunkShift)].duplicate();
+            chunk.position((int) (at & mChunkMask));
+            final int size = Math.min(bytes.length - done, chunk.remaining());
+            chunk.get(bytes, done, size);
+            done += size;
+        }
+    }
+
+    private void checkIndex(final long index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + mSize);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static polanski.option.OptionColumnFormat.HEADER_SIZE;
+import static polanski.option.OptionColumnFormat.MAGIC;
+import static polanski.option.OptionColumnFormat.NO_OFFSET;
+import static polanski.option.OptionColumnFormat.TYPE_DOUBLE;
+import static polanski.option.OptionColumnFormat.TYPE_LONG;
+import static polanski.option.OptionColumnFormat.TYPE_STRING;
+import static polanski.option.OptionColumnFormat.UTF_8;
+import static polanski.option.OptionColumnFormat.VERSION;
+import static polanski.option.OptionColumnFormat.bitmapSize;
+import static polanski.option.OptionColumnFormat.valuesStart;
+
+/**
+ * Streams options into a column file, that can be read back without deserialization by
+ * {@link OptionColumnReader}.
+ * <p/>
+ * The number of values has to be known up front, as the presence bitmap and the offsets of the
+ * strings are stored before the values. The bitmap is kept in memory, one bit per value, and
+ * written on {@link #close()}. Instances are not thread safe.
+ *
+ * @param <T> Type of the values
+ */
+public final class OptionColumnWriter<T> implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @NotNull
+    private final RandomAccessFile mFile;
+
+    @NotNull
+    private final FileChannel mChannel;
+
+    private final int mType;
+
+    private final long mCount;
+
+    @NotNull
+    private final long[] mPresence;
+
+    /**
+     * Buffer of the fixed width values, or of the string offsets.
+     */
+    @NotNull
+    private final ByteBuffer mFixed = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private long mFixedPosition;
+
+    /**
+     * Buffer of the strings, unused for other types.
+     */
+    @NotNull
+    private final ByteBuffer mData;
+
+    private long mDataPosition;
+
+    private long mWritten;
+
+    private boolean mClosed;
+
+    private OptionColumnWriter(@NotNull final File file, final int type, final long count)
+            throws IOException {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count must not be negative: " + count);
+        }
+        mType = type;
+        mCount = count;
+        mPresence = new long[(int) (bitmapSize(count) >>> 3)];
+        mFixedPosition = valuesStart(count);
+        mDataPosition = mFixedPosition + count * 8;
+        mData = ByteBuffer.allocate(type == TYPE_STRING ? BUFFER_SIZE : 0);
+        final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        boolean opened = false;
+        try {
+            raf.setLength(0);
+            mChannel = raf.getChannel();
+            opened = true;
+        } finally {
+            if (!opened) {
+                raf.close();
+            }
+        }
+        mFile = raf;
+    }
+
+    /**
+     * Creates a writer of a column of longs.
+     *
+     * @param file  File to be written, existing content is replaced
+     * @param count Number of values that will be written
+     * @return Writer
+     * @throws IOException when the file cannot be opened
+     */
+    @NotNull
+    public static OptionColumnWriter<Long> longs(@NotNull final File file, final long count)
+            throws IOException {
+        return new OptionColumnWriter<Long>(file, TYPE_LONG, count);
+    }
+
+    /**
+     * Creates a writer of a column of doubles.
+     *
+     * @param file  File to be written, existing content is replaced
+     * @param count Number of values that will be written
+     * @return Writer
+     * @throws IOException when the file cannot be opened
+     */
+    @NotNull
+    public static OptionColumnWriter<Double> doubles(@NotNull final File file, final long count)
+            throws IOException {
+        return new OptionColumnWriter<Double>(file, TYPE_DOUBLE, count);
+    }
+
+    /**
+     * Creates a writer of a column of strings.
+     *
+     * @param file  File to be written, existing content is replaced
+     * @param count Number of values that will be written
+     * @return Writer
+     * @throws IOException when the file cannot be opened
+     */
+    @NotNull
+    public static OptionColumnWriter<String> strings(@NotNull final File file, final long count)
+            throws IOException {
+        return new OptionColumnWriter<String>(file, TYPE_STRING, count);
+    }
+
+    /**
+     * Appends the next value.
+     *
+     * @param option Value to be written
+     * @throws IOException when writing fails
+     */
+    public void write(@NotNull final Option<T> option) throws IOException {
+        if (mWritten == mCount) {
+            throw new IllegalStateException("All " + mCount + " values were already written");
+        }
+        final long index = mWritten++;
+        if (mFixed.remaining() < 8) {
+            mFixedPosition += flush(mFixed, mFixedPosition);
+        }
+        if (option.isNone()) {
+            mFixed.putLong(mType == TYPE_STRING ? NO_OFFSET : 0);
+            return;
+        }
+        mPresence[(int) (index >>> 6)] |= 1L << index;
+        final Object value = option.getUnsafe();
+        switch (mType) {
+            case TYPE_LONG:
+                mFixed.putLong((Long) value);
+                break;
+            case TYPE_DOUBLE:
+                mFixed.putDouble((Double) value);
+                break;
+            default:
+                writeString((String) value);
+        }
+    }
+
+    private void writeString(@NotNull final String value) throws IOException {
+        final byte[] bytes = value.getBytes(UTF_8);
+        mFixed.putLong(mDataPosition + mData.position());
+        if (mData.remaining() < 4 + bytes.length) {
+            mDataPosition += flush(mData, mDataPosition);
+        }
+        if (mData.remaining() < 4 + bytes.length) {
+            final ByteBuffer large = ByteBuffer.allocate(4 + bytes.length);
+            large.putInt(bytes.length).put(bytes);
+            mDataPosition += flush(large, mDataPosition);
+        } else {
+            mData.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    /**
+     * Writes the buffered values, the bitmap and the header and closes the file. Calling it again
+     * has no effect.
+     *
+     * @throws IOException           when writing fails
+     * @throws IllegalStateException when fewer values than announced were written
+     */
+    @Override
+    public void close() throws IOException {
+        if (mClosed) {
+            return;
+        }
+        mClosed = true;
+        try {
+            if (mWritten != mCount) {
+                throw new IllegalStateException(
+                        String.format("Expected %d values, but %d were written", mCount, mWritten));
+            }
+            mFixedPosition += flush(mFixed, mFixedPosition);
+            mDataPosition += flush(mData, mDataPosition);
+            final ByteBuffer header = ByteBuffer.allocate((int) valuesStart(mCount));
+            header.putInt(MAGIC).putInt(VERSION).putInt(mType).putInt(0).putLong(mCount);
+            for (final long word : mPresence) {
+                header.putLong(word);
+            }
+            flush(header, 0);
+        } finally {
+            mFile.close();
+        }
+    }
+
+    private int flush(@NotNull final ByteBuffer buffer, final long position) throws IOException {
+        buffer.flip();
+        final int size = buffer.remaining();
+        long at = position;
+        while (buffer.hasRemaining()) {
+            at += mChannel.write(buffer, at);
+        }
+        buffer.clear();
+        return size;
+    }
+}
@@ -0,0 +1,189 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+
+import polanski.option.function.DoubleFunc2;
+import polanski.option.function.DoubleFunc3;
+import polanski.option.function.LongFunc2;
+import polanski.option.function.LongFunc3;
+
+/**
+ * Bulk operations over columns of optional primitives.
+ * <p/>
+ * Presence bitmaps of the inputs are combined 64 entries at a time and the function is applied
+ * only to the entries present in the result. Fully present words are processed in a plain
+ * counted loop, which the JIT can unroll and vectorize. Nothing is boxed or allocated.
+ */
+public final class OptionColumns {
+
+    private static final long ALL_PRESENT = -1L;
+
+    OptionColumns() {
+        throw new AssertionError("Must not create an instance");
+    }
+
+    /**
+     * Combines two columns entry by entry using @f, the entries are present in @out only where
+     * both inputs are present.
+     *
+     * @param column1 First input column
+     * @param column2 Second input column
+     * @param f       Function combining the values
+     * @param out     Column the results are written to, may be one of the inputs
+     */
+    public static void lift(@NotNull final DoubleOptionColumn column1,
+                            @NotNull final DoubleOptionColumn column2,
+                            @NotNull final DoubleFunc2 f,
+                            @NotNull final DoubleOptionColumn out) {
+        checkSizes(column1.size(), column2.size(), out.size());
+        final long[] presence1 = column1.mPresence;
+        final long[] presence2 = column2.mPresence;
+        final long[] presenceOut = out.mPresence;
+        final double[] values1 = column1.mValues;
+        final double[] values2 = column2.mValues;
+        final double[] valuesOut = out.mValues;
+        for (int word = 0; word < presenceOut.length; word++) {
+            final long present = presence1[word] & presence2[word];
+            presenceOut[word] = present;
+            final int base = word << 6;
+            if (present == ALL_PRESENT) {
+                for (int i = base; i < base + 64; i++) {
+                    valuesOut[i] = f.call(values1[i], values2[i]);
+                }
+            } else {
+                for (long bits = present; bits != 0; bits &= bits - 1) {
+                    final int i = base + Long.numberOfTrailingZeros(bits);
+                    valuesOut[i] = f.call(values1[i], values2[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Combines three columns entry by entry using @f, the entries are present in @out only where
+     * all the inputs are present.
+     *
+     * @param column1 First input column
+     * @param column2 Second input column
+     * @param column3 Third input column
+     * @param f       Function combining the values
+     * @param out     Column the results are written to, may be one of the inputs
+     */
+    public static void lift(@NotNull final DoubleOptionColumn column1,
+                            @NotNull final DoubleOptionColumn column2,
+                            @NotNull final DoubleOptionColumn column3,
+                            @NotNull final DoubleFunc3 f,
+                            @NotNull final DoubleOptionColumn out) {
+        checkSizes(column1.size(), column2.size(), out.size());
+        checkSizes(column1.size(), column3.size(), out.size());
+        final long[] presence1 = column1.mPresence;
+        final long[] presence2 = column2.mPresence;
+        final long[] presence3 = column3.mPresence;
+        final long[] presenceOut = out.mPresence;
+        final double[] values1 = column1.mValues;
+        final double[] values2 = column2.mValues;
+        final double[] values3 = column3.mValues;
+        final double[] valuesOut = out.mValues;
+        for (int word = 0; word < presenceOut.length; word++) {
+            final long present = presence1[word] & presence2[word] & presence3[word];
+            presenceOut[word] = present;
+            final int base = word << 6;
+            if (present == ALL_PRESENT) {
+                for (int i = base; i < base + 64; i++) {
+                    valuesOut[i] = f.call(values1[i], values2[i], values3[i]);
+                }
+            } else {
+                for (long bits = present; bits != 0; bits &= bits - 1) {
+                    final int i = base + Long.numberOfTrailingZeros(bits);
+                    valuesOut[i] = f.call(values1[i], values2[i], values3[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Combines two columns entry by entry using @f, the entries are present in @out only where
+     * both inputs are present.
+     *
+     * @param column1 First input column
+     * @param column2 Second input column
+     * @param f       Function combining the values
+     * @param out     Column the results are written to, may be one of the inputs
+     */
+    public static void lift(@NotNull final LongOptionColumn column1,
+                            @NotNull final LongOptionColumn column2,
+                            @NotNull final LongFunc2 f,
+                            @NotNull final LongOptionColumn out) {
+        checkSizes(column1.size(), column2.size(), out.size());
+        final long[] presence1 = column1.mPresence;
+        final long[] presence2 = column2.mPresence;
+        final long[] presenceOut = out.mPresence;
+        final long[] values1 = column1.mValues;
+        final long[] values2 = column2.mValues;
+        final long[] valuesOut = out.mValues;
+        for (int word = 0; word < presenceOut.length; word++) {
+            final long present = presence1[word] & presence2[word];
+            presenceOut[word] = present;
+            final int base = word << 6;
+            if (present == ALL_PRESENT) {
+                for (int i = base; i < base + 64; i++) {
+                    valuesOut[i] = f.call(values1[i], values2[i]);
+                }
+            } else {
+                for (long bits = present; bits != 0; bits &= bits - 1) {
+                    final int i = base + Long.numberOfTrailingZeros(bits);
+                    valuesOut[i] = f.call(values1[i], values2[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Combines three columns entry by entry using @f, the entries are present in @out only where
+     * all the inputs are present.
+     *
+     * @param column1 First input column
+     * @param column2 Second input column
+     * @param column3 Third input column
+     * @param f       Function combining the values
+     * @param out     Column the results are written to, may be one of the inputs
+     */
+    public static void lift(@NotNull final LongOptionColumn column1,
+                            @NotNull final LongOptionColumn column2,
+                            @NotNull final LongOptionColumn column3,
+                            @NotNull final LongFunc3 f,
+                            @NotNull final LongOptionColumn out) {
+        checkSizes(column1.size(), column2.size(), out.size());
+        checkSizes(column1.size(), column3.size(), out.size());
+        final long[] presence1 = column1.mPresence;
+        final long[] presence2 = column2.mPresence;
+        final long[] presence3 = column3.mPresence;
+        final long[] presenceOut = out.mPresence;
+        final long[] values1 = column1.mValues;
+        final long[] values2 = column2.mValues;
+        final long[] values3 = column3.mValues;
+        final long[] valuesOut = out.mValues;
+        for (int word = 0; word < presenceOut.length; word++) {
+            final long present = presence1[word] & presence2[word] & presence3[word];
+            presenceOut[word] = present;
+            final int base = word << 6;
+            if (present == ALL_PRESENT) {
+                for (int i = base; i < base + 64; i++) {
+                    valuesOut[i] = f.call(values1[i], values2[i], values3[i]);
+                }
+            } else {
+                for (long bits = present; bits != 0; bits &= bits - 1) {
+                    final int i = base + Long.numberOfTrailingZeros(bits);
+                    valuesOut[i] = f.call(values1[i], values2[i], values3[i]);
+                }
+            }
+        }
+    }
+
+    private static void checkSizes(final int size1, final int size2, final int sizeOut) {
+        if (size1 != size2 || size1 != sizeOut) {
+            throw new IllegalArgumentException(
+                    String.format("Columns must have the same size: %d, %d, %d", size1, size2, sizeOut));
+        }
+    }
+}
@@ -0,0 +1,458 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import polanski.option.function.Action1;
+import polanski.option.function.Func1;
+
+/**
+ * Registry of optional configuration values, that can be reloaded while they are being read.
+ * <p/>
+ * Every value is kept in an {@link AtomicOption} of its {@link Key}, so reading it is a single
+ * volatile read returning an already created option. Reloading compares the new text of every
+ * key with the previous one and parses and replaces only the changed values, unchanged keys keep
+ * their option instance and do not notify listeners. Missing keys and values that cannot be
+ * parsed are None.
+ */
+public final class OptionConfig {
+
+    @NotNull
+    private final ConcurrentMap<String, Key<?>> mKeys = new ConcurrentHashMap<String, Key<?>>();
+
+    @NotNull
+    private final List<Action1<Key<?>>> mListeners = new CopyOnWriteArrayList<Action1<Key<?>>>();
+
+    @NotNull
+    private final Object mLock = new Object();
+
+    /**
+     * Raw text of all the properties of the last reload, including the ones without a key yet.
+     */
+    @NotNull
+    private Map<String, String> mRaw = new HashMap<String, String>();
+
+    /**
+     * Registers a key parsed by @parser.
+     *
+     * @param name   Name of the property
+     * @param parser Function converting the text of the property, None for invalid text
+     * @param <T>    Type of the value
+     * @return Key holding the current value
+     * @throws IllegalArgumentException when a key with @name is already registered
+     */
+    @NotNull
+    public <T> Key<T> key(@NotNull final String name,
+                          @NotNull final Func1<String, Option<T>> parser) {
+        synchronized (mLock) {
+            final Key<T> key = new Key<T>(name, parser);
+            if (mKeys.putIfAbsent(name, key) != null) {
+                throw new IllegalArgumentException("Key is already registered: " + name);
+            }
+            key.commit(key.parse(mRaw.get(name)));
+            return key;
+        }
+    }
+
+    /**
+     * Registers a key with a text value.
+     *
+     * @param name Name of the property
+     * @return Key holding the current value
+     */
+    @NotNull
+    public Key<String> stringKey(@NotNull final String name) {
+        return key(name, new Func1<String, Option<String>>() {
+            @Override
+            public Option<String> call(final String text) {
+                return Option.ofObj(text);
+            }
+        });
+    }
+
+    /**
+     * Registers a key with an int value, see {@link OptionParsers#parseInt(CharSequence)}.
+     *
+     * @param name Name of the property
+     * @return Key holding the current value
+     */
+    @NotNull
+    public Key<Integer> intKey(@NotNull final String name) {
+        return key(name, new Func1<String, Option<Integer>>() {
+            @Override
+            public Option<Integer> call(final String text) {
+                return OptionParsers.parseInt(text.trim());
+            }
+        });
+    }
+
+    /**
+     * Registers a key with a long value, see {@link OptionParsers#parseLong(CharSequence)}.
+     *
+     * @param name Name of the property
+     * @return Key holding the current value
+     */
+    @NotNull
+    public Key<Long> longKey(@NotNull final String name) {
+        return key(name, new Func1<String, Option<Long>>() {
+            @Override
+            public Option<Long> call(final String text) {
+                return OptionParsers.parseLong(text.trim());
+            }
+        });
+    }
+
+    /**
+     * Registers a key with a boolean value, see
+     * {@link OptionParsers#parseBoolean(CharSequence)}.
+     *
+     * @param name Name of the property
+     * @return Key holding the current value
+     */
+    @NotNull
+    public Key<Boolean> booleanKey(@NotNull final String name) {
+        return key(name, new Func1<String, Option<Boolean>>() {
+            @Override
+            public Option<Boolean> call(final String text) {
+                return OptionParsers.parseBoolean(text.trim());
+            }
+        });
+    }
+
+    /**
+     * Current value of @key.
+     *
+     * @param key Registered key
+     * @param <T> Type of the value
+     * @return Current value
+     */
+    @NotNull
+    public <T> Option<T> get(@NotNull final Key<T> key) {
+        return key.get();
+    }
+
+    /**
+     * Adds a listener called with every key whose value changed, after the whole reload is
+     * applied.
+     *
+     * @param listener Listener of changed keys
+     */
+    public void addListener(@NotNull final Action1<Key<?>> listener) {
+        mListeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added by {@link #addListener(Action1)}.
+     *
+     * @param listener Listener to be removed
+     */
+    public void removeListener(@NotNull final Action1<Key<?>> listener) {
+        mListeners.remove(listener);
+    }
+
+    /**
+     * Replaces the configuration with @properties, updating only the keys whose text changed.
+     * <p/>
+     * All the changed values are parsed before any of them is applied, so when a parser throws
+     * the configuration stays unchanged.
+     *
+     * @param properties New configuration
+     * @return Keys whose value changed
+     */
+    @NotNull
+    public List<Key<?>> reload(@NotNull final Properties properties) {
+        final List<Key<?>> changed = new ArrayList<Key<?>>();
+        synchronized (mLock) {
+            final Map<String, String> raw = new HashMap<String, String>();
+            for (final String name : properties.stringPropertyNames()) {
+                raw.put(name, properties.getProperty(name));
+            }
+            final List<Parsed<?>> parsed = new ArrayList<Parsed<?>>();
+            for (final Key<?> key : mKeys.values()) {
+                final String previous = mRaw.get(key.mName);
+                final String current = raw.get(key.mName);
+                if (previous == null ? current != null : !previous.equals(current)) {
+                    parsed.add(Parsed.of(key, current));
+                }
+            }
+            for (final Parsed<?> value : parsed) {
+                if (value.commit()) {
+                    changed.add(value.mKey);
+                }
+            }
+            mRaw = raw;
+        }
+        for (final Key<?> key : changed) {
+            key.notifyListeners();
+            for (final Action1<Key<?>> listener : mListeners) {
+                listener.call(key);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Replaces the configuration with the properties read from @file.
+     *
+     * @param file Properties file
+     * @return Keys whose value changed
+     * @throws IOException when the file cannot be read, the configuration stays unchanged
+     */
+    @NotNull
+    public List<Key<?>> reload(@NotNull final File file) throws IOException {
+        return reload(read(file));
+    }
+
+    @NotNull
+    private List<Key<?>> reload(@NotNull final byte[] content) {
+        final Properties properties = new Properties();
+        try {
+            properties.load(new ByteArrayInputStream(content));
+        } catch (IOException e) {
+            // Reading from memory does not fail
+            throw new AssertionError(e);
+        }
+        return reload(properties);
+    }
+
+    /**
+     * Reloads @file every time its content changes, checked every @period.
+     * Failures of parsers and listeners are printed to the standard error.
+     *
+     * @param file      Properties file
+     * @param scheduler Executor checking the file and reloading it
+     * @param period    Time between checks
+     * @param unit      Unit of @period
+     * @return Future that stops watching when cancelled
+     * @see #watch(File, ScheduledExecutorService, long, TimeUnit, Action1)
+     */
+    @NotNull
+    public ScheduledFuture<?> watch(@NotNull final File file,
+                                    @NotNull final ScheduledExecutorService scheduler,
+                                    final long period,
+                                    @NotNull final TimeUnit unit) {
+        return watch(file, scheduler, period, unit, new Action1<RuntimeException>() {
+            @Override
+            public void call(final RuntimeException e) {
+                System.err.println("Could not reload configuration " + file + ": " + e);
+            }
+        });
+    }
+
+    /**
+     * Reloads @file every time its content changes, checked every @period.
+     * <p/>
+     * The content is compared rather than the modification time, which on some file systems
+     * has a resolution of a second and would miss an edit keeping the size within that second.
+     * <p/>
+     * The file is loaded right away. When it cannot be read, or it does not exist, the
+     * configuration stays unchanged and the file is tried again on the next change. When a
+     * parser or a listener throws, the exception is passed to @onError and watching goes on.
+     *
+     * @param file      Properties file
+     * @param scheduler Executor checking the file and reloading it
+     * @param period    Time between checks
+     * @param unit      Unit of @period
+     * @param onError   Function called with the exceptions thrown by parsers and listeners
+     * @return Future that stops watching when cancelled
+     */
+    @NotNull
+    public ScheduledFuture<?> watch(@NotNull final File file,
+                                    @NotNull final ScheduledExecutorService scheduler,
+                                    final long period,
+                                    @NotNull final TimeUnit unit,
+                                    @NotNull final Action1<RuntimeException> onError) {
+        return scheduler.scheduleWithFixedDelay(new Runnable() {
+
+            @Nullable
+            private byte[] mContent;
+
+            @Override
+            public void run() {
+                final byte[] content;
+                try {
+                    content = read(file);
+                } catch (IOException ignored) {
+                    // Keep the previous configuration, the file may be missing for a moment
+                    return;
+                }
+                if (Arrays.equals(content, mContent)) {
+                    return;
+                }
+                try {
+                    reload(content);
+                    mContent = content;
+                } catch (RuntimeException e) {
+                    // A thrown exception would cancel the task, and with it every later reload.
+                    // The same content would fail again, so it is retried only once it changes
+                    mContent = content;
+                    reportError(e);
+                }
+            }
+
+            private void reportError(@NotNull final RuntimeException e) {
+                try {
+                    onError.call(e);
+                } catch (RuntimeException ignored) {
+                    // Keep watching even when the error handler fails
+                }
+            }
+        }, 0, period, unit);
+    }
+
+    @NotNull
+    private static byte[] read(@NotNull final File file) throws IOException {
+        final InputStream in = new FileInputStream(file);
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream((int) file.length());
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Typed configuration key, holding the current value.
+     *
+     * @param <T> Type of the value
+     */
+    public static final class Key<T> {
+
+        @NotNull
+        final String mName;
+
+        @NotNull
+        private final Func1<String, Option<T>> mParser;
+
+        @NotNull
+        private final AtomicOption<T> mValue = new AtomicOption<T>();
+
+        @NotNull
+        private final List<Action1<Option<T>>> mListeners =
+                new CopyOnWriteArrayList<Action1<Option<T>>>();
+
+        Key(@NotNull final String name, @NotNull final Func1<String, Option<T>> parser) {
+            mName = name;
+            mParser = parser;
+        }
+
+        /**
+         * Name of the property.
+         *
+         * @return Name
+         */
+        @NotNull
+        public String getName() {
+            return mName;
+        }
+
+        /**
+         * Current value, None if the property is missing or cannot be parsed.
+         *
+         * @return Current value
+         */
+        @NotNull
+        public Option<T> get() {
+            return mValue.get();
+        }
+
+        /**
+         * Adds a listener called with the new value every time the value changes.
+         *
+         * @param listener Listener of the value
+         */
+        public void addListener(@NotNull final Action1<Option<T>> listener) {
+            mListeners.add(listener);
+        }
+
+        /**
+         * Removes a listener added by {@link #addListener(Action1)}.
+         *
+         * @param listener Listener to be removed
+         */
+        public void removeListener(@NotNull final Action1<Option<T>> listener) {
+            mListeners.remove(listener);
+        }
+
+        @NotNull
+        Option<T> parse(@Nullable final String text) {
+            final Option<T> parsed = text == null ? Option.<T>none() : mParser.call(text);
+            return parsed == null ? Option.<T>none() : parsed;
+        }
+
+        /**
+         * Stores @value if it differs from the current value.
+         *
+         * @return true if the value changed, otherwise false
+         */
+        boolean commit(@NotNull final Option<T> value) {
+            if (value.equals(mValue.get())) {
+                return false;
+            }
+            mValue.set(value);
+            return true;
+        }
+
+        void notifyListeners() {
+            final Option<T> value = mValue.get();
+            for (final Action1<Option<T>> listener : mListeners) {
+                listener.call(value);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return mName + "=" + mValue.get();
+        }
+    }
+
+    /**
+     * Value parsed by a key, but not stored in it yet.
+     */
+    private static final class Parsed<T> {
+
+        @NotNull
+        final Key<T> mKey;
+
+        @NotNull
+        private final Option<T> mValue;
+
+        private Parsed(@NotNull final Key<T> key, @NotNull final Option<T> value) {
+            mKey = key;
+            mValue = value;
+        }
+
+        @NotNull
+        static <T> Parsed<T> of(@NotNull final Key<T> key, @Nullable final String text) {
+            return new Parsed<T>(key, key.parse(text));
+        }
+
+        boolean commit() {
+            return mKey.commit(mValue);
+        }
+    }
+}
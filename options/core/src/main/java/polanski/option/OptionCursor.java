@@ -0,0 +1,19 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Pull-style source of values, that merges checking for the next value and retrieving it.
+ *
+ * @param <T> Type of the values
+ */
+public interface OptionCursor<T> {
+
+    /**
+     * Advances the cursor.
+     *
+     * @return Some of the next value, None when the cursor is exhausted
+     */
+    @NotNull
+    Option<T> next();
+}
@@ -0,0 +1,206 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import polanski.option.function.Func1;
+
+import static polanski.option.Option.ofObj;
+
+/**
+ * Lazy operators over iterators of {@link Option}.
+ * <p/>
+ * Every operator pulls a single element from its source at a time, so they run in constant memory
+ * regardless of the size of the input. Somes are passed on as they are, without being re-wrapped.
+ */
+public final class OptionIterators {
+
+    OptionIterators() {
+        throw new AssertionError("Must not create an instance");
+    }
+
+    /**
+     * Skips all None elements and unwraps the Somes.
+     *
+     * @param source Iterator of options
+     * @param <T>    Wrapped type
+     * @return Iterator of the values of all Somes in @source
+     */
+    @NotNull
+    public static <T> Iterator<T> flatten(@NotNull final Iterator<Option<T>> source) {
+        return iterator(cursor(source));
+    }
+
+    /**
+     * Converts inner values of the options with @selector, Nones are kept in place.
+     *
+     * @param source   Iterator of options
+     * @param selector Function that converts inner value
+     * @param <T>      Wrapped type
+     * @param <OUT>    Result type
+     * @return Iterator of converted options
+     */
+    @NotNull
+    public static <T, OUT> Iterator<Option<OUT>> mapSome(@NotNull final Iterator<Option<T>> source,
+                                                         @NotNull final Func1<T, OUT> selector) {
+        return new Iterator<Option<OUT>>() {
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public Option<OUT> next() {
+                return source.next().map(selector);
+            }
+
+            @Override
+            public void remove() {
+                source.remove();
+            }
+        };
+    }
+
+    /**
+     * Unwraps the values of leading Somes, stopping at the first None.
+     *
+     * @param source Iterator of options
+     * @param <T>    Wrapped type
+     * @return Iterator of the values before the first None in @source
+     */
+    @NotNull
+    public static <T> Iterator<T> takeWhileSome(@NotNull final Iterator<Option<T>> source) {
+        return new LookaheadIterator<T>() {
+            private boolean mDone;
+
+            @NotNull
+            @Override
+            Option<T> computeNext() {
+                if (!mDone && source.hasNext()) {
+                    final Option<T> next = source.next();
+                    mDone = next.isNone();
+                    return next;
+                }
+                mDone = true;
+                return Option.none();
+            }
+        };
+    }
+
+    /**
+     * Generates values starting from @seed, each next value is created from the previous one
+     * with @next until it returns None.
+     *
+     * @param seed First value, if null the iterator is empty
+     * @param next Function creating the following value
+     * @param <T>  Type of the values
+     * @return Lazy iterator of the generated values
+     */
+    @NotNull
+    public static <T> Iterator<T> unfold(@Nullable final T seed,
+                                         @NotNull final Func1<T, Option<T>> next) {
+        return new LookaheadIterator<T>() {
+            @NotNull
+            private Option<T> mCurrent = Option.none();
+
+            private boolean mStarted;
+
+            @NotNull
+            @Override
+            Option<T> computeNext() {
+                mCurrent = mStarted ? mCurrent.flatMap(next) : ofObj(seed);
+                mStarted = true;
+                return mCurrent;
+            }
+        };
+    }
+
+    /**
+     * Creates a cursor returning Somes of @source, Nones are skipped.
+     *
+     * @param source Iterator of options
+     * @param <T>    Wrapped type
+     * @return Cursor returning the Somes of @source, then None when exhausted
+     */
+    @NotNull
+    public static <T> OptionCursor<T> cursor(@NotNull final Iterator<Option<T>> source) {
+        return new OptionCursor<T>() {
+            @NotNull
+            @Override
+            public Option<T> next() {
+                while (source.hasNext()) {
+                    final Option<T> next = source.next();
+                    if (next.isSome()) {
+                        return next;
+                    }
+                }
+                return Option.none();
+            }
+        };
+    }
+
+    /**
+     * Adapts a cursor to an {@link Iterator}.
+     *
+     * @param cursor Cursor to be iterated
+     * @param <T>    Type of the values
+     * @return Iterator of the values returned by @cursor
+     */
+    @NotNull
+    public static <T> Iterator<T> iterator(@NotNull final OptionCursor<T> cursor) {
+        return new LookaheadIterator<T>() {
+            @NotNull
+            @Override
+            Option<T> computeNext() {
+                return cursor.next();
+            }
+        };
+    }
+
+    /**
+     * Iterator that holds on to at most one element read ahead of the consumer.
+     */
+    private abstract static class LookaheadIterator<T> implements Iterator<T> {
+
+        @NotNull
+        private Option<T> mNext = Option.none();
+
+        private boolean mReady;
+
+        /**
+         * Computes the next element.
+         *
+         * @return Some of the next element, None when there are no more elements
+         */
+        @NotNull
+        abstract Option<T> computeNext();
+
+        @Override
+        public boolean hasNext() {
+            if (!mReady) {
+                mNext = computeNext();
+                mReady = true;
+            }
+            return mNext.isSome();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final T value = mNext.getUnsafe();
+            mNext = Option.none();
+            mReady = false;
+            return value;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
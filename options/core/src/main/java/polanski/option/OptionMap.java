@@ -0,0 +1,299 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+
+import polanski.option.function.Func0;
+import polanski.option.function.Func1;
+
+import static polanski.option.Option.ofObj;
+
+/**
+ * Hash map that stores its values already wrapped in {@link Option}.
+ * <p/>
+ * Lookups return the stored {@link Some} instance or {@link Option#NONE}, so reading from the map
+ * never allocates. Entries are kept in open addressed arrays with linear probing, there are no
+ * per-entry node objects.
+ * <p/>
+ * This class is not thread safe, use {@link ConcurrentOptionMap} when the map is shared.
+ *
+ * @param <K> Type of the keys
+ * @param <V> Type of the values
+ */
+public final class OptionMap<K, V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    private static final float LOAD_FACTOR = 0.75f;
+
+    @NotNull
+    private Object[] mKeys;
+
+    @NotNull
+    private Option<V>[] mValues;
+
+    private int mMask;
+
+    private int mThreshold;
+
+    private int mSize;
+
+    /**
+     * Constructor, creates an empty map with default capacity.
+     */
+    public OptionMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor, creates an empty map that can hold @expectedSize entries without resizing.
+     *
+     * @param expectedSize Number of entries expected to be stored in the map
+     */
+    public OptionMap(final int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative: " + expectedSize);
+        }
+        allocate(tableSizeFor((int) Math.ceil(expectedSize / LOAD_FACTOR)));
+    }
+
+    /**
+     * Returns value stored under the @key.
+     *
+     * @param key Key of the value
+     * @return Stored Some if the key exists, otherwise None
+     */
+    @NotNull
+    public Option<V> get(@NotNull final K key) {
+        final int index = find(key);
+        return index < 0 ? Option.<V>none() : mValues[index];
+    }
+
+    /**
+     * Returns value stored under the @key, if it does not exist then the value supplied by @def.
+     *
+     * @param key Key of the value
+     * @param def Function that returns default value
+     * @return Stored value if the key exists, otherwise the default
+     */
+    @NotNull
+    public V getOrDefault(@NotNull final K key, @NotNull final Func0<V> def) {
+        final int index = find(key);
+        return index < 0 ? def.call() : mValues[index].getUnsafe();
+    }
+
+    /**
+     * Indicates if the map contains the @key.
+     *
+     * @param key Key to be checked
+     * @return true if value for the key is stored, otherwise false
+     */
+    public boolean containsKey(@NotNull final K key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Stores the @option under the @key, storing None removes the key.
+     * <p/>
+     * Passing an already existing {@link Some} lets the map share it instead of allocating one.
+     *
+     * @param key    Key of the value
+     * @param option Option to be stored
+     * @return Previously stored value if it existed, otherwise None
+     */
+    @NotNull
+    public Option<V> put(@NotNull final K key, @NotNull final Option<V> option) {
+        if (option.isNone()) {
+            return remove(key);
+        }
+        int index = indexFor(key);
+        Object current;
+        while ((current = mKeys[index]) != null) {
+            if (current.equals(key)) {
+                final Option<V> previous = mValues[index];
+                mValues[index] = option;
+                return previous;
+            }
+            index = (index + 1) & mMask;
+        }
+        insertAt(index, key, option);
+        return Option.none();
+    }
+
+    /**
+     * Returns value stored under the @key, if it does not exist then computes it with @f and
+     * stores it.
+     *
+     * @param key Key of the value
+     * @param f   Function creating the value for the key, if it returns null nothing is stored
+     * @return Stored or computed value, None if @f returned null
+     */
+    @NotNull
+    public Option<V> computeIfNone(@NotNull final K key,
+                                   @NotNull final Func1<K, V> f) {
+        final int index = find(key);
+        if (index >= 0) {
+            return mValues[index];
+        }
+        final Option<V> computed = ofObj(f.call(key));
+        if (computed.isSome()) {
+            // The function could have modified the map, so the free slot has to be found again
+            put(key, computed);
+        }
+        return computed;
+    }
+
+    /**
+     * Removes the value stored under the @key.
+     *
+     * @param key Key of the value
+     * @return Removed value if it existed, otherwise None
+     */
+    @NotNull
+    public Option<V> remove(@NotNull final K key) {
+        final int index = find(key);
+        if (index < 0) {
+            return Option.none();
+        }
+        final Option<V> previous = mValues[index];
+        mSize--;
+        shiftKeys(index);
+        return previous;
+    }
+
+    /**
+     * Number of stored entries.
+     *
+     * @return Size of the map
+     */
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * Indicates if the map has no entries.
+     *
+     * @return true if the map is empty, otherwise false
+     */
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * Removes all entries, keeping the allocated capacity.
+     */
+    public void clear() {
+        for (int i = 0; i < mKeys.length; i++) {
+            mKeys[i] = null;
+            mValues[i] = null;
+        }
+        mSize = 0;
+    }
+
+    private int find(@NotNull final Object key) {
+        int index = indexFor(key);
+        Object current;
+        while ((current = mKeys[index]) != null) {
+            if (current.equals(key)) {
+                return index;
+            }
+            index = (index + 1) & mMask;
+        }
+        return -1;
+    }
+
+    private void insertAt(final int index,
+                          @NotNull final Object key,
+                          @NotNull final Option<V> option) {
+        if (mSize == mMask && mKeys.length == MAXIMUM_CAPACITY) {
+            // The table cannot grow any further and probing for a missing key needs an empty slot
+            throw new IllegalStateException("Map cannot hold more than " + mMask + " entries");
+        }
+        mKeys[index] = key;
+        mValues[index] = option;
+        if (++mSize > mThreshold && mKeys.length < MAXIMUM_CAPACITY) {
+            rehash(mKeys.length * 2);
+        }
+    }
+
+    /**
+     * Closes the gap left by a removed entry, so the probe sequences stay unbroken.
+     */
+    private void shiftKeys(int index) {
+        while (true) {
+            final int last = index;
+            index = (index + 1) & mMask;
+            Object current;
+            while (true) {
+                current = mKeys[index];
+                if (current == null) {
+                    mKeys[last] = null;
+                    mValues[last] = null;
+                    return;
+                }
+                final int ideal = indexFor(current);
+                if (last <= index
+                        ? last >= ideal || ideal > index
+                        : last >= ideal && ideal > index) {
+                    break;
+                }
+                index = (index + 1) & mMask;
+            }
+            mKeys[last] = current;
+            mValues[last] = mValues[index];
+        }
+    }
+
+    private void rehash(final int capacity) {
+        final Object[] oldKeys = mKeys;
+        final Option<V>[] oldValues = mValues;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            final Object key = oldKeys[i];
+            if (key != null) {
+                int index = indexFor(key);
+                while (mKeys[index] != null) {
+                    index = (index + 1) & mMask;
+                }
+                mKeys[index] = key;
+                mValues[index] = oldValues[i];
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(final int capacity) {
+        mKeys = new Object[capacity];
+        mValues = (Option<V>[]) new Option<?>[capacity];
+        mMask = capacity - 1;
+        mThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private int indexFor(@NotNull final Object key) {
+        final int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mMask;
+    }
+
+    static int tableSizeFor(final int size) {
+        int capacity = 2;
+        while (capacity < size && capacity < MAXIMUM_CAPACITY) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder b = new StringBuilder("{");
+        for (int i = 0; i < mKeys.length; i++) {
+            if (mKeys[i] != null) {
+                if (b.length() > 1) {
+                    b.append(", ");
+                }
+                b.append(mKeys[i]).append('=').append(mValues[i]);
+            }
+        }
+        return b.append('}').toString();
+    }
+}
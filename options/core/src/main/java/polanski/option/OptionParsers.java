@@ -0,0 +1,491 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static polanski.option.Option.ofObj;
+
+/**
+ * Parsers returning {@link Option} instead of throwing exceptions on invalid input.
+ * <p/>
+ * Input is validated while it is parsed, so invalid text costs no more than valid text. All the
+ * parsers accept a sub-range of a {@link CharSequence}, so fields do not need to be copied into
+ * separate strings first. Leading or trailing whitespace is not accepted.
+ */
+public final class OptionParsers {
+
+    @NotNull
+    private static final Option<Boolean> TRUE = ofObj(Boolean.TRUE);
+
+    @NotNull
+    private static final Option<Boolean> FALSE = ofObj(Boolean.FALSE);
+
+    /**
+     * Returned by {@link #accumulateDecimal} for invalid input, a valid result is never positive.
+     */
+    private static final long INVALID = 1;
+
+    /**
+     * Largest number of decimal digits whose value is exactly representable as a double.
+     */
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    @NotNull
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    @NotNull
+    private static final ConcurrentMap<Class<?>, EnumTable<?>> ENUM_TABLES =
+            new ConcurrentHashMap<Class<?>, EnumTable<?>>();
+
+    OptionParsers() {
+        throw new AssertionError("Must not create an instance");
+    }
+
+    /**
+     * Parses a decimal int, with an optional sign.
+     *
+     * @param text Text to be parsed
+     * @return Some of the number, None if the text is not a valid int
+     */
+    @NotNull
+    public static Option<Integer> parseInt(@NotNull final CharSequence text) {
+        return parseInt(text, 0, text.length());
+    }
+
+    /**
+     * Parses a decimal int, with an optional sign, from a part of @text.
+     *
+     * @param text  Text to be parsed
+     * @param start Index of the first character, inclusive
+     * @param end   Index of the last character, exclusive
+     * @return Some of the number, None if the range is not a valid int
+     */
+    @NotNull
+    public static Option<Integer> parseInt(@NotNull final CharSequence text,
+                                           final int start,
+                                           final int end) {
+        checkRange(text, start, end);
+        final long accumulated = accumulateDecimal(text, start, end, Integer.MIN_VALUE);
+        if (accumulated == INVALID) {
+            return Option.none();
+        }
+        return ofObj((int) (isNegative(text, start, end) ? accumulated : -accumulated));
+    }
+
+    /**
+     * Parses a decimal long, with an optional sign.
+     *
+     * @param text Text to be parsed
+     * @return Some of the number, None if the text is not a valid long
+     */
+    @NotNull
+    public static Option<Long> parseLong(@NotNull final CharSequence text) {
+        return parseLong(text, 0, text.length());
+    }
+
+    /**
+     * Parses a decimal long, with an optional sign, from a part of @text.
+     *
+     * @param text  Text to be parsed
+     * @param start Index of the first character, inclusive
+     * @param end   Index of the last character, exclusive
+     * @return Some of the number, None if the range is not a valid long
+     */
+    @NotNull
+    public static Option<Long> parseLong(@NotNull final CharSequence text,
+                                         final int start,
+                                         final int end) {
+        checkRange(text, start, end);
+        final long accumulated = accumulateDecimal(text, start, end, Long.MIN_VALUE);
+        if (accumulated == INVALID) {
+            return Option.none();
+        }
+        return ofObj(isNegative(text, start, end) ? accumulated : -accumulated);
+    }
+
+    /**
+     * Parses a decimal floating point number, e.g. {@code -12.5e3}, {@code NaN} or
+     * {@code Infinity}.
+     *
+     * @param text Text to be parsed
+     * @return Some of the number, None if the text is not a valid number
+     */
+    @NotNull
+    public static Option<Double> parseDouble(@NotNull final CharSequence text) {
+        return parseDouble(text, 0, text.length());
+    }
+
+    /**
+     * Parses a decimal floating point number from a part of @text.
+     *
+     * @param text  Text to be parsed
+     * @param start Index of the first character, inclusive
+     * @param end   Index of the last character, exclusive
+     * @return Some of the number, None if the range is not a valid number
+     */
+    @NotNull
+    public static Option<Double> parseDouble(@NotNull final CharSequence text,
+                                             final int start,
+                                             final int end) {
+        checkRange(text, start, end);
+        int i = start;
+        final boolean negative = i < end && text.charAt(i) == '-';
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            i++;
+        }
+        if (regionMatches(text, i, end, "NaN")) {
+            return ofObj(Double.NaN);
+        }
+        if (regionMatches(text, i, end, "Infinity")) {
+            return ofObj(negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY);
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean anyDigit = false;
+        for (; i < end && isDigit(text.charAt(i)); i++) {
+            anyDigit = true;
+            if (digits < MAX_EXACT_DIGITS + 1) {
+                mantissa = mantissa * 10 + (text.charAt(i) - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+            } else {
+                digits++;
+                scale++;
+            }
+        }
+        if (i < end && text.charAt(i) == '.') {
+            for (i++; i < end && isDigit(text.charAt(i)); i++) {
+                anyDigit = true;
+                if (digits < MAX_EXACT_DIGITS + 1) {
+                    mantissa = mantissa * 10 + (text.charAt(i) - '0');
+                    scale--;
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                } else {
+                    digits++;
+                }
+            }
+        }
+        if (!anyDigit) {
+            return Option.none();
+        }
+        if (i < end && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            final boolean negativeExponent = i < end && text.charAt(i) == '-';
+            if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                i++;
+            }
+            if (i == end) {
+                return Option.none();
+            }
+            int exponent = 0;
+            for (; i < end && isDigit(text.charAt(i)); i++) {
+                if (exponent < 100000) {
+                    exponent = exponent * 10 + (text.charAt(i) - '0');
+                }
+            }
+            scale += negativeExponent ? -exponent : exponent;
+        }
+        if (i != end) {
+            return Option.none();
+        }
+        if (digits <= MAX_EXACT_DIGITS && Math.abs(scale) < POWERS_OF_TEN.length) {
+            // Both the mantissa and the power of ten are exact, so a single operation rounds
+            // correctly
+            final double value = scale < 0
+                    ? mantissa / POWERS_OF_TEN[-scale]
+                    : mantissa * POWERS_OF_TEN[scale];
+            return ofObj(negative ? -value : value);
+        }
+        // The text is known to be valid here, so this does not throw
+        return ofObj(Double.parseDouble(text.subSequence(start, end).toString()));
+    }
+
+    /**
+     * Parses {@code true} or {@code false}, ignoring case.
+     *
+     * @param text Text to be parsed
+     * @return Some of the boolean, None if the text is neither true nor false
+     */
+    @NotNull
+    public static Option<Boolean> parseBoolean(@NotNull final CharSequence text) {
+        return parseBoolean(text, 0, text.length());
+    }
+
+    /**
+     * Parses {@code true} or {@code false}, ignoring case, from a part of @text.
+     *
+     * @param text  Text to be parsed
+     * @param start Index of the first character, inclusive
+     * @param end   Index of the last character, exclusive
+     * @return Some of the boolean, None if the range is neither true nor false
+     */
+    @NotNull
+    public static Option<Boolean> parseBoolean(@NotNull final CharSequence text,
+                                               final int start,
+                                               final int end) {
+        checkRange(text, start, end);
+        if (regionMatchesIgnoreCase(text, start, end, "true")) {
+            return TRUE;
+        }
+        if (regionMatchesIgnoreCase(text, start, end, "false")) {
+            return FALSE;
+        }
+        return Option.none();
+    }
+
+    /**
+     * Parses a {@link UUID} in its canonical form, e.g.
+     * {@code 123e4567-e89b-12d3-a456-426655440000}.
+     *
+     * @param text Text to be parsed
+     * @return Some of the UUID, None if the text is not a valid UUID
+     */
+    @NotNull
+    public static Option<UUID> parseUuid(@NotNull final CharSequence text) {
+        return parseUuid(text, 0, text.length());
+    }
+
+    /**
+     * Parses a {@link UUID} in its canonical form from a part of @text.
+     *
+     * @param text  Text to be parsed
+     * @param start Index of the first character, inclusive
+     * @param end   Index of the last character, exclusive
+     * @return Some of the UUID, None if the range is not a valid UUID
+     */
+    @NotNull
+    public static Option<UUID> parseUuid(@NotNull final CharSequence text,
+                                         final int start,
+                                         final int end) {
+        checkRange(text, start, end);
+        if (end - start != 36) {
+            return Option.none();
+        }
+        long most = 0;
+        long least = 0;
+        for (int i = 0; i < 36; i++) {
+            final char c = text.charAt(start + i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return Option.none();
+                }
+                continue;
+            }
+            final int digit = hexDigit(c);
+            if (digit < 0) {
+                return Option.none();
+            }
+            if (i < 19) {
+                most = (most << 4) | digit;
+            } else {
+                least = (least << 4) | digit;
+            }
+        }
+        return ofObj(new UUID(most, least));
+    }
+
+    /**
+     * Finds the constant of @type with the name equal to @text.
+     * <p/>
+     * Names of the constants are kept in a hash table prepared on the first use of @type,
+     * together with a Some of every constant, so lookups do not allocate.
+     *
+     * @param type Class of the enum
+     * @param text Name of the constant
+     * @param <E>  Type of the enum
+     * @return Some of the constant, None if there is no constant with the name
+     */
+    @NotNull
+    public static <E extends Enum<E>> Option<E> parseEnum(@NotNull final Class<E> type,
+                                                          @NotNull final CharSequence text) {
+        return parseEnum(type, text, 0, text.length());
+    }
+
+    /**
+     * Finds the constant of @type with the name equal to a part of @text.
+     *
+     * @param type  Class of the enum
+     * @param text  Text containing the name of the constant
+     * @param start Index of the first character, inclusive
+     * @param end   Index of the last character, exclusive
+     * @param <E>   Type of the enum
+     * @return Some of the constant, None if there is no constant with the name
+     */
+    @SuppressWarnings("unchecked")
+    @NotNull
+    public static <E extends Enum<E>> Option<E> parseEnum(@NotNull final Class<E> type,
+                                                          @NotNull final CharSequence text,
+                                                          final int start,
+                                                          final int end) {
+        checkRange(text, start, end);
+        EnumTable<E> table = (EnumTable<E>) ENUM_TABLES.get(type);
+        if (table == null) {
+            table = new EnumTable<E>(type.getEnumConstants());
+            ENUM_TABLES.putIfAbsent(type, table);
+        }
+        return table.find(text, start, end);
+    }
+
+    /**
+     * Parses a decimal integer, accumulating it negatively, so the minimal value can be parsed.
+     * The sign is not applied, as every long is a valid result there would be no value left to
+     * report invalid input with.
+     *
+     * @param min Minimal allowed value
+     * @return Negated absolute value, or {@link #INVALID}
+     */
+    private static long accumulateDecimal(@NotNull final CharSequence text,
+                                          final int start,
+                                          final int end,
+                                          final long min) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        if (i == end) {
+            return INVALID;
+        }
+        final long limit = negative ? min : min + 1;
+        final long multiplicationLimit = limit / 10;
+        long result = 0;
+        for (; i < end; i++) {
+            final char c = text.charAt(i);
+            if (!isDigit(c) || result < multiplicationLimit) {
+                return INVALID;
+            }
+            result *= 10;
+            final int digit = c - '0';
+            if (result < limit + digit) {
+                return INVALID;
+            }
+            result -= digit;
+        }
+        return result;
+    }
+
+    private static boolean isNegative(@NotNull final CharSequence text,
+                                      final int start,
+                                      final int end) {
+        return start < end && text.charAt(start) == '-';
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int hexDigit(final char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static boolean regionMatches(@NotNull final CharSequence text,
+                                         final int start,
+                                         final int end,
+                                         @NotNull final String expected) {
+        if (end - start != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (text.charAt(start + i) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean regionMatchesIgnoreCase(@NotNull final CharSequence text,
+                                                   final int start,
+                                                   final int end,
+                                                   @NotNull final String expected) {
+        if (end - start != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < expected.length(); i++) {
+            if (Character.toLowerCase(text.charAt(start + i)) != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void checkRange(@NotNull final CharSequence text,
+                                   final int start,
+                                   final int end) {
+        if (start < 0 || end > text.length() || start > end) {
+            throw new IndexOutOfBoundsException(
+                    String.format("Range [%d, %d) out of bounds for length %d", start, end, text.length()));
+        }
+    }
+
+    /**
+     * Open addressed hash table from constant names to Somes of the constants.
+     */
+    private static final class EnumTable<E> {
+
+        @NotNull
+        private final String[] mNames;
+
+        @NotNull
+        private final Option<E>[] mOptions;
+
+        private final int mMask;
+
+        @SuppressWarnings("unchecked")
+        EnumTable(@NotNull final E[] constants) {
+            int capacity = 2;
+            while (capacity < constants.length * 2) {
+                capacity <<= 1;
+            }
+            mNames = new String[capacity];
+            mOptions = (Option<E>[]) new Option<?>[capacity];
+            mMask = capacity - 1;
+            for (final E constant : constants) {
+                final String name = ((Enum<?>) constant).name();
+                int index = name.hashCode() & mMask;
+                while (mNames[index] != null) {
+                    index = (index + 1) & mMask;
+                }
+                mNames[index] = name;
+                mOptions[index] = ofObj(constant);
+            }
+        }
+
+        @NotNull
+        Option<E> find(@NotNull final CharSequence text, final int start, final int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + text.charAt(i);
+            }
+            int index = hash & mMask;
+            String name;
+            while ((name = mNames[index]) != null) {
+                if (regionMatches(text, start, end, name)) {
+                    return mOptions[index];
+                }
+                index = (index + 1) & mMask;
+            }
+            return Option.none();
+        }
+    }
+}
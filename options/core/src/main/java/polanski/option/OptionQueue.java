@@ -0,0 +1,144 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import polanski.option.function.Action1;
+
+/**
+ * Bounded lock-free queue of values, that hands them out as {@link Option}.
+ * <p/>
+ * Values are stored as the Somes they are polled as, so {@link #offer(Option)} of an existing
+ * Some and {@link #poll()} do not allocate, and {@link #drain(Action1)} does not allocate at all.
+ * When the queue is full, offers return false instead of blocking, so producers can back off.
+ * <p/>
+ * Use {@link #spsc(int)} when there is a single producer thread and {@link #mpsc(int)} when there
+ * are several. Both allow only a single consumer thread.
+ *
+ * @param <T> Type of the values
+ */
+public abstract class OptionQueue<T> {
+
+    @NotNull
+    final AtomicReferenceArray<Option<T>> mBuffer;
+
+    final int mMask;
+
+    @NotNull
+    final AtomicLong mProducerIndex = new AtomicLong();
+
+    @NotNull
+    final AtomicLong mConsumerIndex = new AtomicLong();
+
+    OptionQueue(final int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+        }
+        final int size = Integer.highestOneBit(capacity) == capacity
+                ? capacity
+                : Integer.highestOneBit(capacity) << 1;
+        mBuffer = new AtomicReferenceArray<Option<T>>(size);
+        mMask = size - 1;
+    }
+
+    /**
+     * Creates a queue for a single producer and a single consumer thread.
+     *
+     * @param capacity Minimal capacity, rounded up to a power of two
+     * @param <T>      Type of the values
+     * @return Empty queue
+     */
+    @NotNull
+    public static <T> OptionQueue<T> spsc(final int capacity) {
+        return new SpscOptionQueue<T>(capacity);
+    }
+
+    /**
+     * Creates a queue for any number of producer threads and a single consumer thread.
+     *
+     * @param capacity Minimal capacity, rounded up to a power of two
+     * @param <T>      Type of the values
+     * @return Empty queue
+     */
+    @NotNull
+    public static <T> OptionQueue<T> mpsc(final int capacity) {
+        return new MpscOptionQueue<T>(capacity);
+    }
+
+    /**
+     * Adds the value of @option to the queue, the Some itself is stored and returned by
+     * {@link #poll()}.
+     *
+     * @param option Value to be added, None is ignored
+     * @return false if the queue is full, otherwise true
+     */
+    public abstract boolean offer(@NotNull final Option<T> option);
+
+    /**
+     * Takes the oldest value from the queue.
+     *
+     * @return Some of the value, None if the queue is empty
+     */
+    @NotNull
+    public abstract Option<T> poll();
+
+    /**
+     * Passes all the values currently in the queue to @consumer, oldest first.
+     *
+     * @param consumer Function consuming the values
+     * @return Number of consumed values
+     */
+    public int drain(@NotNull final Action1<T> consumer) {
+        return drain(consumer, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Passes at most @limit values to @consumer, oldest first.
+     *
+     * @param consumer Function consuming the values
+     * @param limit    Maximal number of consumed values
+     * @return Number of consumed values
+     */
+    public int drain(@NotNull final Action1<T> consumer, final int limit) {
+        int count = 0;
+        while (count < limit) {
+            final Option<T> option = poll();
+            if (option.isNone()) {
+                break;
+            }
+            consumer.call(option.getUnsafe());
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Number of values in the queue, only an estimate while the queue is used concurrently.
+     *
+     * @return Number of values
+     */
+    public int size() {
+        final long size = mProducerIndex.get() - mConsumerIndex.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    /**
+     * Indicates if the queue is empty, only an estimate while the queue is used concurrently.
+     *
+     * @return true if the queue is empty, otherwise false
+     */
+    public boolean isEmpty() {
+        return mProducerIndex.get() == mConsumerIndex.get();
+    }
+
+    /**
+     * Maximal number of values the queue can hold.
+     *
+     * @return Capacity
+     */
+    public int capacity() {
+        return mMask + 1;
+    }
+}
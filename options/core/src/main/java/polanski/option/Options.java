@@ -0,0 +1,302 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import polanski.option.function.Func0;
+import polanski.option.function.Func1;
+import polanski.option.function.Func2;
+import polanski.option.function.Func3;
+import polanski.option.function.FuncN;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static polanski.option.Option.ofObj;
+
+/**
+ * Operators working on several sources of {@link Option}.
+ */
+public final class Options {
+
+    Options() {
+        throw new AssertionError("Must not create an instance");
+    }
+
+    /**
+     * Runs all @sources at once and returns the first Some any of them returns.
+     * <p/>
+     * Blocks until a Some is returned or all the sources returned None. Sources throwing an
+     * exception count as None. When the calling thread is interrupted, None is returned.
+     *
+     * @param executor Executor running the sources
+     * @param sources  Functions returning options
+     * @param <T>      Wrapped type
+     * @return First Some returned by the sources, None if all of them returned None
+     */
+    @NotNull
+    @SuppressWarnings("unchecked") // @SafeVarargs needs Java 7, the array is only read
+    public static <T> Option<T> race(@NotNull final Executor executor,
+                                     @NotNull final Func0<Option<T>>... sources) {
+        return race(executor, 0, Long.MAX_VALUE, NANOSECONDS, sources);
+    }
+
+    /**
+     * Runs all @sources at once and returns the first Some any of them returns.
+     *
+     * @param executor Executor running the sources
+     * @param timeout  Maximum time to wait for a Some
+     * @param unit     Unit of the @timeout
+     * @param sources  Functions returning options
+     * @param <T>      Wrapped type
+     * @return First Some returned by the sources, None if all of them returned None or the
+     * timeout elapsed
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public static <T> Option<T> race(@NotNull final Executor executor,
+                                     final long timeout,
+                                     @NotNull final TimeUnit unit,
+                                     @NotNull final Func0<Option<T>>... sources) {
+        return race(executor, 0, timeout, unit, sources);
+    }
+
+    /**
+     * Runs @sources one after another in given order, each started once the previous ones did
+     * not return a Some within @hedgeDelay, and returns the first Some any of them returns.
+     * <p/>
+     * When a source returns None, the next one is started right away. Once a Some is returned or
+     * the timeout elapses, sources still running are cancelled by interrupting them. Sources
+     * throwing an exception count as None. When the calling thread is interrupted, None is
+     * returned.
+     *
+     * @param executor   Executor running the sources
+     * @param hedgeDelay Time to wait for the running sources before starting the next one
+     * @param timeout    Maximum time to wait for a Some
+     * @param unit       Unit of the @hedgeDelay and @timeout
+     * @param sources    Functions returning options, the most preferred ones first
+     * @param <T>        Wrapped type
+     * @return First Some returned by the sources, None if all of them returned None or the
+     * timeout elapsed
+     */
+    @NotNull
+    @SuppressWarnings("unchecked")
+    public static <T> Option<T> race(@NotNull final Executor executor,
+                                     final long hedgeDelay,
+                                     final long timeout,
+                                     @NotNull final TimeUnit unit,
+                                     @NotNull final Func0<Option<T>>... sources) {
+        final long start = System.nanoTime();
+        final long timeoutNanos = unit.toNanos(timeout);
+        final long hedgeNanos = unit.toNanos(hedgeDelay);
+        final CompletionService<Option<T>> completion =
+                new ExecutorCompletionService<Option<T>>(executor);
+        final List<Future<Option<T>>> started = new ArrayList<Future<Option<T>>>(sources.length);
+        try {
+            if (sources.length > 0) {
+                started.add(completion.submit(asCallable(sources[0])));
+            }
+            int finished = 0;
+            while (finished < sources.length) {
+                final long remaining = timeoutNanos - (System.nanoTime() - start);
+                if (remaining <= 0) {
+                    break;
+                }
+                final boolean hasMoreSources = started.size() < sources.length;
+                final Future<Option<T>> done = completion.poll(
+                        hasMoreSources ? Math.min(hedgeNanos, remaining) : remaining, NANOSECONDS);
+                if (done == null) {
+                    if (hasMoreSources) {
+                        started.add(completion.submit(asCallable(sources[started.size()])));
+                    }
+                    continue;
+                }
+                finished++;
+                final Option<T> result = resultOf(done);
+                if (result.isSome()) {
+                    return result;
+                }
+                if (hasMoreSources) {
+                    started.add(completion.submit(asCallable(sources[started.size()])));
+                }
+            }
+            return Option.none();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Option.none();
+        } finally {
+            for (final Future<Option<T>> future : started) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Combines options returned by the suppliers using @f, calling the suppliers in given order
+     * only until one of them returns None.
+     *
+     * @param option1 Supplier of the first option, called first
+     * @param option2 Supplier of the second option, called only if the first option is Some
+     * @param f       Function that combines all inner values of the options into one value
+     * @param <IN1>   Input type
+     * @param <IN2>   Input type
+     * @param <OUT>   Result type
+     * @return Option of some if all the suppliers returned Some, otherwise None
+     */
+    @NotNull
+    public static <IN1, IN2, OUT> Option<OUT> liftLazy(@NotNull final Func0<Option<IN1>> option1,
+                                                       @NotNull final Func0<Option<IN2>> option2,
+                                                       @NotNull final Func2<IN1, IN2, OUT> f) {
+        final Option<IN1> first = option1.call();
+        if (first.isNone()) {
+            return Option.none();
+        }
+        return first.lift(option2.call(), f);
+    }
+
+    /**
+     * Combines options returned by the suppliers using @f, calling the suppliers in given order
+     * only until one of them returns None.
+     *
+     * @param option1 Supplier of the first option, called first
+     * @param option2 Supplier of the second option, called only if the first option is Some
+     * @param option3 Supplier of the third option, called only if the previous options are Some
+     * @param f       Function that combines all inner values of the options into one value
+     * @param <IN1>   Input type
+     * @param <IN2>   Input type
+     * @param <IN3>   Input type
+     * @param <OUT>   Result type
+     * @return Option of some if all the suppliers returned Some, otherwise None
+     */
+    @NotNull
+    public static <IN1, IN2, IN3, OUT> Option<OUT> liftLazy(@NotNull final Func0<Option<IN1>> option1,
+                                                            @NotNull final Func0<Option<IN2>> option2,
+                                                            @NotNull final Func0<Option<IN3>> option3,
+                                                            @NotNull final Func3<IN1, IN2, IN3, OUT> f) {
+        final Option<IN1> first = option1.call();
+        if (first.isNone()) {
+            return Option.none();
+        }
+        final Option<IN2> second = option2.call();
+        if (second.isNone()) {
+            return Option.none();
+        }
+        return first.lift(second, option3.call(), f);
+    }
+
+    /**
+     * Combines options returned by @options using @f, calling the suppliers one after another
+     * only until one of them returns None.
+     *
+     * @param options Suppliers of the options, called in the order of the list
+     * @param f       Function that combines all inner values of the options into one value, in
+     *                the order of the list
+     * @param <IN>    Input type
+     * @param <OUT>   Result type
+     * @return Option of some if all the suppliers returned Some, otherwise None
+     */
+    @NotNull
+    public static <IN, OUT> Option<OUT> liftLazy(@NotNull final List<Func0<Option<IN>>> options,
+                                                 @NotNull final FuncN<OUT> f) {
+        final Object[] values = new Object[options.size()];
+        for (int i = 0; i < values.length; i++) {
+            final Option<IN> option = options.get(i).call();
+            if (option.isNone()) {
+                return Option.none();
+            }
+            values[i] = option.getUnsafe();
+        }
+        return ofObj(f.call(values));
+    }
+
+    /**
+     * Combines options returned by @options using @f, calling the suppliers in the order given by
+     * @evaluationOrder only until one of them returns None.
+     * <p/>
+     * Putting the cheapest suppliers, or the ones most likely to return None, first in
+     * @evaluationOrder avoids calling the expensive ones when the result is None anyway.
+     *
+     * @param options         Suppliers of the options
+     * @param evaluationOrder Indices of @options in the order they should be called, must
+     *                        contain every index exactly once
+     * @param f               Function that combines all inner values of the options into one
+     *                        value, in the order of @options regardless of @evaluationOrder
+     * @param <IN>            Input type
+     * @param <OUT>           Result type
+     * @return Option of some if all the suppliers returned Some, otherwise None
+     */
+    @NotNull
+    public static <IN, OUT> Option<OUT> liftLazy(@NotNull final List<Func0<Option<IN>>> options,
+                                                 @NotNull final int[] evaluationOrder,
+                                                 @NotNull final FuncN<OUT> f) {
+        checkPermutation(evaluationOrder, options.size());
+        final Object[] values = new Object[options.size()];
+        for (final int index : evaluationOrder) {
+            final Option<IN> option = options.get(index).call();
+            if (option.isNone()) {
+                return Option.none();
+            }
+            values[index] = option.getUnsafe();
+        }
+        return ofObj(f.call(values));
+    }
+
+    /**
+     * Wraps @loader, so it is called only for the keys @filter might contain, for all other
+     * keys {@link Option#NONE} is returned right away.
+     * <p/>
+     * Every key the loader can return Some for has to be added to @filter, either up front or
+     * with {@link GuardedLookup#add(Object)}, otherwise it will never be loaded.
+     *
+     * @param filter Filter of the keys known to the loader
+     * @param loader Function loading the value of a key
+     * @param <K>    Type of the keys
+     * @param <V>    Type of the values
+     * @return Lookup counting the negatives answered by the filter and the false positives
+     */
+    @NotNull
+    public static <K, V> GuardedLookup<K, V> guarded(@NotNull final BloomFilter<K> filter,
+                                                     @NotNull final Func1<K, Option<V>> loader) {
+        return new GuardedLookup<K, V>(filter, loader);
+    }
+
+    private static void checkPermutation(@NotNull final int[] order, final int size) {
+        if (order.length != size) {
+            throw new IllegalArgumentException(
+                    String.format("Evaluation order has %d indices for %d options", order.length, size));
+        }
+        final boolean[] seen = new boolean[size];
+        for (final int index : order) {
+            if (index < 0 || index >= size || seen[index]) {
+                throw new IllegalArgumentException("Evaluation order is not a permutation: " + index);
+            }
+            seen[index] = true;
+        }
+    }
+
+    @NotNull
+    private static <T> Callable<Option<T>> asCallable(@NotNull final Func0<Option<T>> source) {
+        return new Callable<Option<T>>() {
+            @Override
+            public Option<T> call() {
+                return source.call();
+            }
+        };
+    }
+
+    @NotNull
+    private static <T> Option<T> resultOf(@NotNull final Future<Option<T>> future) {
+        try {
+            final Option<T> result = future.get();
+            return result == null ? Option.<T>none() : result;
+        } catch (Exception e) {
+            return Option.none();
+        }
+    }
+}
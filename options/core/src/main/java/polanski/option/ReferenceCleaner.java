@@ -0,0 +1,60 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+
+/**
+ * Daemon thread notifying {@link ReferenceOption} about the references the garbage collector
+ * cleared, started with the first reference.
+ */
+final class ReferenceCleaner extends Thread {
+
+    /**
+     * Reference knowing the option it belongs to.
+     */
+    interface Owned {
+
+        @NotNull
+        ReferenceOption<?> owner();
+    }
+
+    @NotNull
+    private static final ReferenceQueue<Object> QUEUE = new ReferenceQueue<Object>();
+
+    private static boolean sStarted;
+
+    private ReferenceCleaner() {
+        super("ReferenceOption cleaner");
+        setDaemon(true);
+    }
+
+    @SuppressWarnings("unchecked")
+    @NotNull
+    static <T> ReferenceQueue<T> queue() {
+        synchronized (QUEUE) {
+            if (!sStarted) {
+                sStarted = true;
+                new ReferenceCleaner().start();
+            }
+        }
+        return (ReferenceQueue<T>) QUEUE;
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            try {
+                final Reference<?> reference = QUEUE.remove();
+                if (reference instanceof Owned) {
+                    ((Owned) reference).owner().collected(reference);
+                }
+            } catch (InterruptedException ignored) {
+                // Keep cleaning, the thread lives as long as the application
+            } catch (RuntimeException ignored) {
+                // A failing hook must not stop the cleaning of the other references
+            }
+        }
+    }
+}
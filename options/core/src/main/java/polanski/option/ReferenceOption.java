@@ -0,0 +1,189 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import polanski.option.function.Action0;
+import polanski.option.function.Func0;
+
+import static polanski.option.Option.ofObj;
+
+/**
+ * Base of the options holding their value through a {@link Reference}, so the garbage collector
+ * may reclaim it.
+ * <p/>
+ * The reference points to the value itself rather than to an option, so the value is reclaimed
+ * exactly when the referenced value alone would be, no matter who holds the options returned by
+ * {@link #get()}.
+ * <p/>
+ * Use {@link SoftOption} or {@link WeakOption}, they differ only in the kind of the reference.
+ *
+ * @param <T> Type of the value
+ */
+public abstract class ReferenceOption<T> {
+
+    private final boolean mSoft;
+
+    @NotNull
+    private final Object mLoadLock = new Object();
+
+    @NotNull
+    private final List<Action0> mCollectedHooks = new CopyOnWriteArrayList<Action0>();
+
+    @Nullable
+    private volatile Reference<T> mReference;
+
+    /**
+     * Constructor.
+     *
+     * @param soft  true to hold the value through a {@link SoftReference}, false for a
+     *              {@link WeakReference}
+     * @param value Initial value, null leaves the holder empty
+     */
+    ReferenceOption(final boolean soft, @Nullable final T value) {
+        mSoft = soft;
+        setValue(value);
+    }
+
+    /**
+     * Current value.
+     *
+     * @return Some of the value while it was not collected, otherwise None
+     */
+    @NotNull
+    public Option<T> get() {
+        final Reference<T> reference = mReference;
+        return reference == null ? Option.<T>none() : ofObj(reference.get());
+    }
+
+    /**
+     * Replaces the value.
+     *
+     * @param option New value, None clears the holder
+     */
+    public void set(@NotNull final Option<T> option) {
+        setValue(option.isSome() ? option.getUnsafe() : null);
+    }
+
+    /**
+     * Empties the holder.
+     */
+    public void clear() {
+        setValue(null);
+    }
+
+    private void setValue(@Nullable final T value) {
+        final Reference<T> previous = mReference;
+        mReference = value == null ? null : newReference(value);
+        if (previous != null) {
+            // Cleared references are not enqueued, so replacing a value does not call the hooks
+            previous.clear();
+        }
+    }
+
+    /**
+     * Returns the current value, or loads it with @loader if it was collected or never set.
+     * <p/>
+     * When several threads find the value missing at once, only one of them calls @loader, the
+     * others wait and get its result.
+     *
+     * @param loader Function loading the value, may return null
+     * @return Current or loaded value, None if @loader returned null
+     */
+    @NotNull
+    public Option<T> getOrReload(@NotNull final Func0<T> loader) {
+        final Option<T> current = get();
+        if (current.isSome()) {
+            return current;
+        }
+        synchronized (mLoadLock) {
+            final Option<T> loadedMeanwhile = get();
+            if (loadedMeanwhile.isSome()) {
+                return loadedMeanwhile;
+            }
+            final T loaded = loader.call();
+            setValue(loaded);
+            return ofObj(loaded);
+        }
+    }
+
+    /**
+     * Adds a hook called, on a background thread, after the garbage collector reclaimed the
+     * value. It is not called when the value is replaced or cleared.
+     *
+     * @param hook Function called after the value was collected
+     */
+    public void onCollected(@NotNull final Action0 hook) {
+        mCollectedHooks.add(hook);
+    }
+
+    /**
+     * Called by {@link ReferenceCleaner} once @reference was enqueued.
+     */
+    void collected(@NotNull final Reference<?> reference) {
+        if (mReference != reference) {
+            return;
+        }
+        for (final Action0 hook : mCollectedHooks) {
+            hook.call();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return get().toString();
+    }
+
+    @NotNull
+    private Reference<T> newReference(@NotNull final T value) {
+        final ReferenceQueue<T> queue = ReferenceCleaner.queue();
+        return mSoft ? new SoftRef<T>(value, queue, this) : new WeakRef<T>(value, queue, this);
+    }
+
+    private static final class SoftRef<T> extends SoftReference<T>
+            implements ReferenceCleaner.Owned {
+
+        @NotNull
+        private final ReferenceOption<T> mOwner;
+
+        SoftRef(@NotNull final T value,
+                @NotNull final ReferenceQueue<T> queue,
+                @NotNull final ReferenceOption<T> owner) {
+            super(value, queue);
+            mOwner = owner;
+        }
+
+        @NotNull
+        @Override
+        public ReferenceOption<?> owner() {
+            return mOwner;
+        }
+    }
+
+    private static final class WeakRef<T> extends WeakReference<T>
+            implements ReferenceCleaner.Owned {
+
+        @NotNull
+        private final ReferenceOption<T> mOwner;
+
+        WeakRef(@NotNull final T value,
+                @NotNull final ReferenceQueue<T> queue,
+                @NotNull final ReferenceOption<T> owner) {
+            super(value, queue);
+            mOwner = owner;
+        }
+
+        @NotNull
+        @Override
+        public ReferenceOption<?> owner() {
+            return mOwner;
+        }
+    }
+}
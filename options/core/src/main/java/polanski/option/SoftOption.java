@@ -0,0 +1,30 @@
+package polanski.option;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.SoftReference;
+
+/**
+ * Option holding its value through a {@link SoftReference}, so it is reclaimed only when memory
+ * runs low. Suitable for caches of large values that can be loaded again.
+ *
+ * @param <T> Type of the value
+ */
+public final class SoftOption<T> extends ReferenceOption<T> {
+
+    /**
+     * Constructor, the holder is empty.
+     */
+    public SoftOption() {
+        this(null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param value Initial value, null leaves the holder empty
+     */
+    public SoftOption(@Nullable final T value) {
+        super(true, value);
+    }
+}
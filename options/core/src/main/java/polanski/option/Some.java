@@ -14,8 +14,6 @@ import polanski.option.function.Func3;
 import polanski.option.function.Func4;
 import polanski.option.function.FuncN;
 
-import static polanski.option.Unit.from;
-
 /**
  * Represent option of existing value.
  *
@@ -23,6 +21,8 @@ import static polanski.option.Unit.from;
  */
 public final class Some<T> extends Option<T> {
 
+    private static final long serialVersionUID = 1L;
+
     @NotNull
     private final T mValue;
 
@@ -103,14 +103,10 @@ public final class Some<T> extends Option<T> {
 
     @NotNull
     @Override
-    public polanski.option.Unit matchAction(@NotNull final Action1<T> fSome,
-                                            @NotNull final Action0 fNone) {
-        return from(new Action0() {
-            @Override
-            public void call() {
-                fSome.call(mValue);
-            }
-        });
+    public Unit matchAction(@NotNull final Action1<T> fSome,
+                          @NotNull final Action0 fNone) {
+        fSome.call(mValue);
+        return Unit.DEFAULT;
     }
 
     @Nullable
@@ -123,12 +119,9 @@ public final class Some<T> extends Option<T> {
     @Override
     public <IN, OUT2> Option<OUT2> lift(@NotNull final Option<IN> option,
                                         @NotNull final Func2<T, IN, OUT2> f) {
-        return option.map(new Func1<IN, OUT2>() {
-            @Override
-            public OUT2 call(final IN b) {
-                return f.call(mValue, b);
-            }
-        });
+        return option.isSome()
+                ? ofObj(f.call(mValue, option.getUnsafe()))
+                : Option.<OUT2>none();
     }
 
     @NotNull
@@ -136,12 +129,9 @@ public final class Some<T> extends Option<T> {
     public <IN1, IN2, OUT> Option<OUT> lift(@NotNull final Option<IN1> option1,
                                             @NotNull final Option<IN2> option2,
                                             @NotNull final Func3<T, IN1, IN2, OUT> f) {
-        return option1.lift(option2, new Func2<IN1, IN2, OUT>() {
-            @Override
-            public OUT call(final IN1 o1, final IN2 o2) {
-                return f.call(mValue, o1, o2);
-            }
-        });
+        return option1.isSome() && option2.isSome()
+                ? ofObj(f.call(mValue, option1.getUnsafe(), option2.getUnsafe()))
+                : Option.<OUT>none();
     }
 
     @NotNull
@@ -150,57 +140,48 @@ public final class Some<T> extends Option<T> {
                                                  @NotNull final Option<IN2> option2,
                                                  @NotNull final Option<IN3> option3,
                                                  @NotNull final Func4<T, IN1, IN2, IN3, OUT> f) {
-        return option1.lift(option2, option3, new Func3<IN1, IN2, IN3, OUT>() {
-            @Override
-            public OUT call(final IN1 o1, final IN2 o2, final IN3 o3) {
-                return f.call(mValue, o1, o2, o3);
-            }
-        });
+        return option1.isSome() && option2.isSome() && option3.isSome()
+                ? ofObj(f.call(mValue, option1.getUnsafe(), option2.getUnsafe(), option3.getUnsafe()))
+                : Option.<OUT>none();
     }
 
     @NotNull
     @Override
     public <IN, OUT> Option<OUT> lift(@NotNull final List<Option<IN>> options,
                                       @NotNull final FuncN<OUT> f) {
-
-        return options.size() == 1
-                ? first(options).map(new Func1<IN, OUT>() {
-            @Override
-            public OUT call(final IN it) {
-                return f.call(it, mValue);
+        final int size = options.size();
+        final Object[] args = new Object[size + 1];
+        for (int i = 0; i < size; i++) {
+            final Option<IN> option = options.get(i);
+            if (option.isNone()) {
+                return none();
             }
-        })
-                : first(options).lift(tail(options),
-                new FuncN<OUT>() {
-                    @Override
-                    public OUT call(final Object... list) {
-                        return f.call(combine(mValue, list));
-                    }
-                });
-    }
-
-    @NotNull
-    private static <T> T first(@NotNull final List<T> options) {
-        return options.get(0);
-    }
-
-    @NotNull
-    private static <T> List<T> tail(@NotNull final List<T> options) {
-        return options.subList(1, options.size());
-    }
-
-    @NotNull
-    private static Object[] combine(@NotNull final Object[] a, @NotNull final Object[] b) {
-        final int length = a.length + b.length;
-        Object[] result = new Object[length];
-        System.arraycopy(a, 0, result, 0, a.length);
-        System.arraycopy(b, 0, result, a.length, b.length);
-        return result;
-    }
-
-    @NotNull
-    private static Object[] combine(@NotNull final Object a, @NotNull final Object[] b) {
-        return combine(new Object[]{a}, b);
+            args[argumentIndex(i, size)] = option.getUnsafe();
+        }
+        if (size == 0) {
+            throw new IndexOutOfBoundsException("Options cannot be empty");
+        }
+        args[size == 1 ? 1 : 0] = mValue;
+        return ofObj(f.call(args));
+    }
+
+    /**
+     * Position of the value of the option at @index among the arguments of the combining
+     * function. Keeps the order the arguments were passed in by the former recursive
+     * implementation: this value first, then the others with the last two swapped, or
+     * the other value first when there is just one.
+     */
+    private static int argumentIndex(final int index, final int size) {
+        if (size == 1) {
+            return 0;
+        }
+        if (index == size - 1) {
+            return size - 1;
+        }
+        if (index == size - 2) {
+            return size;
+        }
+        return index + 1;
     }
 
     @Override
@@ -208,17 +189,9 @@ public final class Some<T> extends Option<T> {
         return mValue.hashCode();
     }
 
-    @SuppressWarnings("EqualsWhichDoesntCheckParameterClass")
     @Override
     public boolean equals(final Object o) {
-        return ofObj(o)
-                .ofType(Some.class)
-                .filter(new Func1<Some, Boolean>() {
-                    @Override
-                    public Boolean call(final Some some) {
-                        return some.getUnsafe().equals(mValue);
-                    }
-                }) != NONE;
+        return o instanceof Some && ((Some<?>) o).mValue.equals(mValue);
     }
 
     @Override
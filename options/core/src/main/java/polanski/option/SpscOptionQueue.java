@@ -0,0 +1,47 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link OptionQueue} for a single producer and a single consumer thread.
+ * <p/>
+ * Each side owns its index, so both sides only need ordered writes. A slot is free while it is
+ * null, which the producer checks before writing to it.
+ *
+ * @param <T> Type of the values
+ */
+final class SpscOptionQueue<T> extends OptionQueue<T> {
+
+    SpscOptionQueue(final int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    public boolean offer(@NotNull final Option<T> option) {
+        if (option.isNone()) {
+            return true;
+        }
+        final long index = mProducerIndex.get();
+        final int slot = (int) index & mMask;
+        if (mBuffer.get(slot) != null) {
+            return false;
+        }
+        mBuffer.lazySet(slot, option);
+        mProducerIndex.lazySet(index + 1);
+        return true;
+    }
+
+    @NotNull
+    @Override
+    public Option<T> poll() {
+        final long index = mConsumerIndex.get();
+        final int slot = (int) index & mMask;
+        final Option<T> option = mBuffer.get(slot);
+        if (option == null) {
+            return Option.none();
+        }
+        mBuffer.lazySet(slot, null);
+        mConsumerIndex.lazySet(index + 1);
+        return option;
+    }
+}
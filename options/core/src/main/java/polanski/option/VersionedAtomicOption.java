@@ -0,0 +1,186 @@
+package polanski.option;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static polanski.option.Option.ofObj;
+
+/**
+ * Atomic version of {@link Option} where every write increases a version, so updates can be
+ * made conditional on the version instead of on the identity of the option.
+ * <p/>
+ * Unlike {@link AtomicOption#compareAndSet(Object, Object)}, a value that was cleared and set
+ * again in the meantime is not mistaken for an unchanged one. Reads are a single volatile read of
+ * an immutable {@link Stamped} record, so they are wait-free and never see a value together with
+ * a version of another write.
+ *
+ * @param <T> Inner type of Option
+ */
+public final class VersionedAtomicOption<T> {
+
+    @NotNull
+    private final AtomicReference<Stamped<T>> mCurrent;
+
+    /**
+     * Constructor, the inner value will be set to {@link Option#NONE} at version 0.
+     */
+    public VersionedAtomicOption() {
+        this(null);
+    }
+
+    /**
+     * Constructor, if the value is not null, then it will be set,
+     * otherwise it will be set to {@link Option#NONE}. The version starts at 0.
+     *
+     * @param value Value to be set
+     */
+    public VersionedAtomicOption(@Nullable final T value) {
+        mCurrent = new AtomicReference<Stamped<T>>(new Stamped<T>(ofObj(value), 0));
+    }
+
+    /**
+     * Current value.
+     *
+     * @return Current option
+     */
+    @NotNull
+    public Option<T> get() {
+        return mCurrent.get().mOption;
+    }
+
+    /**
+     * Current version, increased by every write.
+     *
+     * @return Current version
+     */
+    public long getVersion() {
+        return mCurrent.get().mVersion;
+    }
+
+    /**
+     * Reads the value together with the version it was written at.
+     * <p/>
+     * When reading several holders that should be consistent with each other, read all of them
+     * first and then {@link #validate(long)} every stamp. If any of them fails, read again.
+     *
+     * @return Current value and version
+     */
+    @NotNull
+    public Stamped<T> readStamped() {
+        return mCurrent.get();
+    }
+
+    /**
+     * Indicates if there was no write since @stamp was read.
+     *
+     * @param stamp Version returned by {@link Stamped#getVersion()} or {@link #getVersion()}
+     * @return true if the version did not change, otherwise false
+     */
+    public boolean validate(final long stamp) {
+        return mCurrent.get().mVersion == stamp;
+    }
+
+    /**
+     * Replaces the value.
+     *
+     * @param option New option
+     * @return Version of the write
+     */
+    public long set(@NotNull final Option<T> option) {
+        while (true) {
+            final Stamped<T> current = mCurrent.get();
+            final Stamped<T> next = new Stamped<T>(option, current.mVersion + 1);
+            if (mCurrent.compareAndSet(current, next)) {
+                return next.mVersion;
+            }
+        }
+    }
+
+    /**
+     * Replaces the value only if no other write happened since @expectedVersion.
+     *
+     * @param expectedVersion Version the update is based on
+     * @param option          New option
+     * @return true if the value was replaced, otherwise false
+     */
+    public boolean compareAndSet(final long expectedVersion, @NotNull final Option<T> option) {
+        final Stamped<T> current = mCurrent.get();
+        return current.mVersion == expectedVersion
+               && mCurrent.compareAndSet(current, new Stamped<T>(option, expectedVersion + 1));
+    }
+
+    /**
+     * Atomically sets the value to None returns the old value.
+     *
+     * @return the previous value
+     */
+    @NotNull
+    public Option<T> getAndClear() {
+        while (true) {
+            final Stamped<T> current = mCurrent.get();
+            if (mCurrent.compareAndSet(current,
+                                       new Stamped<T>(Option.<T>none(), current.mVersion + 1))) {
+                return current.mOption;
+            }
+        }
+    }
+
+    /**
+     * Replaces the previous value if it was {@link Option#NONE}.
+     *
+     * @param value Value to replace {@link Option#NONE}
+     * @return True if the value was replaces, otherwise false
+     */
+    public boolean setIfNone(@Nullable final T value) {
+        final Option<T> option = ofObj(value);
+        while (true) {
+            final Stamped<T> current = mCurrent.get();
+            if (current.mOption.isSome()) {
+                return false;
+            }
+            if (mCurrent.compareAndSet(current, new Stamped<T>(option, current.mVersion + 1))) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return mCurrent.get().toString();
+    }
+
+    /**
+     * Immutable value of {@link VersionedAtomicOption} together with the version it was written
+     * at.
+     *
+     * @param <T> Inner type of Option
+     */
+    public static final class Stamped<T> {
+
+        @NotNull
+        final Option<T> mOption;
+
+        final long mVersion;
+
+        Stamped(@NotNull final Option<T> option, final long version) {
+            mOption = option;
+            mVersion = version;
+        }
+
+        @NotNull
+        public Option<T> getOption() {
+            return mOption;
+        }
+
+        public long getVersion() {
+            return mVersion;
+        }
+
+        @Override
+        public String toString() {
+            return mOption + "@" + mVersion;
+        }
+    }
+}
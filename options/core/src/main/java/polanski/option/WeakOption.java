@@ -0,0 +1,31 @@
+package polanski.option;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Option holding its value through a {@link WeakReference}, so it is reclaimed by the next
+ * garbage collection once nothing else holds it. Suitable for sharing values that are owned
+ * elsewhere, without prolonging their life.
+ *
+ * @param <T> Type of the value
+ */
+public final class WeakOption<T> extends ReferenceOption<T> {
+
+    /**
+     * Constructor, the holder is empty.
+     */
+    public WeakOption() {
+        this(null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param value Initial value, null leaves the holder empty
+     */
+    public WeakOption(@Nullable final T value) {
+        super(false, value);
+    }
+}
@@ -0,0 +1,155 @@
+package polanski.option
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import polanski.option.Option.NONE
+import polanski.option.Option.none
+import polanski.option.Option.ofObj
+import polanski.option.function.Func1
+import polanski.option.function.Func2
+import polanski.option.function.Func3
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicBoolean
+import kotlin.concurrent.thread
+
+class AtomicOptionGroupTest {
+
+    private val group = AtomicOptionGroup()
+
+    private val primary = group.newSlot<String>()
+
+    private val fallback = group.newSlot<String>()
+
+    private val token = group.newSlot<Int>()
+
+    @Test
+    fun slots_areNoneByDefault() {
+        assertThat(group.get(primary)).isEqualTo(NONE)
+        assertThat(group.snapshot().get(token)).isEqualTo(NONE)
+    }
+
+    @Test
+    fun set_replacesOnlyGivenSlot() {
+        group.set(primary, ofObj("a"))
+        group.set(fallback, ofObj("b"))
+
+        assertThat(group.get(primary)).isEqualTo(ofObj("a"))
+        assertThat(group.get(fallback)).isEqualTo(ofObj("b"))
+        assertThat(group.get(token)).isEqualTo(NONE)
+    }
+
+    @Test
+    fun with_doesNotChangeOriginalSnapshot() {
+        val snapshot = group.snapshot()
+
+        val changed = snapshot.with(primary, ofObj("a"))
+
+        assertThat(snapshot.get(primary)).isEqualTo(NONE)
+        assertThat(changed.get(primary)).isEqualTo(ofObj("a"))
+        assertThat(changed.version).isGreaterThan(snapshot.version)
+    }
+
+    @Test
+    fun compareAndSet_whenSnapshotCurrent_replacesAllSlots() {
+        val current = group.snapshot()
+
+        val updated = group.compareAndSet(current,
+                                          current.with(primary, ofObj("a")).with(token, ofObj(1)))
+
+        assertThat(updated).isTrue()
+        assertThat(group.get(primary)).isEqualTo(ofObj("a"))
+        assertThat(group.get(token)).isEqualTo(ofObj(1))
+    }
+
+    @Test
+    fun compareAndSet_whenSnapshotStale_fails() {
+        val stale = group.snapshot()
+        group.set(fallback, ofObj("b"))
+
+        assertThat(group.compareAndSet(stale, stale.with(primary, ofObj("a")))).isFalse()
+        assertThat(group.get(primary)).isEqualTo(NONE)
+    }
+
+    @Test
+    fun compareAndSet_whenValuesRestored_stillFails() {
+        val stale = group.snapshot()
+        group.set(primary, ofObj("a"))
+        group.set(primary, none())
+
+        assertThat(group.compareAndSet(stale, stale.with(token, ofObj(1)))).isFalse()
+    }
+
+    @Test
+    fun update_appliesFunctionToCurrentSnapshot() {
+        group.set(primary, ofObj("a"))
+
+        group.update(Func1 { it.with(fallback, it.get(primary)).with(primary, none()) })
+
+        assertThat(group.get(primary)).isEqualTo(NONE)
+        assertThat(group.get(fallback)).isEqualTo(ofObj("a"))
+    }
+
+    @Test
+    fun lift_combinesSlotsOfSnapshot() {
+        group.set(primary, ofObj("host"))
+        group.set(token, ofObj(8080))
+
+        val snapshot = group.snapshot()
+
+        assertThat(snapshot.lift(primary, token, Func2<String, Int, String> { h, p -> "$h:$p" }))
+                .isEqualTo(ofObj("host:8080"))
+        assertThat(snapshot.lift(primary, fallback, token,
+                                 Func3<String, String, Int, String> { a, b, c -> "$a$b$c" }))
+                .isEqualTo(NONE)
+    }
+
+    @Test
+    fun newSlot_afterWrites_isNone() {
+        group.set(primary, ofObj("a"))
+
+        val late = group.newSlot<String>()
+
+        assertThat(group.get(late)).isEqualTo(NONE)
+        assertThat(group.set(late, ofObj("late")).get(late)).isEqualTo(ofObj("late"))
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun get_whenSlotOfAnotherGroup_throws() {
+        group.get(AtomicOptionGroup().newSlot<String>())
+    }
+
+    @Test
+    fun readers_alwaysSeeConsistentSlots() {
+        val left = group.newSlot<Int>()
+        val right = group.newSlot<Int>()
+        group.update(Func1 { it.with(left, ofObj(0)).with(right, ofObj(100)) })
+        val start = CountDownLatch(1)
+        val inconsistent = AtomicBoolean()
+        val writers = (1..2).map {
+            thread {
+                start.await()
+                for (i in 1..5000) {
+                    group.update(Func1 {
+                        it.with(left, it.get(left).map { it + 1 }).with(right, it.get(right).map { it - 1 })
+                    })
+                }
+            }
+        }
+        val reader = thread {
+            start.await()
+            while (writers.any { it.isAlive }) {
+                val sum = group.snapshot().lift(left, right, Func2<Int, Int, Int> { l, r -> l + r })
+                if (sum != ofObj(100)) {
+                    inconsistent.set(true)
+                }
+            }
+        }
+
+        start.countDown()
+        writers.forEach { it.join() }
+        reader.join()
+
+        assertThat(inconsistent.get()).isFalse()
+        assertThat(group.get(left)).isEqualTo(ofObj(10000))
+    }
+}
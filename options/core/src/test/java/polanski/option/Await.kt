@@ -0,0 +1,15 @@
+package polanski.option
+
+/**
+ * Polls @condition until it holds, sleeping between the polls, and fails the test when it does
+ * not hold within @timeoutMillis.
+ */
+fun waitFor(timeoutMillis: Long = 5000, condition: () -> Boolean) {
+    val deadline = System.currentTimeMillis() + timeoutMillis
+    while (!condition()) {
+        if (System.currentTimeMillis() > deadline) {
+            throw AssertionError("Condition not met within $timeoutMillis ms")
+        }
+        Thread.sleep(5)
+    }
+}
@@ -0,0 +1,121 @@
+package polanski.option
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import polanski.option.function.Func1
+import java.util.concurrent.CountDownLatch
+import kotlin.concurrent.thread
+
+class BloomFilterTest {
+
+    @Test
+    fun mightContain_whenEmpty_isFalse() {
+        val filter = BloomFilter<String>(100, 0.01)
+
+        assertThat(filter.mightContain("key")).isFalse()
+    }
+
+    @Test
+    fun mightContain_afterPut_isTrue() {
+        val filter = BloomFilter<String>(100, 0.01)
+
+        filter.put("key")
+
+        assertThat(filter.mightContain("key")).isTrue()
+    }
+
+    @Test
+    fun put_returnsWhetherFilterChanged() {
+        val filter = BloomFilter<String>(100, 0.01)
+
+        assertThat(filter.put("key")).isTrue()
+        assertThat(filter.put("key")).isFalse()
+    }
+
+    @Test
+    fun sizing_followsExpectedInsertionsAndRate() {
+        val filter = BloomFilter<Int>(1000, 0.01)
+
+        // About 9.6 bits and 7 hashes per key for a 1% false positive rate
+        assertThat(filter.bitCount()).isBetween(9585L, 9585L + 64)
+        assertThat(filter.hashCount()).isEqualTo(7)
+    }
+
+    @Test
+    fun falsePositiveRate_staysNearTarget() {
+        val filter = BloomFilter<Int>(10000, 0.01)
+        for (i in 0..9999) {
+            filter.put(i)
+        }
+
+        val falsePositives = (10000..109999).count { filter.mightContain(it) }
+
+        assertThat(falsePositives).isLessThan(2000)
+    }
+
+    @Test
+    fun noFalseNegatives_whenAddedFromManyThreads() {
+        val filter = BloomFilter<Int>(40000, 0.01)
+        val start = CountDownLatch(1)
+        val threads = (0..3).map { t ->
+            thread {
+                start.await()
+                for (i in 0..9999) {
+                    filter.put(t * 10000 + i)
+                }
+            }
+        }
+
+        start.countDown()
+        threads.forEach { it.join() }
+
+        assertThat((0..39999).all { filter.mightContain(it) }).isTrue()
+    }
+
+    @Test
+    fun sizing_withHashCodes_isLimitedByHashCodeCollisions() {
+        val floor = 1000 / 4294967296.0
+
+        val filter = BloomFilter<Int>(1000, 1e-12)
+
+        assertThat(filter.bitCount()).isEqualTo(BloomFilter<Int>(1000, floor).bitCount())
+        assertThat(BloomFilter.strings(1000, 1e-12).bitCount()).isGreaterThan(filter.bitCount())
+    }
+
+    @Test
+    fun strings_tellApartKeysWithCollidingHashCodes() {
+        val filter = BloomFilter.strings(1000, 1e-6)
+        // "Aa" and "BB" have the same String.hashCode()
+        filter.put("Aa")
+
+        assertThat(filter.mightContain("BB")).isFalse()
+    }
+
+    @Test
+    fun longs_tellApartKeysWithCollidingHashCodes() {
+        val filter = BloomFilter.longs(1000, 1e-6)
+        // Long.hashCode() xors the halves, so both are 0
+        filter.put(0L)
+
+        assertThat(filter.mightContain(0x100000001L)).isFalse()
+    }
+
+    @Test
+    fun customHash_isUsed() {
+        val filter = BloomFilter<String>(100, 0.01, Func1<String, Long> { it.length.toLong() })
+        filter.put("abc")
+
+        assertThat(filter.mightContain("xyz")).isTrue()
+        assertThat(filter.mightContain("abcd")).isFalse()
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun constructor_whenRateInvalid_throws() {
+        BloomFilter<String>(100, 1.0)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun constructor_whenInsertionsInvalid_throws() {
+        BloomFilter<String>(0, 0.01)
+    }
+}
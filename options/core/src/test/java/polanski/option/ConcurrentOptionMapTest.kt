@@ -0,0 +1,72 @@
+package polanski.option
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import polanski.option.Option.NONE
+import polanski.option.Option.ofObj
+
+class ConcurrentOptionMapTest {
+
+    @Test
+    fun get_whenKeyMissing_returnsNone() {
+        assertThat(ConcurrentOptionMap<String, String>().get("key")).isEqualTo(NONE)
+    }
+
+    @Test
+    fun get_returnsSameInstance() {
+        val map = ConcurrentOptionMap<String, String>()
+        map.put("key", ofObj("value"))
+
+        assertThat(map.get("key")).isEqualTo(ofObj("value"))
+        assertThat(map.get("key")).isSameAs(map.get("key"))
+    }
+
+    @Test
+    fun put_whenNone_removesKey() {
+        val map = ConcurrentOptionMap<String, String>()
+        map.put("key", ofObj("value"))
+
+        assertThat(map.put("key", Option.none())).isEqualTo(ofObj("value"))
+        assertThat(map.containsKey("key")).isFalse()
+    }
+
+    @Test
+    fun getOrDefault_whenKeyMissing_returnsDefault() {
+        assertThat(ConcurrentOptionMap<String, String>().getOrDefault("key") { "default" })
+                .isEqualTo("default")
+    }
+
+    @Test
+    fun computeIfNone_whenKeyMissing_storesComputedValue() {
+        val map = ConcurrentOptionMap<String, Int>()
+
+        assertThat(map.computeIfNone("key") { it.length }).isEqualTo(ofObj(3))
+        assertThat(map.get("key")).isEqualTo(ofObj(3))
+    }
+
+    @Test
+    fun computeIfNone_whenKeyExists_returnsStoredInstance() {
+        val map = ConcurrentOptionMap<String, Int>()
+        val stored = ofObj(1)
+        map.put("key", stored)
+
+        assertThat(map.computeIfNone("key") { 2 }).isSameAs(stored)
+    }
+
+    @Test
+    fun computeIfNone_whenComputedNull_storesNothing() {
+        val map = ConcurrentOptionMap<String, String?>()
+
+        assertThat(map.computeIfNone("key") { null }).isEqualTo(NONE)
+        assertThat(map.isEmpty).isTrue()
+    }
+
+    @Test
+    fun remove_returnsRemovedValue() {
+        val map = ConcurrentOptionMap<String, String>()
+        map.put("key", ofObj("value"))
+
+        assertThat(map.remove("key")).isEqualTo(ofObj("value"))
+        assertThat(map.remove("key")).isEqualTo(NONE)
+    }
+}
@@ -0,0 +1,118 @@
+package polanski.option
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.After
+import org.junit.Test
+import polanski.option.Option.NONE
+import polanski.option.Option.ofObj
+import polanski.option.function.Action0
+import polanski.option.function.Func0
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.FutureTask
+import java.util.concurrent.TimeUnit.SECONDS
+
+class ContextOptionTest {
+
+    private val tenant = ContextOption<String>()
+
+    private val trace = ContextOption<Long>()
+
+    private val executor = Executors.newSingleThreadExecutor()
+
+    @After
+    fun tearDown() {
+        executor.shutdownNow()
+    }
+
+    @Test
+    fun get_outsideOfBlock_isNone() {
+        assertThat(tenant.get()).isEqualTo(NONE)
+    }
+
+    @Test
+    fun runWith_bindsValueForBlock() {
+        var seen = Option.none<String>()
+
+        tenant.runWith(ofObj("acme"), Action0 { seen = tenant.get() })
+
+        assertThat(seen).isEqualTo(ofObj("acme"))
+        assertThat(tenant.get()).isEqualTo(NONE)
+    }
+
+    @Test
+    fun runWith_bindsGivenOptionInstance() {
+        val option = ofObj("acme")
+
+        tenant.runWith(option, Action0 { assertThat(tenant.get()).isSameAs(option) })
+    }
+
+    @Test
+    fun runWith_nested_restoresPreviousValue() {
+        val seen = mutableListOf<Option<String>>()
+
+        tenant.runWith(ofObj("outer"), Action0 {
+            tenant.runWith(ofObj("inner"), Action0 { seen.add(tenant.get()) })
+            seen.add(tenant.get())
+        })
+
+        assertThat(seen).containsExactly(ofObj("inner"), ofObj("outer"))
+    }
+
+    @Test
+    fun runWith_whenActionThrows_restoresPreviousValue() {
+        try {
+            tenant.runWith(ofObj("acme"), Action0 { throw IllegalStateException() })
+        } catch (e: IllegalStateException) {
+        }
+
+        assertThat(tenant.get()).isEqualTo(NONE)
+    }
+
+    @Test
+    fun callWith_returnsResult() {
+        val result = tenant.callWith(ofObj("acme"), Func0 { tenant.get().orDefault { "" } + "!" })
+
+        assertThat(result).isEqualTo("acme!")
+    }
+
+    @Test
+    fun wrap_runnable_propagatesCapturedValue() {
+        val task = FutureTask(Callable { tenant.get() })
+
+        tenant.runWith(ofObj("acme"), Action0 { executor.execute(tenant.wrap(task)) })
+
+        assertThat(task.get(5, SECONDS)).isEqualTo(ofObj("acme"))
+    }
+
+    @Test
+    fun wrap_callable_propagatesCapturedValue() {
+        var future: Future<Option<String>>? = null
+
+        tenant.runWith(ofObj("acme"), Action0 {
+            future = executor.submit(tenant.wrap(Callable { tenant.get() }))
+        })
+
+        assertThat(future!!.get(5, SECONDS)).isEqualTo(ofObj("acme"))
+    }
+
+    @Test
+    fun wrap_doesNotLeakValueToExecutorThread() {
+        tenant.runWith(ofObj("acme"), Action0 { executor.submit(tenant.wrap(Runnable { })).get() })
+
+        assertThat(executor.submit(Callable { tenant.get() }).get()).isEqualTo(NONE)
+    }
+
+    @Test
+    fun propagating_propagatesAllContexts() {
+        val propagating = ContextOption.propagating(executor, tenant, trace)
+        val task = FutureTask(Callable { tenant.get() to trace.get() })
+
+        tenant.runWith(ofObj("acme"), Action0 {
+            trace.runWith(ofObj(42L), Action0 { propagating.execute(task) })
+        })
+
+        assertThat(task.get(5, SECONDS)).isEqualTo(ofObj("acme") to ofObj(42L))
+    }
+}
@@ -0,0 +1,189 @@
+package polanski.option
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import polanski.option.Option.NONE
+import polanski.option.Option.ofObj
+import polanski.option.function.Func1
+import polanski.option.function.Func2
+import polanski.option.function.Func3
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.concurrent.thread
+
+class DerivedOptionCellTest {
+
+    private val computations = AtomicInteger()
+
+    private val a = OptionCell(1)
+
+    private val b = OptionCell(2)
+
+    private val sum = a.lift(b, Func2<Int, Int, Int> { x, y ->
+        computations.incrementAndGet()
+        x + y
+    })
+
+    @Test
+    fun get_computesFromInputs() {
+        assertThat(sum.get()).isEqualTo(ofObj(3))
+    }
+
+    @Test
+    fun get_isComputedLazily() {
+        assertThat(computations.get()).isEqualTo(0)
+
+        sum.get()
+
+        assertThat(computations.get()).isEqualTo(1)
+    }
+
+    @Test
+    fun get_withoutChanges_isMemoized() {
+        sum.get()
+        sum.get()
+        OptionCell("unrelated").set(ofObj("changed"))
+        sum.get()
+
+        assertThat(computations.get()).isEqualTo(1)
+    }
+
+    @Test
+    fun unrelatedGraph_changes_doNotAdvanceEpoch() {
+        sum.get()
+        val epoch = sum.epoch().count()
+
+        OptionCell("unrelated").set(ofObj("changed"))
+
+        assertThat(sum.epoch().count()).isEqualTo(epoch)
+    }
+
+    @Test
+    fun mergedGraphs_keepRecomputingOnChanges() {
+        val c = OptionCell(100)
+        val doubled = c.map(Func1<Int, Int> { it * 2 })
+        assertThat(sum.get()).isEqualTo(ofObj(3))
+        assertThat(doubled.get()).isEqualTo(ofObj(200))
+
+        val total = sum.lift(doubled, Func2<Int, Int, Int> { x, y -> x + y })
+        assertThat(total.get()).isEqualTo(ofObj(203))
+        c.set(ofObj(50))
+        a.set(ofObj(10))
+
+        assertThat(doubled.get()).isEqualTo(ofObj(100))
+        assertThat(sum.get()).isEqualTo(ofObj(12))
+        assertThat(total.get()).isEqualTo(ofObj(112))
+        assertThat(c.epoch()).isSameAs(a.epoch())
+    }
+
+    @Test
+    fun get_afterInputChange_recomputes() {
+        sum.get()
+
+        a.set(ofObj(10))
+
+        assertThat(sum.get()).isEqualTo(ofObj(12))
+        assertThat(computations.get()).isEqualTo(2)
+    }
+
+    @Test
+    fun get_whenInputSetToEqualValue_doesNotRecompute() {
+        sum.get()
+
+        a.set(ofObj(1))
+        sum.get()
+
+        assertThat(computations.get()).isEqualTo(1)
+    }
+
+    @Test
+    fun get_whenInputIsNone_isNone() {
+        b.clear()
+
+        assertThat(sum.get()).isEqualTo(NONE)
+    }
+
+    @Test
+    fun unchangedDerivedValue_doesNotPropagate() {
+        val parity = a.map(Func1<Int, Boolean> { it % 2 == 0 })
+        val downstream = AtomicInteger()
+        val label = parity.map(Func1<Boolean, String> {
+            downstream.incrementAndGet()
+            if (it) "even" else "odd"
+        })
+        label.get()
+        val version = parity.version
+
+        a.set(ofObj(3))
+
+        assertThat(label.get()).isEqualTo(ofObj("odd"))
+        assertThat(parity.version).isEqualTo(version)
+        assertThat(downstream.get()).isEqualTo(1)
+    }
+
+    @Test
+    fun unchangedDerivedValue_keepsOptionInstance() {
+        val parity = a.map(Func1<Int, Boolean> { it % 2 == 0 })
+        val before = parity.get()
+
+        a.set(ofObj(3))
+
+        assertThat(parity.get()).isSameAs(before)
+    }
+
+    @Test
+    fun flatMap_canProduceNone() {
+        val positive = a.flatMap(Func1<Int, Option<Int>> { if (it > 0) ofObj(it) else Option.none() })
+
+        a.set(ofObj(-1))
+
+        assertThat(positive.get()).isEqualTo(NONE)
+    }
+
+    @Test
+    fun lift_threeCells() {
+        val c = OptionCell(3)
+        val total = a.lift(b, c, Func3<Int, Int, Int, Int> { x, y, z -> x + y + z })
+
+        c.set(ofObj(30))
+
+        assertThat(total.get()).isEqualTo(ofObj(33))
+    }
+
+    @Test
+    fun diamond_recomputesOnce() {
+        val left = a.map(Func1<Int, Int> { it + 1 })
+        val right = a.map(Func1<Int, Int> { it * 2 })
+        val joined = left.lift(right, Func2<Int, Int, Int> { x, y ->
+            computations.incrementAndGet()
+            x + y
+        })
+        joined.get()
+
+        a.set(ofObj(5))
+
+        assertThat(joined.get()).isEqualTo(ofObj(16))
+        assertThat(computations.get()).isEqualTo(2)
+    }
+
+    @Test
+    fun concurrentReads_seeLatestValue() {
+        val start = CountDownLatch(1)
+        val readers = (0..3).map {
+            thread {
+                start.await()
+                for (i in 0..9999) {
+                    sum.get()
+                }
+            }
+        }
+
+        start.countDown()
+        for (i in 0..999) {
+            a.set(ofObj(i))
+        }
+        readers.forEach { it.join() }
+
+        assertThat(sum.get()).isEqualTo(ofObj(999 + 2))
+    }
+}
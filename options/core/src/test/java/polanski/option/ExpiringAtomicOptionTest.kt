@@ -0,0 +1,219 @@
+package polanski.option
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import polanski.option.Option.NONE
+import polanski.option.Option.ofObj
+import polanski.option.function.Action1
+import polanski.option.function.Func0
+import java.util.concurrent.Executor
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.TimeUnit.HOURS
+import java.util.concurrent.TimeUnit.MILLISECONDS
+import java.util.concurrent.atomic.AtomicInteger
+
+class ExpiringAtomicOptionTest {
+
+    private val clock = CoarseClock()
+
+    private val direct = Executor { it.run() }
+
+    private fun <T> expiring(ttl: Long, unit: TimeUnit) =
+            ExpiringAtomicOption<T>(ttl, unit, null, 0, null, clock)
+
+    private fun <T> loading(ttl: Long, unit: TimeUnit, refreshAhead: Long, load: () -> Option<T>) =
+            ExpiringAtomicOption<T>(ttl, unit, Func0 { load() }, refreshAhead, direct, clock)
+
+    @Test
+    fun get_whenEmpty_isNone() {
+        assertThat(ExpiringAtomicOption<String>(1, HOURS).get()).isEqualTo(NONE)
+    }
+
+    @Test
+    fun get_beforeDeadline_isSome() {
+        val option = ExpiringAtomicOption<String>(1, HOURS)
+
+        option.set(ofObj("token"))
+
+        assertThat(option.get()).isEqualTo(ofObj("token"))
+    }
+
+    @Test
+    fun get_afterDeadline_isNone() {
+        val option = expiring<String>(20, MILLISECONDS)
+        option.set(ofObj("token"))
+
+        clock.advanceTo(20)
+
+        assertThat(option.get()).isEqualTo(NONE)
+    }
+
+    @Test
+    fun set_restartsTimeToLive() {
+        val option = expiring<String>(20, MILLISECONDS)
+        option.set(ofObj("old"))
+        clock.advanceTo(15)
+
+        option.set(ofObj("new"))
+        clock.advanceTo(30)
+
+        assertThat(option.get()).isEqualTo(ofObj("new"))
+    }
+
+    @Test
+    fun getAndClear_returnsPreviousValue() {
+        val option = expiring<String>(1, HOURS)
+        option.set(ofObj("token"))
+
+        assertThat(option.getAndClear()).isEqualTo(ofObj("token"))
+        assertThat(option.get()).isEqualTo(NONE)
+    }
+
+    @Test
+    fun onExpired_isCalledWithExpiredValue() {
+        val option = expiring<String>(20, MILLISECONDS)
+        val expired = mutableListOf<Option<String>>()
+        option.onExpired(Action1 { expired.add(it) }, direct)
+        option.set(ofObj("token"))
+
+        clock.advanceTo(19)
+        assertThat(expired).isEmpty()
+        clock.advanceTo(20)
+
+        assertThat(expired).containsExactly(ofObj("token"))
+    }
+
+    @Test
+    fun onExpired_whenReplaced_isCalledOnlyForLastValue() {
+        val option = expiring<String>(30, MILLISECONDS)
+        val expired = mutableListOf<Option<String>>()
+        option.onExpired(Action1 { expired.add(it) }, direct)
+
+        option.set(ofObj("first"))
+        clock.advanceTo(10)
+        option.set(ofObj("second"))
+        clock.advanceTo(100)
+
+        assertThat(expired).containsExactly(ofObj("second"))
+    }
+
+    @Test
+    fun onExpired_whenCleared_isNotCalled() {
+        val option = expiring<String>(10, MILLISECONDS)
+        val expired = mutableListOf<Option<String>>()
+        option.onExpired(Action1 { expired.add(it) }, direct)
+
+        option.set(ofObj("token"))
+        option.clear()
+        clock.advanceTo(100)
+
+        assertThat(expired).isEmpty()
+    }
+
+    @Test
+    fun onExpired_whenClearedAndSetAgain_isCalledForNewValue() {
+        val option = expiring<String>(10, MILLISECONDS)
+        val expired = mutableListOf<Option<String>>()
+        option.onExpired(Action1 { expired.add(it) }, direct)
+        option.set(ofObj("first"))
+        option.clear()
+        clock.advanceTo(10)
+
+        option.set(ofObj("second"))
+        clock.advanceTo(20)
+
+        assertThat(expired).containsExactly(ofObj("second"))
+    }
+
+    @Test
+    fun set_manyTimes_keepsSingleTaskOnWheel() {
+        val option = expiring<String>(1, HOURS)
+        option.onExpired(Action1 { }, direct)
+
+        for (i in 1..1000L) {
+            option.set(ofObj("token$i"))
+            clock.advanceTo(i)
+        }
+
+        assertThat(clock.scheduled()).isEqualTo(1)
+    }
+
+    @Test
+    fun onExpired_whenExecutorRejects_notifiesOtherListeners() {
+        val option = expiring<String>(10, MILLISECONDS)
+        val expired = mutableListOf<Option<String>>()
+        val rejecting = Executor { throw RejectedExecutionException() }
+        option.onExpired(Action1 { expired.add(it) }, rejecting)
+        option.onExpired(Action1 { expired.add(it) }, direct)
+        option.set(ofObj("token"))
+
+        clock.advanceTo(10)
+
+        assertThat(expired).containsExactly(ofObj("token"))
+    }
+
+    @Test
+    fun onExpired_runsOnGivenExecutor() {
+        val option = expiring<String>(10, MILLISECONDS)
+        val submitted = mutableListOf<Runnable>()
+        val expired = mutableListOf<Option<String>>()
+        option.onExpired(Action1 { expired.add(it) }, Executor { submitted.add(it) })
+        option.set(ofObj("token"))
+
+        clock.advanceTo(10)
+        assertThat(expired).isEmpty()
+        submitted.forEach { it.run() }
+
+        assertThat(expired).containsExactly(ofObj("token"))
+    }
+
+    @Test
+    fun loader_whenEmpty_loadsOnRead() {
+        val option = loading(1, HOURS, 0) { ofObj("loaded") }
+
+        option.get()
+
+        assertThat(option.get()).isEqualTo(ofObj("loaded"))
+    }
+
+    @Test
+    fun loader_beforeRefreshAhead_doesNotLoad() {
+        val loads = AtomicInteger()
+        val option = loading(2, HOURS, 1) { loads.incrementAndGet(); ofObj("loaded") }
+        option.set(ofObj("token"))
+
+        option.get()
+
+        assertThat(loads.get()).isEqualTo(0)
+    }
+
+    @Test
+    fun loader_withinRefreshAhead_replacesValueBeforeExpiry() {
+        val loads = AtomicInteger()
+        val option = loading(200, MILLISECONDS, 50) { ofObj("loaded" + loads.incrementAndGet()) }
+        option.set(ofObj("token"))
+        clock.advanceTo(149)
+        assertThat(option.get()).isEqualTo(ofObj("token"))
+
+        clock.advanceTo(150)
+        option.get()
+
+        assertThat(option.get()).isEqualTo(ofObj("loaded1"))
+        assertThat(loads.get()).isEqualTo(1)
+    }
+
+    @Test
+    fun loader_whenReturnsNone_isNotRetriedUntilRefreshAheadPassed() {
+        val loads = AtomicInteger()
+        val option = loading(1, HOURS, 10) { loads.incrementAndGet(); Option.none<String>() }
+
+        option.get()
+        option.get()
+        assertThat(loads.get()).isEqualTo(1)
+        clock.advanceTo(HOURS.toMillis(10))
+        option.get()
+
+        assertThat(loads.get()).isEqualTo(2)
+    }
+}
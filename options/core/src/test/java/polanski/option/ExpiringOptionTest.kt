@@ -0,0 +1,84 @@
+package polanski.option
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import polanski.option.Option.NONE
+import polanski.option.Option.ofObj
+import java.util.concurrent.TimeUnit.HOURS
+import java.util.concurrent.TimeUnit.MILLISECONDS
+
+class ExpiringOptionTest {
+
+    private val clock = CoarseClock()
+
+    @Test
+    fun get_beforeDeadline_isSome() {
+        val option = ExpiringOption.ofObj("token", 1, HOURS)
+
+        assertThat(option.get()).isEqualTo(ofObj("token"))
+        assertThat(option.isExpired).isFalse()
+    }
+
+    @Test
+    fun get_untilDeadline_isSome() {
+        val option = ExpiringOption.of(ofObj("token"), 20, MILLISECONDS, clock)
+
+        clock.advanceTo(19)
+
+        assertThat(option.get()).isEqualTo(ofObj("token"))
+    }
+
+    @Test
+    fun get_afterDeadline_isNone() {
+        val option = ExpiringOption.of(ofObj("token"), 20, MILLISECONDS, clock)
+
+        clock.advanceTo(20)
+
+        assertThat(option.isExpired).isTrue()
+        assertThat(option.get()).isEqualTo(NONE)
+        assertThat(option.getIgnoringExpiry()).isEqualTo(ofObj("token"))
+    }
+
+    @Test
+    fun get_returnsGivenOptionInstance() {
+        val some = ofObj("token")
+
+        assertThat(ExpiringOption.of(some, 1, HOURS).get()).isSameAs(some)
+    }
+
+    @Test
+    fun ofObj_null_isEmpty() {
+        val option = ExpiringOption.ofObj<String>(null, 1, HOURS)
+
+        assertThat(option).isSameAs(ExpiringOption.empty<String>())
+        assertThat(option.get()).isEqualTo(NONE)
+        assertThat(option.isExpired).isFalse()
+    }
+
+    @Test
+    fun of_hugeTtl_doesNotOverflow() {
+        val option = ExpiringOption.of(ofObj("token"), Long.MAX_VALUE, MILLISECONDS, clock)
+
+        clock.advanceTo(HOURS.toMillis(1))
+
+        assertThat(option.get()).isEqualTo(ofObj("token"))
+    }
+
+    @Test
+    fun remaining_countsDownWithClock() {
+        val option = ExpiringOption.of(ofObj("token"), 1, HOURS, clock)
+
+        clock.advanceTo(1000)
+
+        assertThat(option.remaining(MILLISECONDS)).isEqualTo(HOURS.toMillis(1) - 1000)
+    }
+
+    @Test
+    fun remaining_afterDeadline_isZero() {
+        val option = ExpiringOption.of(ofObj("token"), 1, MILLISECONDS, clock)
+
+        clock.advanceTo(5)
+
+        assertThat(option.remaining(MILLISECONDS)).isEqualTo(0)
+    }
+}
@@ -0,0 +1,107 @@
+package polanski.option
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import polanski.option.Option.NONE
+import polanski.option.Option.ofObj
+
+class MutableOptionTest {
+
+    @Test
+    fun isNone_byDefault() {
+        val option = MutableOption<String>()
+
+        assertThat(option.isNone).isTrue()
+        assertThat(option.isSome).isFalse()
+    }
+
+    @Test
+    fun setValue_holdsValue() {
+        val option = MutableOption<String>().setValue("value")
+
+        assertThat(option.isSome).isTrue()
+        assertThat(option.unsafe).isEqualTo("value")
+    }
+
+    @Test
+    fun setValue_whenNull_emptiesHolder() {
+        val option = MutableOption<String>().setValue("value")
+
+        option.setValue(null)
+
+        assertThat(option.isNone).isTrue()
+    }
+
+    @Test
+    fun setOption_takesValueOfOption() {
+        val option = MutableOption<String>()
+
+        assertThat(option.set(ofObj("value")).unsafe).isEqualTo("value")
+        assertThat(option.set(Option.none<String>()).isNone).isTrue()
+    }
+
+    @Test
+    fun clear_emptiesHolder() {
+        assertThat(MutableOption<String>().setValue("value").clear().isNone).isTrue()
+    }
+
+    @Test(expected = IllegalStateException::class)
+    fun getUnsafe_whenNone_throwsException() {
+        MutableOption<String>().unsafe
+    }
+
+    @Test
+    fun orDefault_returnsValueOrDefault() {
+        assertThat(MutableOption<String>().setValue("value").orDefault { "default" }).isEqualTo("value")
+        assertThat(MutableOption<String>().orDefault { "default" }).isEqualTo("default")
+    }
+
+    @Test
+    fun map_writesConvertedValueToTarget() {
+        val target = MutableOption<Int>()
+
+        val result = MutableOption<String>().setValue("abc").map({ it.length }, target)
+
+        assertThat(result).isSameAs(target)
+        assertThat(target.unsafe).isEqualTo(3)
+    }
+
+    @Test
+    fun map_whenNone_emptiesTarget() {
+        val target = MutableOption<Int>().setValue(1)
+
+        MutableOption<String>().map({ it.length }, target)
+
+        assertThat(target.isNone).isTrue()
+    }
+
+    @Test
+    fun toOption_snapshotsValue() {
+        val option = MutableOption<String>().setValue("value")
+
+        val snapshot = option.toOption()
+        option.setValue("other")
+
+        assertThat(snapshot).isEqualTo(ofObj("value"))
+        assertThat(MutableOption<String>().toOption()).isEqualTo(NONE)
+    }
+
+    @Test
+    fun acquire_reusesReleasedHolder() {
+        val option = MutableOption.acquire<String>().setValue("value")
+
+        MutableOption.release(option)
+        val reused = MutableOption.acquire<Int>()
+
+        assertThat(reused).isSameAs(option)
+        assertThat(reused.isNone).isTrue()
+    }
+
+    @Test
+    fun acquire_whenPoolEmpty_createsNewHolders() {
+        val first = MutableOption.acquire<String>()
+        val second = MutableOption.acquire<String>()
+
+        assertThat(first).isNotSameAs(second)
+    }
+}
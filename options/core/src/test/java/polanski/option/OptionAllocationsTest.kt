@@ -0,0 +1,91 @@
+package polanski.option
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Assume.assumeTrue
+import org.junit.Before
+import org.junit.Test
+import polanski.option.Option.none
+import polanski.option.Option.ofObj
+import polanski.option.OptionAllocations.assertAllocatesAtMost
+import polanski.option.OptionAllocations.assertDoesNotAllocate
+import polanski.option.OptionAllocations.measure
+import polanski.option.function.Action0
+import polanski.option.function.Func0
+import polanski.option.function.Func1
+
+class OptionAllocationsTest {
+
+    private val none = none<String>()
+
+    private val some = ofObj("value")
+
+    private val toLength = Func1<String, Int> { it.length }
+
+    private val isEmpty = Func1<String, Boolean> { it.isEmpty() }
+
+    private val toOption = Func1<String, Option<Int>> { ofObj(it.length) }
+
+    private val default = Func0 { "default" }
+
+    @Volatile
+    private var sink: Any? = null
+
+    private var runs = 0
+
+    @Before
+    fun setUp() {
+        assumeTrue(OptionAllocations.isSupported())
+    }
+
+    @Test
+    fun noneMap_doesNotAllocate() {
+        assertDoesNotAllocate(Action0 { sink = none.map(toLength) })
+    }
+
+    @Test
+    fun noneFilter_doesNotAllocate() {
+        assertDoesNotAllocate(Action0 { sink = none.filter(isEmpty) })
+    }
+
+    @Test
+    fun noneFlatMap_doesNotAllocate() {
+        assertDoesNotAllocate(Action0 { sink = none.flatMap(toOption) })
+    }
+
+    @Test
+    fun isSomeAndIsNone_doNotAllocate() {
+        assertDoesNotAllocate(Action0 {
+            sink = some.isSome && none.isNone && !some.isNone && !none.isSome
+        })
+    }
+
+    @Test
+    fun someOrDefault_doesNotAllocate() {
+        assertDoesNotAllocate(Action0 { sink = some.orDefault(default) })
+    }
+
+    @Test
+    fun measure_countsAllocatedBytes() {
+        assertThat(measure(Action0 { sink = ByteArray(1024) })).isGreaterThanOrEqualTo(1024)
+    }
+
+    @Test(expected = AssertionError::class)
+    fun assertAllocatesAtMost_whenAllocatingMore_fails() {
+        assertAllocatesAtMost(64, Action0 { sink = ByteArray(1024) })
+    }
+
+    @Test
+    fun assertAllocatesAtMost_whenWithinBudget_passes() {
+        assertAllocatesAtMost(2048, Action0 { sink = ByteArray(1024) })
+    }
+
+    @Test(expected = AssertionError::class)
+    fun assertDoesNotAllocate_whenAllocatingOnlyInSomeRuns_fails() {
+        assertDoesNotAllocate(Action0 { if (runs++ % 500 == 0) sink = ByteArray(16) })
+    }
+
+    @Test
+    fun measure_whenAllocatingOnlyInSomeRuns_roundsUp() {
+        assertThat(measure(Action0 { if (runs++ % 500 == 0) sink = ByteArray(16) })).isEqualTo(1)
+    }
+}
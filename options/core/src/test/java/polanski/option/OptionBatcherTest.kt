@@ -0,0 +1,193 @@
+package polanski.option
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.After
+import org.junit.Test
+import polanski.option.Option.NONE
+import polanski.option.Option.ofObj
+import polanski.option.function.Func1
+import java.util.Collections
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.ScheduledThreadPoolExecutor
+import java.util.concurrent.TimeUnit.HOURS
+import java.util.concurrent.TimeUnit.MILLISECONDS
+import java.util.concurrent.TimeUnit.SECONDS
+import kotlin.concurrent.thread
+
+class OptionBatcherTest {
+
+    private val scheduler = Executors.newScheduledThreadPool(2)
+
+    private val batches: MutableList<Collection<String>> = Collections.synchronizedList(mutableListOf())
+
+    private val loader = Func1<Collection<String>, Map<String, Int>> { keys ->
+        batches.add(keys.toList())
+        keys.filter { it != "missing" }.associate { it to it.length }
+    }
+
+    @After
+    fun tearDown() {
+        scheduler.shutdownNow()
+    }
+
+    @Test
+    fun getAsync_collectsKeysIntoSingleBatch() {
+        val batcher = OptionBatcher(loader, scheduler, 50, MILLISECONDS, 100)
+
+        val a = batcher.getAsync("a")
+        val bb = batcher.getAsync("bb")
+
+        assertThat(a.get(5, SECONDS)).isEqualTo(ofObj(1))
+        assertThat(bb.get(5, SECONDS)).isEqualTo(ofObj(2))
+        assertThat(batches).containsExactly(listOf("a", "bb"))
+    }
+
+    @Test
+    fun getAsync_deduplicatesKeys() {
+        val batcher = OptionBatcher(loader, scheduler, 50, MILLISECONDS, 100)
+
+        val first = batcher.getAsync("a")
+        val second = batcher.getAsync("a")
+
+        assertThat(second).isSameAs(first)
+        assertThat(first.get(5, SECONDS)).isEqualTo(ofObj(1))
+        assertThat(batches).containsExactly(listOf("a"))
+    }
+
+    @Test
+    fun getAsync_whenKeyMissing_completesWithNone() {
+        val batcher = OptionBatcher(loader, scheduler, 10, MILLISECONDS, 100)
+
+        assertThat(batcher.getAsync("missing").get(5, SECONDS)).isEqualTo(NONE)
+    }
+
+    @Test
+    fun getAsync_whenBatchFull_loadsWithoutWaitingForWindow() {
+        val batcher = OptionBatcher(loader, scheduler, 1, HOURS, 2)
+
+        val a = batcher.getAsync("a")
+        val b = batcher.getAsync("b")
+        val c = batcher.getAsync("c")
+
+        assertThat(a.get(5, SECONDS)).isEqualTo(ofObj(1))
+        assertThat(b.get(5, SECONDS)).isEqualTo(ofObj(1))
+        assertThat(c.isDone).isFalse()
+        assertThat(batches).containsExactly(listOf("a", "b"))
+    }
+
+    @Test
+    fun flush_loadsPendingKeysRightAway() {
+        val batcher = OptionBatcher(loader, scheduler, 1, HOURS, 100)
+        val a = batcher.getAsync("a")
+
+        batcher.flush()
+
+        assertThat(a.isDone).isTrue()
+        assertThat(a.get()).isEqualTo(ofObj(1))
+    }
+
+    @Test
+    fun getAsync_whenBatchFull_cancelsWindowTimer() {
+        val timers = ScheduledThreadPoolExecutor(1)
+        timers.removeOnCancelPolicy = true
+        val batcher = OptionBatcher(loader, timers, 1, HOURS, 2)
+
+        batcher.getAsync("a")
+        batcher.getAsync("b").get(5, SECONDS)
+
+        assertThat(timers.queue).isEmpty()
+        timers.shutdownNow()
+    }
+
+    @Test
+    fun flush_cancelsWindowTimer() {
+        val timers = ScheduledThreadPoolExecutor(1)
+        timers.removeOnCancelPolicy = true
+        val batcher = OptionBatcher(loader, timers, 1, HOURS, 100)
+        batcher.getAsync("a")
+
+        batcher.flush()
+
+        assertThat(timers.queue).isEmpty()
+        timers.shutdownNow()
+    }
+
+    @Test
+    fun get_fromManyThreads_usesFewBatches() {
+        val batcher = OptionBatcher(loader, scheduler, 100, MILLISECONDS, 1000)
+        val start = CountDownLatch(1)
+        val results = Collections.synchronizedList(mutableListOf<Option<Int>>())
+        val threads = (1..50).map { i ->
+            thread {
+                start.await()
+                results.add(batcher.get("k" + i % 10))
+            }
+        }
+
+        start.countDown()
+        threads.forEach { it.join() }
+
+        assertThat(results).hasSize(50)
+        assertThat(results.filter { it.isSome }).hasSize(50)
+        assertThat(batches.size).isLessThan(5)
+        assertThat(batches.flatten().toSet()).hasSize(10)
+    }
+
+    @Test
+    fun whenLoaderThrows_futureFailsAndGetReturnsNone() {
+        val batcher = OptionBatcher(Func1<Collection<String>, Map<String, Int>> { throw IllegalStateException() },
+                                    scheduler, 10, MILLISECONDS, 100)
+
+        val future = batcher.getAsync("a")
+
+        try {
+            future.get(5, SECONDS)
+            throw AssertionError("Expected failure")
+        } catch (e: ExecutionException) {
+            assertThat(e.cause).isInstanceOf(IllegalStateException::class.java)
+        }
+        assertThat(batcher.get("b")).isEqualTo(NONE)
+    }
+
+    @Test
+    fun whenSchedulerIsShutDown_futureFailsAndGetReturnsNone() {
+        scheduler.shutdown()
+        val batcher = OptionBatcher(loader, scheduler, 10, MILLISECONDS, 100)
+
+        assertFailsWithRejection(batcher.getAsync("a"))
+        assertThat(batcher.get("b")).isEqualTo(NONE)
+    }
+
+    @Test
+    fun whenFullBatchIsRejected_failsAllFuturesOfBatch() {
+        val rejecting = object : ScheduledThreadPoolExecutor(1) {
+            override fun execute(command: Runnable) {
+                throw RejectedExecutionException()
+            }
+        }
+        try {
+            val batcher = OptionBatcher(loader, rejecting, 1, HOURS, 2)
+
+            val a = batcher.getAsync("a")
+            val b = batcher.getAsync("b")
+
+            assertFailsWithRejection(a)
+            assertFailsWithRejection(b)
+        } finally {
+            rejecting.shutdownNow()
+        }
+    }
+
+    private fun assertFailsWithRejection(future: Future<Option<Int>>) {
+        try {
+            future.get(5, SECONDS)
+            throw AssertionError("Expected failure")
+        } catch (e: ExecutionException) {
+            assertThat(e.cause).isInstanceOf(RejectedExecutionException::class.java)
+        }
+    }
+}
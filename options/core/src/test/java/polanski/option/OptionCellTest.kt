@@ -0,0 +1,45 @@
+package polanski.option
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import polanski.option.Option.NONE
+import polanski.option.Option.ofObj
+
+class OptionCellTest {
+
+    @Test
+    fun get_isInitialValue() {
+        assertThat(OptionCell<String>().get()).isEqualTo(NONE)
+        assertThat(OptionCell("a").get()).isEqualTo(ofObj("a"))
+    }
+
+    @Test
+    fun set_changedValue_bumpsVersion() {
+        val cell = OptionCell("a")
+        val version = cell.version
+
+        assertThat(cell.set(ofObj("b"))).isTrue()
+        assertThat(cell.get()).isEqualTo(ofObj("b"))
+        assertThat(cell.version).isGreaterThan(version)
+    }
+
+    @Test
+    fun set_equalValue_keepsVersionAndInstance() {
+        val cell = OptionCell("a")
+        val before = cell.get()
+        val version = cell.version
+
+        assertThat(cell.set(ofObj("a"))).isFalse()
+        assertThat(cell.get()).isSameAs(before)
+        assertThat(cell.version).isEqualTo(version)
+    }
+
+    @Test
+    fun clear_isNone() {
+        val cell = OptionCell("a")
+
+        assertThat(cell.clear()).isTrue()
+        assertThat(cell.get()).isEqualTo(NONE)
+        assertThat(cell.clear()).isFalse()
+    }
+}
@@ -0,0 +1,204 @@
+package polanski.option
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import polanski.option.Option.NONE
+import polanski.option.Option.none
+import polanski.option.Option.ofObj
+import polanski.option.OptionCodecs.*
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.ObjectInputStream
+import java.io.ObjectOutputStream
+import java.nio.BufferOverflowException
+import java.nio.BufferUnderflowException
+import java.nio.ByteBuffer
+
+class OptionCodecsTest {
+
+    private val buffer = ByteBuffer.allocate(1024)
+
+    private fun serialized(value: Any): Any {
+        val bytes = ByteArrayOutputStream()
+        ObjectOutputStream(bytes).use { it.writeObject(value) }
+        return ObjectInputStream(ByteArrayInputStream(bytes.toByteArray())).use { it.readObject() }
+    }
+
+    @Test
+    fun serialization_none_resolvesToSingleton() {
+        assertThat(serialized(NONE)).isSameAs(NONE)
+    }
+
+    @Test
+    fun serialization_some_keepsValue() {
+        assertThat(serialized(ofObj("value"))).isEqualTo(ofObj("value"))
+    }
+
+    @Test
+    fun serialization_noneInsideGraph_resolvesToSingleton() {
+        val list = serialized(arrayListOf(none<String>(), ofObj("value"))) as List<*>
+
+        assertThat(list[0]).isSameAs(NONE)
+        assertThat(list[1]).isEqualTo(ofObj("value"))
+    }
+
+    @Test
+    fun encode_none_isSingleByte() {
+        encode(none(), STRING, buffer)
+
+        assertThat(buffer.position()).isEqualTo(1)
+    }
+
+    @Test
+    fun decode_none_isSingleton() {
+        encode(none(), STRING, buffer)
+        buffer.flip()
+
+        assertThat(decode(STRING, buffer)).isSameAs(NONE)
+    }
+
+    @Test
+    fun encodeDecode_roundTrip() {
+        encode(ofObj("zażółć"), STRING, buffer)
+        encode(ofObj(-42), INT, buffer)
+        encode(ofObj(Long.MIN_VALUE), LONG, buffer)
+        encode(ofObj(1.5), DOUBLE, buffer)
+        encode(none(), LONG, buffer)
+        buffer.flip()
+
+        assertThat(decode(STRING, buffer)).isEqualTo(ofObj("zażółć"))
+        assertThat(decode(INT, buffer)).isEqualTo(ofObj(-42))
+        assertThat(decode(LONG, buffer)).isEqualTo(ofObj(Long.MIN_VALUE))
+        assertThat(decode(DOUBLE, buffer)).isEqualTo(ofObj(1.5))
+        assertThat(decode(LONG, buffer)).isEqualTo(NONE)
+        assertThat(buffer.hasRemaining()).isFalse()
+    }
+
+    @Test
+    fun varint_smallNumbers_takeSingleByte() {
+        for (value in listOf(0, 1, -1, 63, -64)) {
+            buffer.clear()
+            INT.encode(value, buffer)
+
+            assertThat(buffer.position()).describedAs(value.toString()).isEqualTo(1)
+        }
+    }
+
+    @Test
+    fun varint_extremes_roundTrip() {
+        val ints = listOf(Int.MIN_VALUE, Int.MAX_VALUE, 0, 300, -300)
+        val longs = listOf(Long.MIN_VALUE, Long.MAX_VALUE, 0L, 1L shl 40, -(1L shl 40))
+        ints.forEach { INT.encode(it, buffer) }
+        longs.forEach { LONG.encode(it, buffer) }
+        buffer.flip()
+
+        assertThat(ints.map { INT.decode(buffer) }).isEqualTo(ints)
+        assertThat(longs.map { LONG.decode(buffer) }).isEqualTo(longs)
+    }
+
+    @Test
+    fun varint_intMaxValue_takesFiveBytes() {
+        INT.encode(Int.MAX_VALUE, buffer)
+
+        assertThat(buffer.position()).isEqualTo(5)
+    }
+
+    @Test
+    fun encodeAll_writesBitmapBeforeValues() {
+        encodeAll(listOf(ofObj(1), none(), ofObj(2)), INT, buffer)
+
+        assertThat(buffer.position()).isEqualTo(4)
+        assertThat(buffer.get(0)).isEqualTo(3.toByte())
+        assertThat(buffer.get(1)).isEqualTo(5.toByte())
+    }
+
+    @Test
+    fun encodeAllDecodeAll_roundTrip() {
+        val options = (0..99).map { if (it % 3 == 0) none<Long>() else ofObj(it * 1000L) }
+        encodeAll(options, LONG, buffer)
+        buffer.flip()
+
+        val decoded = decodeAll(LONG, buffer)
+
+        assertThat(decoded).isEqualTo(options)
+        assertThat(decoded[0]).isSameAs(NONE)
+        assertThat(buffer.hasRemaining()).isFalse()
+    }
+
+    @Test
+    fun encodeAllDecodeAll_empty() {
+        encodeAll(emptyList<Option<String>>(), STRING, buffer)
+        buffer.flip()
+
+        assertThat(decodeAll(STRING, buffer)).isEmpty()
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun decodeAll_whenSizeExceedsBuffer_throws() {
+        // Varint of a billion, followed by nothing
+        buffer.put(byteArrayOf(0x80.toByte(), 0x94.toByte(), 0xEB.toByte(), 0xDC.toByte(), 0x03)).flip()
+
+        decodeAll(LONG, buffer)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun decodeAll_whenSizeNegative_throws() {
+        // Varint of -1
+        repeat(9) { buffer.put(0xFF.toByte()) }
+        buffer.put(0x01).flip()
+
+        decodeAll(LONG, buffer)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun decodeAll_whenBitmapTruncated_throws() {
+        encodeAll((0..99).map { none<Long>() }, LONG, buffer)
+        buffer.flip()
+        buffer.limit(5)
+
+        decodeAll(LONG, buffer)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun decodeString_whenLengthExceedsBuffer_throws() {
+        // Some marker, varint of a billion, followed by a single byte
+        buffer.put(byteArrayOf(1, 0x80.toByte(), 0x94.toByte(), 0xEB.toByte(), 0xDC.toByte(), 0x03, 0x61))
+        buffer.flip()
+
+        decode(STRING, buffer)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun decodeString_whenLengthNegative_throws() {
+        // Some marker, varint of -1
+        buffer.put(1)
+        repeat(9) { buffer.put(0xFF.toByte()) }
+        buffer.put(0x01).flip()
+
+        decode(STRING, buffer)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun decode_whenInvalidPresenceByte_throws() {
+        buffer.put(7).flip()
+
+        decode(INT, buffer)
+    }
+
+    @Test(expected = BufferUnderflowException::class)
+    fun decode_whenTruncated_throws() {
+        buffer.put(1).flip()
+
+        decode(DOUBLE, buffer)
+    }
+
+    @Test(expected = BufferOverflowException::class)
+    fun encode_whenBufferTooSmall_throws() {
+        encode(ofObj("too long"), STRING, ByteBuffer.allocate(4))
+    }
+
+    @Test(expected = AssertionError::class)
+    fun constructor_throwsException() {
+        OptionCodecs()
+    }
+}
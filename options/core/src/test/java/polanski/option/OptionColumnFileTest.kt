@@ -0,0 +1,237 @@
+package polanski.option
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.After
+import org.junit.Test
+import polanski.option.Option.NONE
+import polanski.option.Option.none
+import polanski.option.Option.ofObj
+import java.io.File
+import java.io.IOException
+import java.io.RandomAccessFile
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
+class OptionColumnFileTest {
+
+    private val file = File.createTempFile("column", ".opt")
+
+    @After
+    fun tearDown() {
+        file.delete()
+    }
+
+    @Test
+    fun longs_roundTrip() {
+        OptionColumnWriter.longs(file, 4).use {
+            it.write(ofObj(1L))
+            it.write(none())
+            it.write(ofObj(Long.MIN_VALUE))
+            it.write(ofObj(0L))
+        }
+
+        val reader = OptionColumnReader.longs(file)
+
+        assertThat(reader.size()).isEqualTo(4L)
+        assertThat(reader.get(0)).isEqualTo(ofObj(1L))
+        assertThat(reader.get(1)).isEqualTo(NONE)
+        assertThat(reader.get(2)).isEqualTo(ofObj(Long.MIN_VALUE))
+        assertThat(reader.get(3)).isEqualTo(ofObj(0L))
+    }
+
+    @Test
+    fun doubles_roundTrip() {
+        OptionColumnWriter.doubles(file, 3).use {
+            it.write(ofObj(1.5))
+            it.write(ofObj(Double.NaN))
+            it.write(none())
+        }
+
+        val reader = OptionColumnReader.doubles(file)
+
+        assertThat(reader.get(0)).isEqualTo(ofObj(1.5))
+        assertThat(reader.get(1)).isEqualTo(ofObj(Double.NaN))
+        assertThat(reader.get(2)).isEqualTo(NONE)
+    }
+
+    @Test
+    fun strings_roundTrip() {
+        OptionColumnWriter.strings(file, 4).use {
+            it.write(ofObj("plain"))
+            it.write(none())
+            it.write(ofObj(""))
+            it.write(ofObj("zażółć ✓"))
+        }
+
+        val reader = OptionColumnReader.strings(file)
+
+        assertThat(reader.get(0)).isEqualTo(ofObj("plain"))
+        assertThat(reader.get(1)).isEqualTo(NONE)
+        assertThat(reader.get(2)).isEqualTo(ofObj(""))
+        assertThat(reader.get(3)).isEqualTo(ofObj("zażółć ✓"))
+    }
+
+    @Test
+    fun strings_largerThanBuffer_roundTrip() {
+        val large = "x".repeat(200000)
+        OptionColumnWriter.strings(file, 3).use {
+            it.write(ofObj("before"))
+            it.write(ofObj(large))
+            it.write(ofObj("after"))
+        }
+
+        val reader = OptionColumnReader.strings(file)
+
+        assertThat(reader.get(0)).isEqualTo(ofObj("before"))
+        assertThat(reader.get(1)).isEqualTo(ofObj(large))
+        assertThat(reader.get(2)).isEqualTo(ofObj("after"))
+    }
+
+    @Test
+    fun manyValues_roundTrip() {
+        val count = 100000
+        OptionColumnWriter.longs(file, count.toLong()).use { writer ->
+            for (i in 0..count - 1) {
+                writer.write(if (i % 3 == 0) none() else ofObj(i.toLong() * 7))
+            }
+        }
+
+        val reader = OptionColumnReader.longs(file)
+
+        for (i in 0..count - 1) {
+            assertThat(reader.isSome(i.toLong())).isEqualTo(i % 3 != 0)
+            assertThat(reader.get(i.toLong())).isEqualTo(if (i % 3 == 0) NONE else ofObj(i.toLong() * 7))
+        }
+    }
+
+    @Test
+    fun longs_acrossChunks_roundTrip() {
+        val count = 1000
+        OptionColumnWriter.longs(file, count.toLong()).use { writer ->
+            for (i in 0..count - 1) {
+                writer.write(if (i % 5 == 0) none() else ofObj(i.toLong() - 500))
+            }
+        }
+
+        val reader = OptionColumnReader.open<Long>(file, OptionColumnFormat.TYPE_LONG, 64)
+
+        assertThat(file.length()).isGreaterThan(64L * 100)
+        for (i in 0..count - 1) {
+            assertThat(reader.get(i.toLong())).isEqualTo(if (i % 5 == 0) NONE else ofObj(i.toLong() - 500))
+        }
+    }
+
+    @Test
+    fun strings_spanningChunks_roundTrip() {
+        // Lengths that are not a multiple of 8 put the strings at every offset within a chunk
+        val values = (0..199).map { "v".repeat(it % 150) + "ż$it" }
+        OptionColumnWriter.strings(file, values.size.toLong()).use { writer ->
+            values.forEach { writer.write(ofObj(it)) }
+        }
+
+        val reader = OptionColumnReader.open<String>(file, OptionColumnFormat.TYPE_STRING, 64)
+
+        for (i in values.indices) {
+            assertThat(reader.get(i.toLong())).isEqualTo(ofObj(values[i]))
+        }
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun open_whenChunkSizeNotPowerOfTwo_throws() {
+        OptionColumnWriter.longs(file, 1).use { it.write(ofObj(1L)) }
+
+        OptionColumnReader.open<Long>(file, OptionColumnFormat.TYPE_LONG, 96)
+    }
+
+    @Test
+    fun emptyColumn_roundTrip() {
+        OptionColumnWriter.strings(file, 0).close()
+
+        assertThat(OptionColumnReader.strings(file).size()).isEqualTo(0L)
+    }
+
+    @Test
+    fun close_calledTwice_keepsColumn() {
+        val writer = OptionColumnWriter.longs(file, 1)
+        writer.write(ofObj(7L))
+
+        writer.close()
+        writer.close()
+
+        assertThat(OptionColumnReader.longs(file).get(0)).isEqualTo(ofObj(7L))
+    }
+
+    @Test
+    fun concurrentReaders_readSameValues() {
+        val count = 10000
+        OptionColumnWriter.strings(file, count.toLong()).use { writer ->
+            for (i in 0..count - 1) {
+                writer.write(if (i % 2 == 0) ofObj("value$i") else none())
+            }
+        }
+        val reader = OptionColumnReader.strings(file)
+        val executor = Executors.newFixedThreadPool(4)
+
+        try {
+            val results = executor.invokeAll((1..4).map {
+                Callable {
+                    (0..count - 1).all { i ->
+                        reader.get(i.toLong()) == (if (i % 2 == 0) ofObj("value$i") else NONE)
+                    }
+                }
+            })
+
+            assertThat(results.map { it.get() }).containsOnly(true)
+        } finally {
+            executor.shutdown()
+        }
+    }
+
+    @Test(expected = IllegalStateException::class)
+    fun write_whenMoreThanCount_throws() {
+        OptionColumnWriter.longs(file, 1).use {
+            it.write(ofObj(1L))
+            it.write(ofObj(2L))
+        }
+    }
+
+    @Test(expected = IllegalStateException::class)
+    fun close_whenFewerThanCount_throws() {
+        OptionColumnWriter.longs(file, 2).use {
+            it.write(ofObj(1L))
+        }
+    }
+
+    @Test(expected = IOException::class)
+    fun open_whenDifferentType_throws() {
+        OptionColumnWriter.longs(file, 1).use { it.write(ofObj(1L)) }
+
+        OptionColumnReader.strings(file)
+    }
+
+    @Test(expected = IOException::class)
+    fun open_whenNotColumnFile_throws() {
+        file.writeText("definitely not a column file")
+
+        OptionColumnReader.longs(file)
+    }
+
+    @Test(expected = IOException::class)
+    fun open_whenTruncated_throws() {
+        OptionColumnWriter.longs(file, 10).use { writer ->
+            for (i in 1..10) {
+                writer.write(ofObj(i.toLong()))
+            }
+        }
+        RandomAccessFile(file, "rw").use { it.setLength(it.length() - 8) }
+
+        OptionColumnReader.longs(file)
+    }
+
+    @Test(expected = IndexOutOfBoundsException::class)
+    fun get_whenIndexOutOfBounds_throws() {
+        OptionColumnWriter.longs(file, 1).use { it.write(ofObj(1L)) }
+
+        OptionColumnReader.longs(file).get(1)
+    }
+}
@@ -0,0 +1,148 @@
+package polanski.option
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import polanski.option.Option.NONE
+import polanski.option.Option.ofObj
+import polanski.option.function.DoubleFunc2
+import polanski.option.function.DoubleFunc3
+import polanski.option.function.LongFunc2
+import polanski.option.function.LongFunc3
+
+class OptionColumnsTest {
+
+    private val sum2 = DoubleFunc2 { a, b -> a + b }
+
+    private fun doubles(size: Int, present: (Int) -> Boolean): DoubleOptionColumn {
+        val column = DoubleOptionColumn(size)
+        for (i in 0..size - 1) {
+            if (present(i)) {
+                column.set(i, i.toDouble())
+            }
+        }
+        return column
+    }
+
+    private fun longs(size: Int, present: (Int) -> Boolean): LongOptionColumn {
+        val column = LongOptionColumn(size)
+        for (i in 0..size - 1) {
+            if (present(i)) {
+                column.set(i, i.toLong())
+            }
+        }
+        return column
+    }
+
+    @Test
+    fun column_isNoneByDefault() {
+        val column = DoubleOptionColumn(3)
+
+        assertThat(column.isSome(1)).isFalse()
+        assertThat(column.get(1)).isEqualTo(NONE)
+        assertThat(column.getOrDefault(1, -1.0)).isEqualTo(-1.0)
+    }
+
+    @Test
+    fun column_setAndClear() {
+        val column = LongOptionColumn(100)
+        column.set(70, 5L)
+        column.set(71, ofObj(6L))
+
+        assertThat(column.get(70)).isEqualTo(ofObj(5L))
+        assertThat(column.count()).isEqualTo(2)
+
+        column.set(71, Option.none())
+        column.clear(70)
+
+        assertThat(column.count()).isEqualTo(0)
+    }
+
+    @Test(expected = IndexOutOfBoundsException::class)
+    fun column_whenIndexOutOfRange_throwsException() {
+        DoubleOptionColumn(64).set(64, 1.0)
+    }
+
+    @Test
+    fun lift_combinesOnlyWherePresentInBoth() {
+        val size = 200
+        val a = doubles(size) { it % 2 == 0 }
+        val b = doubles(size) { it % 3 == 0 }
+        val out = DoubleOptionColumn(size)
+
+        OptionColumns.lift(a, b, sum2, out)
+
+        for (i in 0..size - 1) {
+            assertThat(out.get(i)).isEqualTo(a.get(i).lift(b.get(i)) { x, y -> x + y })
+        }
+    }
+
+    @Test
+    fun lift_whenFullyPresent_combinesEveryEntry() {
+        val size = 130
+        val a = doubles(size) { true }
+        val out = DoubleOptionColumn(size)
+
+        OptionColumns.lift(a, a, sum2, out)
+
+        assertThat(out.count()).isEqualTo(size)
+        assertThat(out.getOrDefault(129, 0.0)).isEqualTo(258.0)
+    }
+
+    @Test
+    fun lift_clearsPreviousOutput() {
+        val out = doubles(10) { true }
+
+        OptionColumns.lift(doubles(10) { it < 5 }, doubles(10) { true }, sum2, out)
+
+        assertThat(out.count()).isEqualTo(5)
+        assertThat(out.isSome(7)).isFalse()
+    }
+
+    @Test
+    fun lift_canWriteToInput() {
+        val a = doubles(10) { true }
+
+        OptionColumns.lift(a, doubles(10) { it > 0 }, sum2, a)
+
+        assertThat(a.isSome(0)).isFalse()
+        assertThat(a.getOrDefault(3, 0.0)).isEqualTo(6.0)
+    }
+
+    @Test
+    fun lift_combinesThreeColumns() {
+        val size = 100
+        val out = DoubleOptionColumn(size)
+
+        OptionColumns.lift(doubles(size) { true }, doubles(size) { it % 2 == 0 }, doubles(size) { it < 50 },
+                           DoubleFunc3 { a, b, c -> a + b + c }, out)
+
+        assertThat(out.count()).isEqualTo(25)
+        assertThat(out.getOrDefault(48, 0.0)).isEqualTo(144.0)
+    }
+
+    @Test
+    fun lift_combinesLongColumns() {
+        val size = 70
+        val out2 = LongOptionColumn(size)
+        val out3 = LongOptionColumn(size)
+
+        OptionColumns.lift(longs(size) { true }, longs(size) { it >= 64 }, LongFunc2 { a, b -> a * b }, out2)
+        OptionColumns.lift(longs(size) { true }, longs(size) { true }, longs(size) { it == 69 },
+                           LongFunc3 { a, b, c -> a + b + c }, out3)
+
+        assertThat(out2.count()).isEqualTo(6)
+        assertThat(out2.get(65)).isEqualTo(ofObj(65L * 65L))
+        assertThat(out3.count()).isEqualTo(1)
+        assertThat(out3.get(69)).isEqualTo(ofObj(207L))
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun lift_whenSizesDiffer_throwsException() {
+        OptionColumns.lift(DoubleOptionColumn(1), DoubleOptionColumn(2), sum2, DoubleOptionColumn(1))
+    }
+
+    @Test(expected = AssertionError::class)
+    fun constructor_throwsException() {
+        OptionColumns()
+    }
+}
@@ -0,0 +1,209 @@
+package polanski.option
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.After
+import org.junit.Test
+import polanski.option.Option.NONE
+import polanski.option.Option.ofObj
+import polanski.option.function.Action1
+import polanski.option.function.Func1
+import java.io.File
+import java.util.Properties
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit.MILLISECONDS
+
+class OptionConfigTest {
+
+    private val config = OptionConfig()
+
+    private val file = File.createTempFile("config", ".properties")
+
+    private val scheduler = Executors.newSingleThreadScheduledExecutor()
+
+    @After
+    fun tearDown() {
+        scheduler.shutdownNow()
+        file.delete()
+    }
+
+    private fun properties(vararg entries: Pair<String, String>): Properties {
+        val properties = Properties()
+        entries.forEach { properties.setProperty(it.first, it.second) }
+        return properties
+    }
+
+    @Test
+    fun key_isNoneByDefault() {
+        assertThat(config.stringKey("host").get()).isEqualTo(NONE)
+    }
+
+    @Test
+    fun reload_parsesTypedValues() {
+        val host = config.stringKey("host")
+        val port = config.intKey("port")
+        val timeout = config.longKey("timeout")
+        val enabled = config.booleanKey("enabled")
+
+        config.reload(properties("host" to "localhost", "port" to " 8080 ", "timeout" to "5000",
+                                 "enabled" to "true"))
+
+        assertThat(host.get()).isEqualTo(ofObj("localhost"))
+        assertThat(config.get(port)).isEqualTo(ofObj(8080))
+        assertThat(timeout.get()).isEqualTo(ofObj(5000L))
+        assertThat(enabled.get()).isEqualTo(ofObj(true))
+    }
+
+    @Test
+    fun reload_whenValueInvalid_isNone() {
+        val port = config.intKey("port")
+
+        config.reload(properties("port" to "eighty"))
+
+        assertThat(port.get()).isEqualTo(NONE)
+    }
+
+    @Test
+    fun reload_whenKeyRemoved_isNone() {
+        val host = config.stringKey("host")
+        config.reload(properties("host" to "localhost"))
+
+        config.reload(properties())
+
+        assertThat(host.get()).isEqualTo(NONE)
+    }
+
+    @Test
+    fun reload_returnsOnlyChangedKeys() {
+        config.stringKey("host")
+        val port = config.intKey("port")
+        config.reload(properties("host" to "localhost", "port" to "80"))
+
+        val changed = config.reload(properties("host" to "localhost", "port" to "81"))
+
+        assertThat(changed).containsExactly(port)
+    }
+
+    @Test
+    fun reload_keepsOptionInstanceOfUnchangedKeys() {
+        val host = config.stringKey("host")
+        config.reload(properties("host" to "localhost"))
+        val before = host.get()
+
+        config.reload(properties("host" to "localhost", "other" to "x"))
+
+        assertThat(host.get()).isSameAs(before)
+    }
+
+    @Test
+    fun reload_whenTextChangesButValueDoesNot_doesNotNotify() {
+        val port = config.intKey("port")
+        config.reload(properties("port" to "80"))
+        val notified = mutableListOf<Option<Int>>()
+        port.addListener(Action1 { notified.add(it) })
+
+        config.reload(properties("port" to " 80"))
+
+        assertThat(notified).isEmpty()
+    }
+
+    @Test
+    fun listeners_areCalledWithChangedValues() {
+        val host = config.stringKey("host")
+        val keyValues = mutableListOf<Option<String>>()
+        val changedKeys = mutableListOf<OptionConfig.Key<*>>()
+        host.addListener(Action1 { keyValues.add(it) })
+        config.addListener(Action1 { changedKeys.add(it) })
+
+        config.reload(properties("host" to "a"))
+        config.reload(properties("host" to "b"))
+
+        assertThat(keyValues).containsExactly(ofObj("a"), ofObj("b"))
+        assertThat(changedKeys).containsExactly(host, host)
+    }
+
+    @Test
+    fun reload_whenParserThrows_leavesConfigurationUnchanged() {
+        val host = config.stringKey("host")
+        val strict = config.key("strict", Func1<String, Option<String>> {
+            if (it == "bad") throw IllegalArgumentException() else ofObj(it)
+        })
+        config.reload(properties("host" to "a", "strict" to "good"))
+
+        try {
+            config.reload(properties("host" to "b", "strict" to "bad"))
+        } catch (e: IllegalArgumentException) {
+        }
+
+        assertThat(host.get()).isEqualTo(ofObj("a"))
+        assertThat(strict.get()).isEqualTo(ofObj("good"))
+        assertThat(config.reload(properties("host" to "b", "strict" to "good"))).containsExactly(host)
+    }
+
+    @Test
+    fun key_registeredAfterReload_hasCurrentValue() {
+        config.reload(properties("host" to "localhost"))
+
+        assertThat(config.stringKey("host").get()).isEqualTo(ofObj("localhost"))
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun key_whenRegisteredTwice_throws() {
+        config.stringKey("host")
+        config.intKey("host")
+    }
+
+    @Test
+    fun reload_fromFile() {
+        val host = config.stringKey("host")
+        file.writeText("host=example.com\n")
+
+        config.reload(file)
+
+        assertThat(host.get()).isEqualTo(ofObj("example.com"))
+    }
+
+    @Test
+    fun watch_reloadsModifiedFile() {
+        val host = config.stringKey("host")
+        file.writeText("host=first\n")
+        val watch = config.watch(file, scheduler, 10, MILLISECONDS)
+        waitFor { host.get() == ofObj("first") }
+
+        file.writeText("host=second\n")
+
+        waitFor { host.get() == ofObj("second") }
+        watch.cancel(false)
+    }
+
+    @Test
+    fun watch_whenSameSizeEditKeepsModificationTime_reloads() {
+        val host = config.stringKey("host")
+        file.writeText("host=aaaa\n")
+        val modified = file.lastModified()
+        val watch = config.watch(file, scheduler, 10, MILLISECONDS)
+        waitFor { host.get() == ofObj("aaaa") }
+
+        file.writeText("host=bbbb\n")
+        file.setLastModified(modified)
+
+        waitFor { host.get() == ofObj("bbbb") }
+        watch.cancel(false)
+    }
+
+    @Test
+    fun watch_whenListenerThrows_reportsErrorAndKeepsWatching() {
+        val host = config.stringKey("host")
+        val errors = mutableListOf<RuntimeException>()
+        host.addListener(Action1 { if (it == ofObj("broken")) throw IllegalStateException() })
+        file.writeText("host=broken\n")
+        val watch = config.watch(file, scheduler, 10, MILLISECONDS,
+                                 Action1 { synchronized(errors) { errors.add(it) } })
+        waitFor { synchronized(errors) { errors.isNotEmpty() } }
+
+        file.writeText("host=fixed\n")
+
+        waitFor { host.get() == ofObj("fixed") }
+        watch.cancel(false)
+        assertThat(errors[0]).isInstanceOf(IllegalStateException::class.java)
+    }
+}
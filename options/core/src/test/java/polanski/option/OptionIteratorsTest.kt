@@ -0,0 +1,112 @@
+package polanski.option
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import polanski.option.Option.NONE
+import polanski.option.Option.none
+import polanski.option.Option.ofObj
+import polanski.option.OptionIterators.*
+import java.util.NoSuchElementException
+
+class OptionIteratorsTest {
+
+    private fun <T> options(vararg values: T?): Iterator<Option<T>> =
+            values.map { ofObj(it) }.iterator()
+
+    private fun <T> Iterator<T>.toList(): List<T> {
+        val list = arrayListOf<T>()
+        forEach { list.add(it) }
+        return list
+    }
+
+    @Test
+    fun flatten_skipsNones() {
+        assertThat(flatten(options(1, null, 2, null, 3)).toList()).containsExactly(1, 2, 3)
+    }
+
+    @Test
+    fun flatten_whenOnlyNones_isEmpty() {
+        assertThat(flatten(options<Int>(null, null)).hasNext()).isFalse()
+    }
+
+    @Test
+    fun mapSome_convertsSomesAndKeepsNones() {
+        assertThat(mapSome(options(1, null, 2)) { it * 10 }.toList())
+                .containsExactly(ofObj(10), none(), ofObj(20))
+    }
+
+    @Test
+    fun takeWhileSome_stopsAtFirstNone() {
+        assertThat(takeWhileSome(options(1, 2, null, 3)).toList()).containsExactly(1, 2)
+    }
+
+    @Test
+    fun takeWhileSome_doesNotReadPastFirstNone() {
+        val source = options(1, null, 2)
+        takeWhileSome(source).toList()
+
+        assertThat(source.next()).isEqualTo(ofObj(2))
+    }
+
+    @Test
+    fun unfold_generatesUntilNone() {
+        assertThat(unfold(1) { if (it < 4) ofObj(it + 1) else none() }.toList())
+                .containsExactly(1, 2, 3, 4)
+    }
+
+    @Test
+    fun unfold_whenSeedNull_isEmpty() {
+        assertThat(unfold<Int>(null) { ofObj(it + 1) }.hasNext()).isFalse()
+    }
+
+    @Test
+    fun unfold_isLazy() {
+        var calls = 0
+        val iterator = unfold(0) { calls++; ofObj(it + 1) }
+
+        iterator.next()
+        iterator.next()
+
+        assertThat(calls).isEqualTo(1)
+    }
+
+    @Test
+    fun operators_runOverInfiniteSource() {
+        val naturals = unfold(ofObj(0)) { ofObj(it.map { it + 1 }) }
+
+        assertThat(takeWhileSome(mapSome(naturals) { if (it < 3) it else null }).toList())
+                .containsExactly(0, 1, 2)
+    }
+
+    @Test
+    fun cursor_returnsSomesThenNone() {
+        val cursor = cursor(options("a", null, "b"))
+
+        assertThat(cursor.next()).isEqualTo(ofObj("a"))
+        assertThat(cursor.next()).isEqualTo(ofObj("b"))
+        assertThat(cursor.next()).isEqualTo(NONE)
+        assertThat(cursor.next()).isEqualTo(NONE)
+    }
+
+    @Test
+    fun cursor_returnsStoredSome() {
+        val some = ofObj("a")
+
+        assertThat(cursor(listOf(some).iterator()).next()).isSameAs(some)
+    }
+
+    @Test
+    fun iterator_iteratesCursor() {
+        assertThat(iterator(cursor(options(1, null, 2))).toList()).containsExactly(1, 2)
+    }
+
+    @Test(expected = NoSuchElementException::class)
+    fun next_whenExhausted_throwsException() {
+        flatten(options<Int>()).next()
+    }
+
+    @Test(expected = AssertionError::class)
+    fun constructor_throwsException() {
+        OptionIterators()
+    }
+}
@@ -0,0 +1,168 @@
+package polanski.option
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import polanski.option.Option.NONE
+import polanski.option.Option.ofObj
+
+class OptionMapTest {
+
+    @Test
+    fun get_whenKeyMissing_returnsNone() {
+        assertThat(OptionMap<String, String>().get("key")).isEqualTo(NONE)
+    }
+
+    @Test
+    fun get_whenKeyExists_returnsValue() {
+        val map = OptionMap<String, String>()
+        map.put("key", ofObj("value"))
+
+        assertThat(map.get("key")).isEqualTo(ofObj("value"))
+    }
+
+    @Test
+    fun get_returnsSameInstance() {
+        val map = OptionMap<String, String>()
+        map.put("key", ofObj("value"))
+
+        assertThat(map.get("key")).isSameAs(map.get("key"))
+    }
+
+    @Test
+    fun put_sharesGivenSome() {
+        val map = OptionMap<String, String>()
+        val some = ofObj("value")
+        map.put("key", some)
+
+        assertThat(map.get("key")).isSameAs(some)
+    }
+
+    @Test
+    fun put_returnsPreviousValue() {
+        val map = OptionMap<String, String>()
+        map.put("key", ofObj("first"))
+
+        assertThat(map.put("key", ofObj("second"))).isEqualTo(ofObj("first"))
+        assertThat(map.get("key")).isEqualTo(ofObj("second"))
+        assertThat(map.size()).isEqualTo(1)
+    }
+
+    @Test
+    fun put_whenNone_removesKey() {
+        val map = OptionMap<String, String>()
+        map.put("key", ofObj("value"))
+
+        map.put("key", Option.none())
+
+        assertThat(map.containsKey("key")).isFalse()
+        assertThat(map.isEmpty).isTrue()
+    }
+
+    @Test
+    fun getOrDefault_whenKeyMissing_returnsDefault() {
+        assertThat(OptionMap<String, String>().getOrDefault("key") { "default" }).isEqualTo("default")
+    }
+
+    @Test
+    fun getOrDefault_whenKeyExists_returnsValue() {
+        val map = OptionMap<String, String>()
+        map.put("key", ofObj("value"))
+
+        assertThat(map.getOrDefault("key") { "default" }).isEqualTo("value")
+    }
+
+    @Test
+    fun computeIfNone_whenKeyMissing_storesComputedValue() {
+        val map = OptionMap<String, Int>()
+
+        assertThat(map.computeIfNone("key") { it.length }).isEqualTo(ofObj(3))
+        assertThat(map.get("key")).isEqualTo(ofObj(3))
+    }
+
+    @Test
+    fun computeIfNone_whenKeyExists_doesNotCompute() {
+        val map = OptionMap<String, Int>()
+        map.put("key", ofObj(1))
+
+        assertThat(map.computeIfNone("key") { throw IllegalStateException() }).isEqualTo(ofObj(1))
+    }
+
+    @Test
+    fun computeIfNone_whenComputedNull_storesNothing() {
+        val map = OptionMap<String, String?>()
+
+        assertThat(map.computeIfNone("key") { null }).isEqualTo(NONE)
+        assertThat(map.containsKey("key")).isFalse()
+    }
+
+    @Test
+    fun remove_returnsRemovedValue() {
+        val map = OptionMap<String, String>()
+        map.put("key", ofObj("value"))
+
+        assertThat(map.remove("key")).isEqualTo(ofObj("value"))
+        assertThat(map.get("key")).isEqualTo(NONE)
+        assertThat(map.remove("key")).isEqualTo(NONE)
+    }
+
+    @Test
+    fun manyEntries_survivesResizeAndRemovals() {
+        val map = OptionMap<Int, Int>(2)
+        for (i in 0..9999) {
+            map.put(i, ofObj(i * 2))
+        }
+        for (i in 0..9999 step 2) {
+            map.remove(i)
+        }
+
+        assertThat(map.size()).isEqualTo(5000)
+        for (i in 0..9999) {
+            assertThat(map.get(i)).isEqualTo(if (i % 2 == 0) NONE else ofObj(i * 2))
+        }
+    }
+
+    @Test
+    fun collidingKeys_areKeptApart() {
+        val map = OptionMap<Collision, Int>()
+        for (i in 0..99) {
+            map.put(Collision(i), ofObj(i))
+        }
+        map.remove(Collision(50))
+
+        assertThat(map.get(Collision(50))).isEqualTo(NONE)
+        assertThat(map.get(Collision(99))).isEqualTo(ofObj(99))
+    }
+
+    @Test
+    fun clear_removesAllEntries() {
+        val map = OptionMap<String, String>()
+        map.put("key", ofObj("value"))
+
+        map.clear()
+
+        assertThat(map.isEmpty).isTrue()
+        assertThat(map.get("key")).isEqualTo(NONE)
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun constructor_whenNegativeSize_throwsException() {
+        OptionMap<String, String>(-1)
+    }
+
+    @Test
+    fun tableSizeFor_roundsUpToPowerOfTwo() {
+        assertThat(OptionMap.tableSizeFor(0)).isEqualTo(2)
+        assertThat(OptionMap.tableSizeFor(17)).isEqualTo(32)
+        assertThat(OptionMap.tableSizeFor(1 shl 20)).isEqualTo(1 shl 20)
+    }
+
+    @Test
+    fun tableSizeFor_whenAboveMaximumCapacity_clamps() {
+        assertThat(OptionMap.tableSizeFor((1 shl 30) + 1)).isEqualTo(OptionMap.MAXIMUM_CAPACITY)
+        assertThat(OptionMap.tableSizeFor(Int.MAX_VALUE)).isEqualTo(OptionMap.MAXIMUM_CAPACITY)
+    }
+
+    private data class Collision(val id: Int) {
+        override fun hashCode(): Int = 7
+    }
+}
@@ -0,0 +1,215 @@
+package polanski.option
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import polanski.option.Option.NONE
+import polanski.option.Option.ofObj
+import polanski.option.OptionParsers.*
+import java.util.UUID
+
+class OptionParsersTest {
+
+    enum class Color {
+        RED, GREEN, BLUE, Aa, BB
+    }
+
+    @Test
+    fun parseInt_whenValid_isSome() {
+        assertThat(parseInt("0")).isEqualTo(ofObj(0))
+        assertThat(parseInt("42")).isEqualTo(ofObj(42))
+        assertThat(parseInt("+42")).isEqualTo(ofObj(42))
+        assertThat(parseInt("-42")).isEqualTo(ofObj(-42))
+        assertThat(parseInt("007")).isEqualTo(ofObj(7))
+    }
+
+    @Test
+    fun parseInt_atBounds_isSome() {
+        assertThat(parseInt("2147483647")).isEqualTo(ofObj(Int.MAX_VALUE))
+        assertThat(parseInt("-2147483648")).isEqualTo(ofObj(Int.MIN_VALUE))
+    }
+
+    @Test
+    fun parseInt_whenOverflows_isNone() {
+        assertThat(parseInt("2147483648")).isEqualTo(NONE)
+        assertThat(parseInt("-2147483649")).isEqualTo(NONE)
+        assertThat(parseInt("99999999999999999999")).isEqualTo(NONE)
+    }
+
+    @Test
+    fun parseInt_whenInvalid_isNone() {
+        assertThat(parseInt("")).isEqualTo(NONE)
+        assertThat(parseInt("-")).isEqualTo(NONE)
+        assertThat(parseInt("+")).isEqualTo(NONE)
+        assertThat(parseInt("1a")).isEqualTo(NONE)
+        assertThat(parseInt(" 1")).isEqualTo(NONE)
+        assertThat(parseInt("1.0")).isEqualTo(NONE)
+        assertThat(parseInt("--1")).isEqualTo(NONE)
+    }
+
+    @Test
+    fun parseInt_parsesOnlyRange() {
+        val text = StringBuilder("id=123;next")
+
+        assertThat(parseInt(text, 3, 6)).isEqualTo(ofObj(123))
+        assertThat(parseInt(text, 3, 7)).isEqualTo(NONE)
+    }
+
+    @Test(expected = IndexOutOfBoundsException::class)
+    fun parseInt_whenRangeOutOfBounds_throws() {
+        parseInt("123", 1, 4)
+    }
+
+    @Test
+    fun parseLong_whenValid_isSome() {
+        assertThat(parseLong("1234567890123")).isEqualTo(ofObj(1234567890123L))
+        assertThat(parseLong("-5")).isEqualTo(ofObj(-5L))
+    }
+
+    @Test
+    fun parseLong_atBounds_isSome() {
+        assertThat(parseLong("9223372036854775807")).isEqualTo(ofObj(Long.MAX_VALUE))
+        assertThat(parseLong("-9223372036854775808")).isEqualTo(ofObj(Long.MIN_VALUE))
+    }
+
+    @Test
+    fun parseLong_atBoundsWithLeadingZeros_isSome() {
+        assertThat(parseLong("-09223372036854775808")).isEqualTo(ofObj(Long.MIN_VALUE))
+        assertThat(parseLong("-0009223372036854775808")).isEqualTo(ofObj(Long.MIN_VALUE))
+        assertThat(parseLong("+09223372036854775807")).isEqualTo(ofObj(Long.MAX_VALUE))
+        assertThat(parseLong("x-09223372036854775808", 1, 22)).isEqualTo(ofObj(Long.MIN_VALUE))
+        assertThat(parseInt("-002147483648")).isEqualTo(ofObj(Int.MIN_VALUE))
+    }
+
+    @Test
+    fun parseLong_whenZeroWithSign_isZero() {
+        assertThat(parseLong("-0")).isEqualTo(ofObj(0L))
+        assertThat(parseLong("+0")).isEqualTo(ofObj(0L))
+    }
+
+    @Test
+    fun parseLong_whenOverflows_isNone() {
+        assertThat(parseLong("9223372036854775808")).isEqualTo(NONE)
+        assertThat(parseLong("-9223372036854775809")).isEqualTo(NONE)
+    }
+
+    @Test
+    fun parseLong_whenInvalid_isNone() {
+        assertThat(parseLong("")).isEqualTo(NONE)
+        assertThat(parseLong("12L")).isEqualTo(NONE)
+    }
+
+    @Test
+    fun parseDouble_whenValid_matchesDoubleParseDouble() {
+        val texts = listOf("0", "-0", "1", "-1.5", "+2.25", ".5", "5.", "1e3", "1E-3", "-12.5e+3",
+                           "3.141592653589793", "0.1", "0.30000000000000004", "123456789012345",
+                           "1234567890123456789", "1e22", "1e23", "1e-22", "1e-400", "1e400",
+                           "4.9e-324", "1.7976931348623157e308", "0.000000000000000000001234",
+                           "123456789.123456789", "00000000000000000000001.5")
+
+        for (text in texts) {
+            assertThat(parseDouble(text)).describedAs(text).isEqualTo(ofObj(text.toDouble()))
+        }
+    }
+
+    @Test
+    fun parseDouble_whenNegativeZero_keepsSign() {
+        assertThat(1 / parseDouble("-0.0").orDefault { 0.0 }).isEqualTo(Double.NEGATIVE_INFINITY)
+    }
+
+    @Test
+    fun parseDouble_whenSpecialValue_isSome() {
+        assertThat(parseDouble("NaN").orDefault { 0.0 }.isNaN()).isTrue()
+        assertThat(parseDouble("Infinity")).isEqualTo(ofObj(Double.POSITIVE_INFINITY))
+        assertThat(parseDouble("-Infinity")).isEqualTo(ofObj(Double.NEGATIVE_INFINITY))
+    }
+
+    @Test
+    fun parseDouble_whenInvalid_isNone() {
+        val texts = listOf("", "-", ".", "e5", "1e", "1e+", "1ex", "1.2.3", " 1", "1 ", "1f",
+                           "0x10", "nan", "Inf")
+
+        for (text in texts) {
+            assertThat(parseDouble(text)).describedAs(text).isEqualTo(NONE)
+        }
+    }
+
+    @Test
+    fun parseDouble_parsesOnlyRange() {
+        assertThat(parseDouble("x=-1.25;", 2, 7)).isEqualTo(ofObj(-1.25))
+    }
+
+    @Test
+    fun parseBoolean_ignoresCase() {
+        assertThat(parseBoolean("true")).isEqualTo(ofObj(true))
+        assertThat(parseBoolean("TRUE")).isEqualTo(ofObj(true))
+        assertThat(parseBoolean("False")).isEqualTo(ofObj(false))
+    }
+
+    @Test
+    fun parseBoolean_returnsCachedOptions() {
+        assertThat(parseBoolean("true")).isSameAs(parseBoolean("True"))
+        assertThat(parseBoolean("false")).isSameAs(parseBoolean("FALSE"))
+    }
+
+    @Test
+    fun parseBoolean_whenInvalid_isNone() {
+        assertThat(parseBoolean("")).isEqualTo(NONE)
+        assertThat(parseBoolean("yes")).isEqualTo(NONE)
+        assertThat(parseBoolean("truee")).isEqualTo(NONE)
+    }
+
+    @Test
+    fun parseUuid_whenValid_isSome() {
+        val uuid = UUID.randomUUID()
+
+        assertThat(parseUuid(uuid.toString())).isEqualTo(ofObj(uuid))
+        assertThat(parseUuid(uuid.toString().toUpperCase())).isEqualTo(ofObj(uuid))
+    }
+
+    @Test
+    fun parseUuid_whenInvalid_isNone() {
+        assertThat(parseUuid("")).isEqualTo(NONE)
+        assertThat(parseUuid("123e4567-e89b-12d3-a456-42665544000")).isEqualTo(NONE)
+        assertThat(parseUuid("123e4567-e89b-12d3-a456-42665544000g")).isEqualTo(NONE)
+        assertThat(parseUuid("123e4567xe89b-12d3-a456-426655440000")).isEqualTo(NONE)
+    }
+
+    @Test
+    fun parseUuid_parsesOnlyRange() {
+        val text = "<123e4567-e89b-12d3-a456-426655440000>"
+
+        assertThat(parseUuid(text, 1, text.length - 1))
+                .isEqualTo(ofObj(UUID.fromString("123e4567-e89b-12d3-a456-426655440000")))
+    }
+
+    @Test
+    fun parseEnum_findsConstantByName() {
+        for (color in Color.values()) {
+            assertThat(parseEnum(Color::class.java, color.name)).isEqualTo(ofObj(color))
+        }
+    }
+
+    @Test
+    fun parseEnum_whenCollidingHashes_findsBoth() {
+        assertThat("Aa".hashCode()).isEqualTo("BB".hashCode())
+        assertThat(parseEnum(Color::class.java, "Aa")).isEqualTo(ofObj(Color.Aa))
+        assertThat(parseEnum(Color::class.java, "BB")).isEqualTo(ofObj(Color.BB))
+    }
+
+    @Test
+    fun parseEnum_returnsCachedOptions() {
+        assertThat(parseEnum(Color::class.java, "RED")).isSameAs(parseEnum(Color::class.java, "RED"))
+    }
+
+    @Test
+    fun parseEnum_whenUnknownName_isNone() {
+        assertThat(parseEnum(Color::class.java, "red")).isEqualTo(NONE)
+        assertThat(parseEnum(Color::class.java, "")).isEqualTo(NONE)
+        assertThat(parseEnum(Color::class.java, "PURPLE")).isEqualTo(NONE)
+    }
+
+    @Test
+    fun parseEnum_parsesOnlyRange() {
+        assertThat(parseEnum(Color::class.java, "color=GREEN", 6, 11)).isEqualTo(ofObj(Color.GREEN))
+    }
+}
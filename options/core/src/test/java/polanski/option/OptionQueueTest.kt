@@ -0,0 +1,177 @@
+package polanski.option
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import polanski.option.Option.NONE
+import polanski.option.Option.none
+import polanski.option.Option.ofObj
+import polanski.option.function.Action1
+import java.util.concurrent.CountDownLatch
+import kotlin.concurrent.thread
+
+class OptionQueueTest {
+
+    private val queues = listOf(OptionQueue.spsc<String>(4), OptionQueue.mpsc<String>(4))
+
+    @Test
+    fun poll_whenEmpty_isNone() {
+        for (queue in queues) {
+            assertThat(queue.poll()).isEqualTo(NONE)
+            assertThat(queue.isEmpty).isTrue()
+        }
+    }
+
+    @Test
+    fun poll_returnsValuesInOrder() {
+        for (queue in queues) {
+            queue.offer(ofObj("a"))
+            queue.offer(ofObj("b"))
+
+            assertThat(queue.poll()).isEqualTo(ofObj("a"))
+            assertThat(queue.poll()).isEqualTo(ofObj("b"))
+            assertThat(queue.poll()).isEqualTo(NONE)
+        }
+    }
+
+    @Test
+    fun poll_returnsOfferedSomeInstance() {
+        for (queue in queues) {
+            val some = ofObj("a")
+
+            queue.offer(some)
+
+            assertThat(queue.poll()).isSameAs(some)
+        }
+    }
+
+    @Test
+    fun offer_none_isIgnored() {
+        for (queue in queues) {
+            assertThat(queue.offer(none<String>())).isTrue()
+            assertThat(queue.isEmpty).isTrue()
+        }
+    }
+
+    @Test
+    fun offer_whenFull_returnsFalse() {
+        for (queue in queues) {
+            for (i in 1..4) {
+                assertThat(queue.offer(ofObj("v$i"))).isTrue()
+            }
+
+            assertThat(queue.offer(ofObj("overflow"))).isFalse()
+            assertThat(queue.size()).isEqualTo(4)
+
+            queue.poll()
+
+            assertThat(queue.offer(ofObj("again"))).isTrue()
+        }
+    }
+
+    @Test
+    fun capacity_isRoundedUpToPowerOfTwo() {
+        assertThat(OptionQueue.spsc<String>(5).capacity()).isEqualTo(8)
+        assertThat(OptionQueue.mpsc<String>(8).capacity()).isEqualTo(8)
+    }
+
+    @Test
+    fun drain_consumesAllValues() {
+        for (queue in queues) {
+            val drained = mutableListOf<String>()
+            queue.offer(ofObj("a"))
+            queue.offer(ofObj("b"))
+
+            assertThat(queue.drain(Action1 { drained.add(it) })).isEqualTo(2)
+            assertThat(drained).containsExactly("a", "b")
+            assertThat(queue.isEmpty).isTrue()
+        }
+    }
+
+    @Test
+    fun drain_withLimit_consumesAtMostLimit() {
+        for (queue in queues) {
+            val drained = mutableListOf<String>()
+            queue.offer(ofObj("a"))
+            queue.offer(ofObj("b"))
+            queue.offer(ofObj("c"))
+
+            assertThat(queue.drain(Action1 { drained.add(it) }, 2)).isEqualTo(2)
+            assertThat(drained).containsExactly("a", "b")
+            assertThat(queue.poll()).isEqualTo(ofObj("c"))
+        }
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun constructor_whenCapacityInvalid_throws() {
+        OptionQueue.spsc<String>(0)
+    }
+
+    @Test
+    fun spsc_handsOverAllValuesInOrder() {
+        val queue = OptionQueue.spsc<Int>(16)
+        val count = 100000
+        val producer = thread {
+            for (i in 0..count - 1) {
+                while (!queue.offer(ofObj(i))) {
+                    Thread.`yield`()
+                }
+            }
+        }
+        var expected = 0
+        var ordered = true
+
+        while (expected < count) {
+            val option = queue.poll()
+            if (option.isSome) {
+                ordered = ordered && option == ofObj(expected)
+                expected++
+            } else {
+                Thread.`yield`()
+            }
+        }
+        producer.join()
+
+        assertThat(ordered).isTrue()
+        assertThat(queue.isEmpty).isTrue()
+    }
+
+    @Test
+    fun mpsc_handsOverAllValuesOfAllProducers() {
+        val queue = OptionQueue.mpsc<Int>(64)
+        val perProducer = 20000
+        val start = CountDownLatch(1)
+        val producers = (0..3).map { p ->
+            thread {
+                start.await()
+                for (i in 0..perProducer - 1) {
+                    while (!queue.offer(ofObj(p * perProducer + i))) {
+                        Thread.`yield`()
+                    }
+                }
+            }
+        }
+        val received = BooleanArray(4 * perProducer)
+        val lastOfProducer = IntArray(4) { -1 }
+        var ordered = true
+        var count = 0
+
+        start.countDown()
+        while (count < received.size) {
+            val drained = queue.drain(Action1 { value ->
+                received[value] = true
+                val producer = value / perProducer
+                ordered = ordered && value > lastOfProducer[producer]
+                lastOfProducer[producer] = value
+            })
+            if (drained == 0) {
+                Thread.`yield`()
+            }
+            count += drained
+        }
+        producers.forEach { it.join() }
+
+        assertThat(received.all { it }).isTrue()
+        assertThat(ordered).isTrue()
+        assertThat(queue.poll()).isEqualTo(NONE)
+    }
+}
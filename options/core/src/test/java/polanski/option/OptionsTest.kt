@@ -0,0 +1,248 @@
+package polanski.option
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.After
+import org.junit.Test
+import polanski.option.Option.NONE
+import polanski.option.Option.none
+import polanski.option.Option.ofObj
+import polanski.option.Options.guarded
+import polanski.option.Options.liftLazy
+import polanski.option.Options.race
+import polanski.option.function.Func0
+import polanski.option.function.Func1
+import polanski.option.function.Func2
+import polanski.option.function.Func3
+import polanski.option.function.FuncN
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit.MILLISECONDS
+import java.util.concurrent.TimeUnit.SECONDS
+import java.util.concurrent.atomic.AtomicBoolean
+
+class OptionsTest {
+
+    private val executor = Executors.newCachedThreadPool()
+
+    @After
+    fun tearDown() {
+        executor.shutdownNow()
+    }
+
+    private fun <T> delayed(millis: Long, result: Option<T>) = Func0<Option<T>> {
+        Thread.sleep(millis)
+        result
+    }
+
+    @Test
+    fun race_returnsFirstSome() {
+        val result = race(executor, delayed(2000, ofObj("slow")), delayed(10, ofObj("fast")))
+
+        assertThat(result).isEqualTo(ofObj("fast"))
+    }
+
+    @Test
+    fun race_skipsNones() {
+        val result = race(executor, delayed(0, none<String>()), delayed(50, ofObj("some")))
+
+        assertThat(result).isEqualTo(ofObj("some"))
+    }
+
+    @Test
+    fun race_whenAllNone_returnNone() {
+        assertThat(race(executor, delayed(0, none<String>()), delayed(10, none<String>())))
+                .isEqualTo(NONE)
+    }
+
+    @Test
+    fun race_whenNoSources_returnNone() {
+        assertThat(race<String>(executor)).isEqualTo(NONE)
+    }
+
+    @Test
+    fun race_treatsExceptionsAsNone() {
+        val failing = Func0<Option<String>> { throw IllegalStateException() }
+
+        assertThat(race(executor, failing, delayed(10, ofObj("some")))).isEqualTo(ofObj("some"))
+    }
+
+    @Test
+    fun race_whenTimeoutElapses_returnNone() {
+        assertThat(race(executor, 50, MILLISECONDS, delayed(2000, ofObj("slow")))).isEqualTo(NONE)
+    }
+
+    @Test
+    fun race_cancelsRemainingSources() {
+        val interrupted = CountDownLatch(1)
+        val blocking = Func0<Option<String>> {
+            try {
+                Thread.sleep(10000)
+            } catch (e: InterruptedException) {
+                interrupted.countDown()
+            }
+            none()
+        }
+
+        race(executor, blocking, delayed(10, ofObj("fast")))
+
+        assertThat(interrupted.await(5, SECONDS)).isTrue()
+    }
+
+    @Test
+    fun hedgedRace_whenFirstIsFast_doesNotStartOthers() {
+        val started = AtomicBoolean()
+        val second = Func0<Option<String>> {
+            started.set(true)
+            ofObj("second")
+        }
+
+        val result = race(executor, 1000, 5000, MILLISECONDS, delayed(10, ofObj("first")), second)
+
+        assertThat(result).isEqualTo(ofObj("first"))
+        assertThat(started.get()).isFalse()
+    }
+
+    @Test
+    fun hedgedRace_whenFirstIsSlow_startsNextAfterDelay() {
+        val result = race(executor, 20, 5000, MILLISECONDS,
+                          delayed(2000, ofObj("first")), delayed(10, ofObj("second")))
+
+        assertThat(result).isEqualTo(ofObj("second"))
+    }
+
+    @Test
+    fun hedgedRace_whenFirstReturnsNone_startsNextRightAway() {
+        val start = System.nanoTime()
+
+        val result = race(executor, 5000, 10000, MILLISECONDS,
+                          delayed(0, none<String>()), delayed(0, ofObj("second")))
+
+        assertThat(result).isEqualTo(ofObj("second"))
+        assertThat(System.nanoTime() - start).isLessThan(MILLISECONDS.toNanos(2000))
+    }
+
+    private fun <T> recorded(calls: MutableList<String>, name: String, result: Option<T>) = Func0<Option<T>> {
+        calls.add(name)
+        result
+    }
+
+    @Test
+    fun liftLazy_whenAllSome_combinesValues() {
+        val result = liftLazy(Func0 { ofObj(1) }, Func0 { ofObj("a") },
+                              Func2<Int, String, String> { i, s -> s + i })
+
+        assertThat(result).isEqualTo(ofObj("a1"))
+    }
+
+    @Test
+    fun liftLazy_whenFirstNone_doesNotCallSecond() {
+        val calls = mutableListOf<String>()
+
+        val result = liftLazy(recorded(calls, "first", none<Int>()), recorded(calls, "second", ofObj(2)),
+                              Func2<Int, Int, Int> { a, b -> a + b })
+
+        assertThat(result).isEqualTo(NONE)
+        assertThat(calls).containsExactly("first")
+    }
+
+    @Test
+    fun liftLazy3_stopsAtFirstNone() {
+        val calls = mutableListOf<String>()
+
+        val result = liftLazy(recorded(calls, "first", ofObj(1)),
+                              recorded(calls, "second", none<Int>()),
+                              recorded(calls, "third", ofObj(3)),
+                              Func3<Int, Int, Int, Int> { a, b, c -> a + b + c })
+
+        assertThat(result).isEqualTo(NONE)
+        assertThat(calls).containsExactly("first", "second")
+    }
+
+    @Test
+    fun liftLazy3_whenAllSome_combinesValues() {
+        val result = liftLazy(Func0 { ofObj(1) }, Func0 { ofObj(2) }, Func0 { ofObj(3) },
+                              Func3<Int, Int, Int, Int> { a, b, c -> a * 100 + b * 10 + c })
+
+        assertThat(result).isEqualTo(ofObj(123))
+    }
+
+    @Test
+    fun liftLazyList_callsSuppliersInListOrder() {
+        val calls = mutableListOf<String>()
+        val options = listOf(recorded(calls, "a", ofObj("a")), recorded(calls, "b", ofObj("b")))
+
+        val result = liftLazy(options, FuncN<String> { args -> args.joinToString("") })
+
+        assertThat(result).isEqualTo(ofObj("ab"))
+        assertThat(calls).containsExactly("a", "b")
+    }
+
+    @Test
+    fun liftLazyList_withEvaluationOrder_callsSuppliersInThatOrder() {
+        val calls = mutableListOf<String>()
+        val options = listOf(recorded(calls, "a", ofObj("a")),
+                             recorded(calls, "b", ofObj("b")),
+                             recorded(calls, "c", ofObj("c")))
+
+        val result = liftLazy(options, intArrayOf(2, 0, 1), FuncN<String> { args -> args.joinToString("") })
+
+        assertThat(result).isEqualTo(ofObj("abc"))
+        assertThat(calls).containsExactly("c", "a", "b")
+    }
+
+    @Test
+    fun liftLazyList_withEvaluationOrder_stopsAtFirstNone() {
+        val calls = mutableListOf<String>()
+        val options = listOf(recorded(calls, "a", ofObj("a")),
+                             recorded(calls, "b", none<String>()),
+                             recorded(calls, "c", ofObj("c")))
+
+        val result = liftLazy(options, intArrayOf(1, 0, 2), FuncN<String> { args -> args.joinToString("") })
+
+        assertThat(result).isEqualTo(NONE)
+        assertThat(calls).containsExactly("b")
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun liftLazyList_whenOrderIsNotPermutation_throws() {
+        val options = listOf(Func0 { ofObj("a") }, Func0 { ofObj("b") })
+
+        liftLazy(options, intArrayOf(0, 0), FuncN<String> { args -> args.joinToString("") })
+    }
+
+    @Test
+    fun guarded_whenKeyNotInFilter_skipsLoader() {
+        val calls = mutableListOf<String>()
+        val lookup = guarded(BloomFilter<String>(100, 0.01),
+                             Func1<String, Option<Int>> { calls.add(it); ofObj(it.length) })
+
+        assertThat(lookup.call("missing")).isEqualTo(NONE)
+        assertThat(calls).isEmpty()
+        assertThat(lookup.trueNegatives).isEqualTo(1)
+    }
+
+    @Test
+    fun guarded_whenKeyInFilter_callsLoader() {
+        val filter = BloomFilter<String>(100, 0.01)
+        filter.put("known")
+        val lookup = guarded(filter, Func1<String, Option<Int>> { ofObj(it.length) })
+
+        assertThat(lookup.call("known")).isEqualTo(ofObj(5))
+        assertThat(lookup.hits).isEqualTo(1)
+    }
+
+    @Test
+    fun guarded_whenLoaderReturnsNone_countsFalsePositive() {
+        val lookup = guarded(BloomFilter<String>(100, 0.01), Func1<String, Option<Int>> { none() })
+        lookup.add("stale")
+
+        assertThat(lookup.call("stale")).isEqualTo(NONE)
+        assertThat(lookup.falsePositives).isEqualTo(1)
+        assertThat(lookup.trueNegatives).isEqualTo(0)
+    }
+
+    @Test(expected = AssertionError::class)
+    fun constructor_throwsException() {
+        Options()
+    }
+}
@@ -0,0 +1,101 @@
+package polanski.option
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import polanski.option.Option.NONE
+import polanski.option.Option.ofObj
+import polanski.option.function.Func0
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.concurrent.thread
+
+class SoftOptionTest {
+
+    @Test
+    fun get_whenEmpty_isNone() {
+        assertThat(SoftOption<String>().get()).isEqualTo(NONE)
+    }
+
+    @Test
+    fun get_whenSet_isSome() {
+        assertThat(SoftOption("value").get()).isEqualTo(ofObj("value"))
+    }
+
+    @Test
+    fun set_givenOption_storesValue() {
+        val option = SoftOption<String>()
+
+        option.set(ofObj("value"))
+
+        assertThat(option.get()).isEqualTo(ofObj("value"))
+    }
+
+    @Test
+    fun set_givenNone_isNone() {
+        val option = SoftOption("value")
+
+        option.set(Option.none<String>())
+
+        assertThat(option.get()).isEqualTo(NONE)
+    }
+
+    @Test
+    fun clear_isNone() {
+        val option = SoftOption("value")
+
+        option.clear()
+
+        assertThat(option.get()).isEqualTo(NONE)
+    }
+
+    @Test
+    fun getOrReload_whenSet_doesNotLoad() {
+        val option = SoftOption("value")
+
+        val result = option.getOrReload(Func0 { throw AssertionError() })
+
+        assertThat(result).isEqualTo(ofObj("value"))
+    }
+
+    @Test
+    fun getOrReload_whenEmpty_loadsAndStores() {
+        val option = SoftOption<String>()
+
+        val result = option.getOrReload(Func0 { "loaded" })
+
+        assertThat(result).isEqualTo(ofObj("loaded"))
+        assertThat(option.get()).isEqualTo(result)
+    }
+
+    @Test
+    fun getOrReload_whenLoaderReturnsNull_isNone() {
+        val option = SoftOption<String>()
+
+        assertThat(option.getOrReload(Func0 { null })).isEqualTo(NONE)
+        assertThat(option.get()).isEqualTo(NONE)
+    }
+
+    @Test
+    fun getOrReload_concurrently_loadsOnce() {
+        val option = SoftOption<String>()
+        val loads = AtomicInteger()
+        val start = CountDownLatch(1)
+        val results = arrayOfNulls<Option<String>>(4)
+        val threads = (0..3).map { i ->
+            thread {
+                start.await()
+                results[i] = option.getOrReload(Func0 {
+                    loads.incrementAndGet()
+                    Thread.sleep(50)
+                    "loaded"
+                })
+            }
+        }
+
+        start.countDown()
+        threads.forEach { it.join() }
+
+        assertThat(loads.get()).isEqualTo(1)
+        assertThat(results.toList()).containsOnly(ofObj("loaded"))
+    }
+}
@@ -427,6 +427,26 @@ class TestOption {
         assertEquals(rest.sum() + first, getUnsafe(op))
     }
 
+    @Test
+    fun testLiftMany_keepsArgumentOrder() {
+        val join = polanski.option.function.FuncN<String> { it.joinToString("") }
+
+        assertEquals("ax", getUnsafe(ofObj("x").lift(listOf(ofObj("a")), join)))
+        assertEquals("xacb", getUnsafe(ofObj("x").lift(listOf("a", "b", "c").map { ofObj(it) }, join)))
+    }
+
+    @Test
+    fun testEquals_whenSameValue_returnTrue() {
+        assertThat(ofObj("a") == ofObj("a")).isTrue()
+    }
+
+    @Test
+    fun testEquals_whenOtherValueOrNone_returnFalse() {
+        assertThat(ofObj("a") == ofObj("b")).isFalse()
+        assertThat(ofObj("a").equals(NONE)).isFalse()
+        assertThat(ofObj("a").equals("a")).isFalse()
+    }
+
     @Test
     fun testToString_whenSome() {
         val value = 1
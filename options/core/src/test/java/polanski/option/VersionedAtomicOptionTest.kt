@@ -0,0 +1,132 @@
+package polanski.option
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import polanski.option.Option.NONE
+import polanski.option.Option.ofObj
+import java.util.concurrent.CountDownLatch
+import kotlin.concurrent.thread
+
+class VersionedAtomicOptionTest {
+
+    @Test
+    fun isNone_byDefault() {
+        val atomic = VersionedAtomicOption<String>()
+
+        assertThat(atomic.get()).isEqualTo(NONE)
+        assertThat(atomic.version).isEqualTo(0)
+    }
+
+    @Test
+    fun constructor_setsTheValue() {
+        assertThat(VersionedAtomicOption("value").get()).isEqualTo(ofObj("value"))
+    }
+
+    @Test
+    fun set_increasesVersion() {
+        val atomic = VersionedAtomicOption<String>()
+
+        val version = atomic.set(ofObj("value"))
+
+        assertThat(version).isEqualTo(1)
+        assertThat(atomic.version).isEqualTo(1)
+        assertThat(atomic.get()).isEqualTo(ofObj("value"))
+    }
+
+    @Test
+    fun set_whenSameValue_stillIncreasesVersion() {
+        val atomic = VersionedAtomicOption("value")
+
+        atomic.set(ofObj("value"))
+
+        assertThat(atomic.version).isEqualTo(1)
+    }
+
+    @Test
+    fun compareAndSet_whenVersionMatches_replacesValue() {
+        val atomic = VersionedAtomicOption("old")
+
+        assertThat(atomic.compareAndSet(0, ofObj("new"))).isTrue()
+        assertThat(atomic.readStamped().option).isEqualTo(ofObj("new"))
+        assertThat(atomic.readStamped().version).isEqualTo(1)
+    }
+
+    @Test
+    fun compareAndSet_whenValueWasClearedAndSetAgain_fails() {
+        val atomic = VersionedAtomicOption("value")
+        val stamp = atomic.readStamped()
+
+        atomic.getAndClear()
+        atomic.set(stamp.option)
+
+        assertThat(atomic.compareAndSet(stamp.version, ofObj("new"))).isFalse()
+        assertThat(atomic.get()).isEqualTo(ofObj("value"))
+    }
+
+    @Test
+    fun validate_whenNoWrite_isTrue() {
+        val atomic = VersionedAtomicOption("value")
+
+        assertThat(atomic.validate(atomic.readStamped().version)).isTrue()
+    }
+
+    @Test
+    fun validate_afterWrite_isFalse() {
+        val atomic = VersionedAtomicOption("value")
+        val stamp = atomic.readStamped()
+
+        atomic.set(ofObj("other"))
+
+        assertThat(atomic.validate(stamp.version)).isFalse()
+    }
+
+    @Test
+    fun getAndClear_returnsOldValueAndClears() {
+        val atomic = VersionedAtomicOption("value")
+
+        assertThat(atomic.getAndClear()).isEqualTo(ofObj("value"))
+        assertThat(atomic.get()).isEqualTo(NONE)
+        assertThat(atomic.version).isEqualTo(1)
+    }
+
+    @Test
+    fun setIfNone_whenValueIsNone_setsValue() {
+        val atomic = VersionedAtomicOption<String>()
+
+        assertThat(atomic.setIfNone("value")).isTrue()
+        assertThat(atomic.get()).isEqualTo(ofObj("value"))
+    }
+
+    @Test
+    fun setIfNone_whenValueIsSome_keepsVersion() {
+        val atomic = VersionedAtomicOption("value")
+
+        assertThat(atomic.setIfNone("other")).isFalse()
+        assertThat(atomic.version).isEqualTo(0)
+    }
+
+    @Test
+    fun compareAndSet_fromManyThreads_losesNoUpdate() {
+        val atomic = VersionedAtomicOption(0)
+        val start = CountDownLatch(1)
+        val threads = (1..4).map {
+            thread {
+                start.await()
+                for (i in 1..1000) {
+                    while (true) {
+                        val stamp = atomic.readStamped()
+                        if (atomic.compareAndSet(stamp.version, stamp.option.map { it + 1 })) {
+                            break
+                        }
+                    }
+                }
+            }
+        }
+
+        start.countDown()
+        threads.forEach { it.join() }
+
+        assertThat(atomic.get()).isEqualTo(ofObj(4000))
+        assertThat(atomic.version).isEqualTo(4000)
+    }
+}
@@ -0,0 +1,78 @@
+package polanski.option
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import polanski.option.Option.NONE
+import polanski.option.Option.ofObj
+import polanski.option.function.Action0
+import polanski.option.function.Func0
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit.SECONDS
+import java.util.concurrent.atomic.AtomicBoolean
+
+class WeakOptionTest {
+
+    @Test
+    fun get_whileValueIsHeld_isSome() {
+        val value = Any()
+        val option = WeakOption(value)
+
+        collectGarbage()
+
+        assertThat(option.get()).isEqualTo(ofObj(value))
+    }
+
+    @Test
+    fun get_afterValueIsCollected_isNone() {
+        val option = WeakOption(Any())
+
+        waitFor { collectGarbage(); option.get().isNone }
+
+        assertThat(option.get()).isEqualTo(NONE)
+    }
+
+    @Test
+    fun onCollected_isCalledAfterValueIsCollected() {
+        val option = WeakOption(Any())
+        val collected = CountDownLatch(1)
+        option.onCollected(Action0 { collected.countDown() })
+
+        waitFor { collectGarbage(); collected.count == 0L }
+
+        assertThat(collected.await(5, SECONDS)).isTrue()
+    }
+
+    @Test
+    fun onCollected_whenCleared_isNotCalled() {
+        val cleared = WeakOption(Any())
+        val called = AtomicBoolean()
+        cleared.onCollected(Action0 { called.set(true) })
+        val control = WeakOption(Any())
+        val controlCollected = CountDownLatch(1)
+        control.onCollected(Action0 { controlCollected.countDown() })
+
+        cleared.clear()
+        // Both values became unreachable together, once the cleaner reported the control value
+        // it had its chance to report the cleared one too
+        waitFor { collectGarbage(); controlCollected.count == 0L }
+
+        assertThat(called.get()).isFalse()
+    }
+
+    @Test
+    fun getOrReload_afterValueIsCollected_reloads() {
+        val option = WeakOption(Any())
+        waitFor { collectGarbage(); option.get().isNone }
+        val reloaded = Any()
+
+        val result = option.getOrReload(Func0 { reloaded })
+
+        assertThat(result).isEqualTo(ofObj(reloaded))
+        assertThat(option.get()).isEqualTo(result)
+    }
+
+    private fun collectGarbage() {
+        System.gc()
+        Thread.sleep(10)
+    }
+}
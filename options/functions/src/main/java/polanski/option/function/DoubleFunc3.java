@@ -0,0 +1,9 @@
+package polanski.option.function;
+
+/**
+ * Version of {@link Func3} working on primitive doubles without boxing
+ */
+public interface DoubleFunc3 extends Function {
+
+    double call(double t1, double t2, double t3);
+}
@@ -0,0 +1,9 @@
+package polanski.option.function;
+
+/**
+ * Version of {@link Func2} working on primitive longs without boxing
+ */
+public interface LongFunc2 extends Function {
+
+    long call(long t1, long t2);
+}
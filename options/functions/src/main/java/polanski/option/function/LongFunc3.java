@@ -0,0 +1,9 @@
+package polanski.option.function;
+
+/**
+ * Version of {@link Func3} working on primitive longs without boxing
+ */
+public interface LongFunc3 extends Function {
+
+    long call(long t1, long t2, long t3);
+}
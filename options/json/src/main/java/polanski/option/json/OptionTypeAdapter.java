@@ -0,0 +1,49 @@
+package polanski.option.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+import polanski.option.Option;
+import polanski.option.OptionUnsafe;
+
+import static polanski.option.Option.ofObj;
+
+/**
+ * Streaming adapter of {@link Option}, delegating the inner value to the adapter of its type.
+ *
+ * @param <T> Inner type of Option
+ */
+final class OptionTypeAdapter<T> extends TypeAdapter<Option<T>> {
+
+    @NotNull
+    private final TypeAdapter<T> mInner;
+
+    OptionTypeAdapter(@NotNull final TypeAdapter<T> inner) {
+        mInner = inner;
+    }
+
+    @Override
+    public void write(@NotNull final JsonWriter out, final Option<T> value) throws IOException {
+        if (value == null || value.isNone()) {
+            out.nullValue();
+        } else {
+            mInner.write(out, OptionUnsafe.getUnsafe(value));
+        }
+    }
+
+    @NotNull
+    @Override
+    public Option<T> read(@NotNull final JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return Option.none();
+        }
+        return ofObj(mInner.read(in));
+    }
+}
@@ -0,0 +1,46 @@
+package polanski.option.json;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+import polanski.option.Option;
+
+/**
+ * Gson factory of adapters reading and writing {@link Option} directly from the JSON stream.
+ * <p/>
+ * JSON null is read as {@link Option#NONE}, without any allocation, anything else is read by the
+ * adapter of the inner type and wrapped. None is written as null, so with the default
+ * {@link Gson} settings None fields are left out of the output.
+ * <p/>
+ * Gson does not touch fields missing in the JSON, so give Option fields a default of
+ * {@link Option#NONE} and a no-argument constructor, otherwise a missing field stays null.
+ */
+public final class OptionTypeAdapterFactory implements TypeAdapterFactory {
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    @Override
+    public <T> TypeAdapter<T> create(@NotNull final Gson gson, @NotNull final TypeToken<T> type) {
+        if (!Option.class.isAssignableFrom(type.getRawType())) {
+            return null;
+        }
+        final TypeAdapter<?> inner = gson.getAdapter(TypeToken.get(innerType(type.getType())));
+        return (TypeAdapter<T>) new OptionTypeAdapter<Object>((TypeAdapter<Object>) inner);
+    }
+
+    @NotNull
+    private static Type innerType(@NotNull final Type optionType) {
+        if (optionType instanceof ParameterizedType) {
+            return ((ParameterizedType) optionType).getActualTypeArguments()[0];
+        }
+        return Object.class;
+    }
+}
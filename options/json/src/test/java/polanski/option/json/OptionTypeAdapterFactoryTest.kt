@@ -0,0 +1,92 @@
+package polanski.option.json
+
+import com.google.gson.Gson
+import com.google.gson.GsonBuilder
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import polanski.option.Option
+import polanski.option.Option.NONE
+import polanski.option.Option.none
+import polanski.option.Option.ofObj
+
+class OptionTypeAdapterFactoryTest {
+
+    class Payload {
+        var name: Option<String> = none()
+        var age: Option<Int> = none()
+        var tags: Option<List<String>> = none()
+        var nested: Option<Payload> = none()
+    }
+
+    private val gson: Gson = GsonBuilder().registerTypeAdapterFactory(OptionTypeAdapterFactory()).create()
+
+    @Test
+    fun read_whenFieldPresent_isSome() {
+        val payload = gson.fromJson("""{"name":"Tom","age":42,"tags":["a","b"]}""", Payload::class.java)
+
+        assertThat(payload.name).isEqualTo(ofObj("Tom"))
+        assertThat(payload.age).isEqualTo(ofObj(42))
+        assertThat(payload.tags).isEqualTo(ofObj(listOf("a", "b")))
+    }
+
+    @Test
+    fun read_whenFieldNull_isNoneSingleton() {
+        val payload = gson.fromJson("""{"name":null}""", Payload::class.java)
+
+        assertThat(payload.name).isSameAs(NONE)
+    }
+
+    @Test
+    fun read_whenFieldMissing_isNone() {
+        val payload = gson.fromJson("""{}""", Payload::class.java)
+
+        assertThat(payload.name).isEqualTo(NONE)
+        assertThat(payload.age).isEqualTo(NONE)
+    }
+
+    @Test
+    fun read_nestedOption() {
+        val payload = gson.fromJson("""{"nested":{"name":"inner"}}""", Payload::class.java)
+
+        assertThat(payload.nested.map { it.name }).isEqualTo(ofObj(ofObj("inner")))
+    }
+
+    @Test
+    fun write_skipsNoneFields() {
+        val payload = Payload()
+        payload.name = ofObj("Tom")
+
+        assertThat(gson.toJson(payload)).isEqualTo("""{"name":"Tom"}""")
+    }
+
+    @Test
+    fun write_whenSerializingNulls_writesNoneAsNull() {
+        val gson = GsonBuilder().registerTypeAdapterFactory(OptionTypeAdapterFactory())
+                .serializeNulls()
+                .create()
+        val payload = Payload()
+        payload.age = ofObj(3)
+
+        assertThat(gson.toJson(payload)).isEqualTo("""{"name":null,"age":3,"tags":null,"nested":null}""")
+    }
+
+    @Test
+    fun roundTrip_keepsValues() {
+        val payload = Payload()
+        payload.name = ofObj("Tom")
+        payload.tags = ofObj(listOf("x"))
+
+        val copy = gson.fromJson(gson.toJson(payload), Payload::class.java)
+
+        assertThat(copy.name).isEqualTo(payload.name)
+        assertThat(copy.tags).isEqualTo(payload.tags)
+        assertThat(copy.age).isEqualTo(NONE)
+    }
+
+    @Test
+    fun rawOption_readsInnerAsObject() {
+        val option = gson.fromJson<Option<*>>("\"text\"", Option::class.java)
+
+        assertThat(option).isEqualTo(ofObj("text"))
+    }
+}
@@ -0,0 +1,73 @@
+@file:JvmName("OptionInline")
+
+package polanski.option.kotlin
+
+import polanski.option.Option
+import polanski.option.OptionUnsafe.getUnsafe
+
+/*
+ * Inline versions of the Option operators. The lambdas are inlined at the call site,
+ * so no function objects are allocated, while the results are the same as of the
+ * corresponding Option operators.
+ */
+
+/**
+ * Inline version of [Option.map].
+ */
+inline fun <T, OUT> Option<T>.mapInline(selector: (T) -> OUT?): Option<OUT> =
+        if (isSome) Option.ofObj<OUT>(selector(getUnsafe(this))) else Option.none()
+
+/**
+ * Inline version of [Option.flatMap].
+ */
+inline fun <T, OUT> Option<T>.flatMapInline(selector: (T) -> Option<OUT>): Option<OUT> =
+        if (isSome) selector(getUnsafe(this)) else Option.none()
+
+/**
+ * Inline version of [Option.filter].
+ */
+inline fun <T> Option<T>.filterInline(predicate: (T) -> Boolean): Option<T> =
+        if (isSome && predicate(getUnsafe(this))) this else Option.none()
+
+/**
+ * Inline version of [Option.match].
+ */
+inline fun <T, OUT> Option<T>.matchInline(fSome: (T) -> OUT, fNone: () -> OUT): OUT =
+        if (isSome) fSome(getUnsafe(this)) else fNone()
+
+/**
+ * Inline version of [Option.orDefault].
+ */
+inline fun <T> Option<T>.orDefaultInline(def: () -> T): T =
+        if (isSome) getUnsafe(this) else def()
+
+/**
+ * Inline version of [Option.lift] combining two options.
+ */
+inline fun <T, IN1, OUT> Option<T>.liftInline(option1: Option<IN1>,
+                                              f: (T, IN1) -> OUT?): Option<OUT> =
+        if (isSome && option1.isSome) {
+            Option.ofObj<OUT>(f(getUnsafe(this), getUnsafe(option1)))
+        } else {
+            Option.none()
+        }
+
+/**
+ * Inline version of [Option.lift] combining three options.
+ */
+inline fun <T, IN1, IN2, OUT> Option<T>.liftInline(option1: Option<IN1>,
+                                                   option2: Option<IN2>,
+                                                   f: (T, IN1, IN2) -> OUT?): Option<OUT> =
+        if (isSome && option1.isSome && option2.isSome) {
+            Option.ofObj<OUT>(f(getUnsafe(this), getUnsafe(option1), getUnsafe(option2)))
+        } else {
+            Option.none()
+        }
+
+/**
+ * Inline version of [Option.ofType], the type is given as a reified type parameter.
+ * The current Some is returned as it is, instead of being wrapped again.
+ */
+@Suppress("UNCHECKED_CAST")
+inline fun <reified OUT> Option<*>.ofTypeInline(): Option<OUT> =
+        if (isSome && getUnsafe(this) is OUT) this as Option<OUT> else Option.none()
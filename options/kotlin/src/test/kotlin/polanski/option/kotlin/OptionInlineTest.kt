@@ -0,0 +1,85 @@
+package polanski.option.kotlin
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import polanski.option.Option
+import polanski.option.Option.NONE
+import polanski.option.Option.none
+import polanski.option.Option.ofObj
+
+class OptionInlineTest {
+
+    @Test
+    fun mapInline_whenSome() {
+        assertThat(ofObj("abc").mapInline { it.length }).isEqualTo(ofObj(3))
+    }
+
+    @Test
+    fun mapInline_whenSelectorReturnsNull_returnNone() {
+        assertThat(ofObj("abc").mapInline { null as Int? }).isEqualTo(NONE)
+    }
+
+    @Test
+    fun mapInline_whenNone_doesNotCallSelector() {
+        assertThat(none<String>().mapInline<String, Int> { throw IllegalStateException() })
+                .isEqualTo(NONE)
+    }
+
+    @Test
+    fun flatMapInline_matchesFlatMap() {
+        assertThat(ofObj(1).flatMapInline { ofObj(it + 1) }).isEqualTo(ofObj(2))
+        assertThat(ofObj(1).flatMapInline { none<Int>() }).isEqualTo(NONE)
+        assertThat(none<Int>().flatMapInline { ofObj(it + 1) }).isEqualTo(NONE)
+    }
+
+    @Test
+    fun filterInline_whenPredicateTrue_returnSameOption() {
+        val option = ofObj("abc")
+
+        assertThat(option.filterInline { it.length == 3 }).isSameAs(option)
+    }
+
+    @Test
+    fun filterInline_whenPredicateFalseOrNone_returnNone() {
+        assertThat(ofObj("abc").filterInline { it.isEmpty() }).isEqualTo(NONE)
+        assertThat(none<String>().filterInline { true }).isEqualTo(NONE)
+    }
+
+    @Test
+    fun matchInline_callsMatchingBranch() {
+        assertThat(ofObj(1).matchInline({ "some $it" }, { "none" })).isEqualTo("some 1")
+        assertThat(none<Int>().matchInline({ "some $it" }, { "none" })).isEqualTo("none")
+    }
+
+    @Test
+    fun orDefaultInline_returnsValueOrDefault() {
+        assertThat(ofObj(1).orDefaultInline { 2 }).isEqualTo(1)
+        assertThat(none<Int>().orDefaultInline { 2 }).isEqualTo(2)
+    }
+
+    @Test
+    fun liftInline_combinesTwoOptions() {
+        assertThat(ofObj(1).liftInline(ofObj(2)) { a, b -> a + b }).isEqualTo(ofObj(3))
+        assertThat(ofObj(1).liftInline(none<Int>()) { a, b -> a + b }).isEqualTo(NONE)
+        assertThat(none<Int>().liftInline(ofObj(2)) { a, b -> a + b }).isEqualTo(NONE)
+    }
+
+    @Test
+    fun liftInline_combinesThreeOptions() {
+        assertThat(ofObj(1).liftInline(ofObj(2), ofObj(3)) { a, b, c -> a + b + c }).isEqualTo(ofObj(6))
+        assertThat(ofObj(1).liftInline(ofObj(2), none<Int>()) { a, b, c -> a + b + c }).isEqualTo(NONE)
+    }
+
+    @Test
+    fun ofTypeInline_whenInstance_returnSome() {
+        val option: Option<Any> = ofObj<Any>("abc")
+
+        assertThat(option.ofTypeInline<String>()).isEqualTo(ofObj("abc"))
+    }
+
+    @Test
+    fun ofTypeInline_whenNotInstanceOrNone_returnNone() {
+        assertThat(ofObj<Any>("abc").ofTypeInline<Int>()).isEqualTo(NONE)
+        assertThat(none<Any>().ofTypeInline<String>()).isEqualTo(NONE)
+    }
+}
@@ -0,0 +1,37 @@
+package polanski.option.reactive;
+
+import org.jetbrains.annotations.NotNull;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+
+import polanski.option.Option;
+
+/**
+ * Publisher passing on only the Somes of its source, each dropped None is replaced by requesting
+ * one more item from the source.
+ *
+ * @param <T> Wrapped type
+ */
+final class FilterSomePublisher<T> implements Publisher<Option<T>> {
+
+    @NotNull
+    final Publisher<Option<T>> mSource;
+
+    FilterSomePublisher(@NotNull final Publisher<Option<T>> source) {
+        mSource = source;
+    }
+
+    @Override
+    public void subscribe(@NotNull final Subscriber<? super Option<T>> subscriber) {
+        mSource.subscribe(new ForwardingSubscriber<Option<T>, Option<T>>(subscriber) {
+            @Override
+            void next(@NotNull final Option<T> item) {
+                if (item.isSome()) {
+                    mDownstream.onNext(item);
+                } else {
+                    mUpstream.request(1);
+                }
+            }
+        });
+    }
+}
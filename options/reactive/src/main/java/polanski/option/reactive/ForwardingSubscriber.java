@@ -0,0 +1,82 @@
+package polanski.option.reactive;
+
+import org.jetbrains.annotations.NotNull;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Subscriber that sits between an upstream publisher and a downstream subscriber, forwarding
+ * demand and terminal events one to one.
+ *
+ * @param <T> Type of the upstream items
+ * @param <R> Type of the downstream items
+ */
+abstract class ForwardingSubscriber<T, R> implements Subscriber<T>, Subscription {
+
+    @NotNull
+    final Subscriber<? super R> mDownstream;
+
+    Subscription mUpstream;
+
+    private boolean mDone;
+
+    ForwardingSubscriber(@NotNull final Subscriber<? super R> downstream) {
+        mDownstream = downstream;
+    }
+
+    /**
+     * Handles the next upstream item, called only before the stream terminated.
+     *
+     * @param item Upstream item
+     */
+    abstract void next(@NotNull final T item);
+
+    @Override
+    public final void onSubscribe(@NotNull final Subscription subscription) {
+        if (mUpstream != null) {
+            subscription.cancel();
+            return;
+        }
+        mUpstream = subscription;
+        mDownstream.onSubscribe(this);
+    }
+
+    @Override
+    public final void onNext(@NotNull final T item) {
+        if (mDone) {
+            return;
+        }
+        try {
+            next(item);
+        } catch (Throwable e) {
+            mUpstream.cancel();
+            onError(e);
+        }
+    }
+
+    @Override
+    public final void onError(@NotNull final Throwable error) {
+        if (!mDone) {
+            mDone = true;
+            mDownstream.onError(error);
+        }
+    }
+
+    @Override
+    public final void onComplete() {
+        if (!mDone) {
+            mDone = true;
+            mDownstream.onComplete();
+        }
+    }
+
+    @Override
+    public final void request(final long n) {
+        mUpstream.request(n);
+    }
+
+    @Override
+    public final void cancel() {
+        mUpstream.cancel();
+    }
+}
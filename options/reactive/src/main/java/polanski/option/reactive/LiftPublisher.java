@@ -0,0 +1,291 @@
+package polanski.option.reactive;
+
+import org.jetbrains.annotations.NotNull;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import polanski.option.Option;
+import polanski.option.function.FuncN;
+
+/**
+ * Publisher pairing the n-th items of all its sources and combining them into one option.
+ * <p/>
+ * Sources are requested in batches of {@link #PREFETCH} items, replenished once three quarters
+ * of a batch was consumed. The stream completes as soon as one of the sources completes and
+ * has no more buffered items.
+ *
+ * @param <OUT> Result type
+ */
+final class LiftPublisher<OUT> implements Publisher<Option<OUT>> {
+
+    static final int PREFETCH = 128;
+
+    private static final int LIMIT = PREFETCH - (PREFETCH >> 2);
+
+    @NotNull
+    private final Publisher<? extends Option<?>>[] mSources;
+
+    @NotNull
+    private final FuncN<Option<OUT>> mCombiner;
+
+    LiftPublisher(@NotNull final Publisher<? extends Option<?>>[] sources,
+                  @NotNull final FuncN<Option<OUT>> combiner) {
+        mSources = sources;
+        mCombiner = combiner;
+    }
+
+    @Override
+    public void subscribe(@NotNull final Subscriber<? super Option<OUT>> subscriber) {
+        final Coordinator<OUT> coordinator = new Coordinator<OUT>(subscriber,
+                                                                  mCombiner,
+                                                                  mSources.length);
+        subscriber.onSubscribe(coordinator);
+        for (int i = 0; i < mSources.length && !coordinator.mCancelled; i++) {
+            mSources[i].subscribe(coordinator.mInners[i]);
+        }
+    }
+
+    private static final class Coordinator<OUT> extends AtomicInteger implements Subscription {
+
+        private static final long serialVersionUID = 1L;
+
+        @NotNull
+        private final Subscriber<? super Option<OUT>> mDownstream;
+
+        @NotNull
+        private final FuncN<Option<OUT>> mCombiner;
+
+        @NotNull
+        final Inner[] mInners;
+
+        @NotNull
+        private final AtomicLong mRequested = new AtomicLong();
+
+        @NotNull
+        private final AtomicReference<Throwable> mError = new AtomicReference<Throwable>();
+
+        volatile boolean mCancelled;
+
+        private boolean mDone;
+
+        Coordinator(@NotNull final Subscriber<? super Option<OUT>> downstream,
+                    @NotNull final FuncN<Option<OUT>> combiner,
+                    final int count) {
+            mDownstream = downstream;
+            mCombiner = combiner;
+            mInners = new Inner[count];
+            for (int i = 0; i < count; i++) {
+                mInners[i] = new Inner(this);
+            }
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                onError(new IllegalArgumentException("Requested amount must be positive: " + n));
+                return;
+            }
+            long current;
+            long next;
+            do {
+                current = mRequested.get();
+                if (current == Long.MAX_VALUE) {
+                    return;
+                }
+                next = current + n;
+                if (next < 0) {
+                    next = Long.MAX_VALUE;
+                }
+            } while (!mRequested.compareAndSet(current, next));
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            if (!mCancelled) {
+                mCancelled = true;
+                cancelAll();
+                if (getAndIncrement() == 0) {
+                    clearAll();
+                }
+            }
+        }
+
+        void onError(@NotNull final Throwable error) {
+            if (mError.compareAndSet(null, error)) {
+                drain();
+            }
+        }
+
+        void drain() {
+            if (getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            final Inner[] inners = mInners;
+            final Object[] values = new Object[inners.length];
+            do {
+                final long requested = mRequested.get();
+                long emitted = 0;
+                while (true) {
+                    if (checkTerminated()) {
+                        return;
+                    }
+                    if (emitted == requested || !isEveryInnerReady()) {
+                        break;
+                    }
+                    for (int i = 0; i < inners.length; i++) {
+                        values[i] = inners[i].mQueue.poll();
+                        inners[i].consumed();
+                    }
+                    final Option<OUT> result;
+                    try {
+                        result = mCombiner.call(values);
+                    } catch (Throwable e) {
+                        mError.compareAndSet(null, e);
+                        continue;
+                    }
+                    mDownstream.onNext(result);
+                    emitted++;
+                }
+                if (emitted != 0 && requested != Long.MAX_VALUE) {
+                    mRequested.addAndGet(-emitted);
+                }
+                missed = addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private boolean isEveryInnerReady() {
+            for (final Inner inner : mInners) {
+                if (inner.mQueue.isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean checkTerminated() {
+            if (mCancelled || mDone) {
+                clearAll();
+                return true;
+            }
+            final Throwable error = mError.get();
+            if (error != null) {
+                terminate();
+                mDownstream.onError(error);
+                return true;
+            }
+            for (final Inner inner : mInners) {
+                if (inner.mDone && inner.mQueue.isEmpty()) {
+                    terminate();
+                    mDownstream.onComplete();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void terminate() {
+            mDone = true;
+            cancelAll();
+            clearAll();
+        }
+
+        private void cancelAll() {
+            for (final Inner inner : mInners) {
+                inner.cancel();
+            }
+        }
+
+        private void clearAll() {
+            for (final Inner inner : mInners) {
+                inner.mQueue.clear();
+            }
+        }
+    }
+
+    private static final class Inner implements Subscriber<Object> {
+
+        @NotNull
+        final Queue<Object> mQueue = new ConcurrentLinkedQueue<Object>();
+
+        @NotNull
+        private final Coordinator<?> mParent;
+
+        @NotNull
+        private final AtomicReference<Subscription> mSubscription =
+                new AtomicReference<Subscription>();
+
+        volatile boolean mDone;
+
+        private int mConsumed;
+
+        Inner(@NotNull final Coordinator<?> parent) {
+            mParent = parent;
+        }
+
+        @Override
+        public void onSubscribe(@NotNull final Subscription subscription) {
+            if (mSubscription.compareAndSet(null, subscription)) {
+                subscription.request(PREFETCH);
+            } else {
+                // Either cancelled already or subscribed twice
+                subscription.cancel();
+            }
+        }
+
+        @Override
+        public void onNext(@NotNull final Object item) {
+            mQueue.offer(item);
+            mParent.drain();
+        }
+
+        @Override
+        public void onError(@NotNull final Throwable error) {
+            mDone = true;
+            mParent.onError(error);
+        }
+
+        @Override
+        public void onComplete() {
+            mDone = true;
+            mParent.drain();
+        }
+
+        /**
+         * Called from the drain loop after an item was taken from the queue.
+         */
+        void consumed() {
+            if (++mConsumed == LIMIT) {
+                mConsumed = 0;
+                mSubscription.get().request(LIMIT);
+            }
+        }
+
+        void cancel() {
+            final Subscription current = mSubscription.getAndSet(CANCELLED);
+            if (current != null && current != CANCELLED) {
+                current.cancel();
+            }
+        }
+    }
+
+    private static final Subscription CANCELLED = new Subscription() {
+        @Override
+        public void request(final long n) {
+            // Do nothing
+        }
+
+        @Override
+        public void cancel() {
+            // Do nothing
+        }
+    };
+}
@@ -0,0 +1,39 @@
+package polanski.option.reactive;
+
+import org.jetbrains.annotations.NotNull;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+
+import polanski.option.Option;
+import polanski.option.function.Func1;
+
+/**
+ * Publisher converting the inner values of the options of its source, Nones are passed on.
+ *
+ * @param <T>   Wrapped type
+ * @param <OUT> Result type
+ */
+final class MapOptionPublisher<T, OUT> implements Publisher<Option<OUT>> {
+
+    @NotNull
+    final Publisher<Option<T>> mSource;
+
+    @NotNull
+    final Func1<T, OUT> mSelector;
+
+    MapOptionPublisher(@NotNull final Publisher<Option<T>> source,
+                       @NotNull final Func1<T, OUT> selector) {
+        mSource = source;
+        mSelector = selector;
+    }
+
+    @Override
+    public void subscribe(@NotNull final Subscriber<? super Option<OUT>> subscriber) {
+        mSource.subscribe(new ForwardingSubscriber<Option<T>, Option<OUT>>(subscriber) {
+            @Override
+            void next(@NotNull final Option<T> item) {
+                mDownstream.onNext(item.map(mSelector));
+            }
+        });
+    }
+}
@@ -0,0 +1,151 @@
+package polanski.option.reactive;
+
+import org.jetbrains.annotations.NotNull;
+import org.reactivestreams.Publisher;
+
+import polanski.option.Option;
+import polanski.option.function.Func1;
+import polanski.option.function.Func2;
+import polanski.option.function.Func3;
+import polanski.option.function.FuncN;
+
+/**
+ * Reactive Streams operators for publishers of {@link Option}.
+ * <p/>
+ * All operators respect backpressure of their subscribers. Somes are passed on as they are and
+ * chained operators are fused together where possible, so no intermediate options are created.
+ */
+public final class OptionPublishers {
+
+    OptionPublishers() {
+        throw new AssertionError("Must not create an instance");
+    }
+
+    /**
+     * Filters out all Nones of the @source.
+     *
+     * @param source Publisher of options
+     * @param <T>    Wrapped type
+     * @return Publisher emitting only the Somes of @source
+     */
+    @NotNull
+    public static <T> Publisher<Option<T>> filterSome(@NotNull final Publisher<Option<T>> source) {
+        return source instanceof FilterSomePublisher
+                ? source
+                : new FilterSomePublisher<T>(source);
+    }
+
+    /**
+     * Filters out all Nones of the @source and unwraps the values of the Somes.
+     *
+     * @param source Publisher of options
+     * @param <T>    Wrapped type
+     * @return Publisher emitting the values of the Somes of @source
+     */
+    @NotNull
+    public static <T> Publisher<T> unwrapSome(@NotNull final Publisher<Option<T>> source) {
+        return new UnwrapSomePublisher<T>(source instanceof FilterSomePublisher
+                                                  ? ((FilterSomePublisher<T>) source).mSource
+                                                  : source);
+    }
+
+    /**
+     * Converts inner values of the options emitted by @source, Nones are passed on.
+     *
+     * @param source   Publisher of options
+     * @param selector Function that converts inner value
+     * @param <T>      Wrapped type
+     * @param <OUT>    Result type
+     * @return Publisher of converted options
+     */
+    @SuppressWarnings("unchecked")
+    @NotNull
+    public static <T, OUT> Publisher<Option<OUT>> mapOption(@NotNull final Publisher<Option<T>> source,
+                                                            @NotNull final Func1<T, OUT> selector) {
+        if (source instanceof MapOptionPublisher) {
+            final MapOptionPublisher<Object, T> previous = (MapOptionPublisher<Object, T>) source;
+            return new MapOptionPublisher<Object, OUT>(previous.mSource,
+                                                       compose(previous.mSelector, selector));
+        }
+        return new MapOptionPublisher<T, OUT>(source, selector);
+    }
+
+    /**
+     * Combines the n-th options of given publishers using @f.
+     *
+     * @param source1 First publisher
+     * @param source2 Second publisher
+     * @param f       Function that combines the inner values
+     * @param <IN1>   Input type
+     * @param <IN2>   Input type
+     * @param <OUT>   Result type
+     * @return Publisher of Some if the n-th options were all Some, otherwise of None
+     */
+    @SuppressWarnings("unchecked")
+    @NotNull
+    public static <IN1, IN2, OUT> Publisher<Option<OUT>> lift(
+            @NotNull final Publisher<Option<IN1>> source1,
+            @NotNull final Publisher<Option<IN2>> source2,
+            @NotNull final Func2<IN1, IN2, OUT> f) {
+        return new LiftPublisher<OUT>(sources(source1, source2), new FuncN<Option<OUT>>() {
+            @Override
+            public Option<OUT> call(final Object... args) {
+                return ((Option<IN1>) args[0]).lift((Option<IN2>) args[1], f);
+            }
+        });
+    }
+
+    /**
+     * Combines the n-th options of given publishers using @f.
+     *
+     * @param source1 First publisher
+     * @param source2 Second publisher
+     * @param source3 Third publisher
+     * @param f       Function that combines the inner values
+     * @param <IN1>   Input type
+     * @param <IN2>   Input type
+     * @param <IN3>   Input type
+     * @param <OUT>   Result type
+     * @return Publisher of Some if the n-th options were all Some, otherwise of None
+     */
+    @SuppressWarnings("unchecked")
+    @NotNull
+    public static <IN1, IN2, IN3, OUT> Publisher<Option<OUT>> lift(
+            @NotNull final Publisher<Option<IN1>> source1,
+            @NotNull final Publisher<Option<IN2>> source2,
+            @NotNull final Publisher<Option<IN3>> source3,
+            @NotNull final Func3<IN1, IN2, IN3, OUT> f) {
+        return new LiftPublisher<OUT>(sources(source1, source2, source3),
+                                      new FuncN<Option<OUT>>() {
+                                          @Override
+                                          public Option<OUT> call(final Object... args) {
+                                              return ((Option<IN1>) args[0]).lift(
+                                                      (Option<IN2>) args[1],
+                                                      (Option<IN3>) args[2],
+                                                      f);
+                                          }
+                                      });
+    }
+
+    @NotNull
+    private static <A, B, C> Func1<A, C> compose(@NotNull final Func1<A, B> first,
+                                                 @NotNull final Func1<B, C> second) {
+        return new Func1<A, C>() {
+            @Override
+            public C call(final A a) {
+                final B b = first.call(a);
+                return b == null ? null : second.call(b);
+            }
+        };
+    }
+
+    /**
+     * Array of @sources typed for {@link LiftPublisher}, generic arrays cannot be created.
+     */
+    @SuppressWarnings("unchecked")
+    @NotNull
+    private static Publisher<? extends Option<?>>[] sources(
+            @NotNull final Publisher<?>... sources) {
+        return (Publisher<? extends Option<?>>[]) sources;
+    }
+}
@@ -0,0 +1,39 @@
+package polanski.option.reactive;
+
+import org.jetbrains.annotations.NotNull;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+
+import polanski.option.Option;
+
+import static polanski.option.OptionUnsafe.getUnsafe;
+
+/**
+ * Publisher passing on the values of the Somes of its source, each dropped None is replaced by
+ * requesting one more item from the source.
+ *
+ * @param <T> Wrapped type
+ */
+final class UnwrapSomePublisher<T> implements Publisher<T> {
+
+    @NotNull
+    private final Publisher<Option<T>> mSource;
+
+    UnwrapSomePublisher(@NotNull final Publisher<Option<T>> source) {
+        mSource = source;
+    }
+
+    @Override
+    public void subscribe(@NotNull final Subscriber<? super T> subscriber) {
+        mSource.subscribe(new ForwardingSubscriber<Option<T>, T>(subscriber) {
+            @Override
+            void next(@NotNull final Option<T> item) {
+                if (item.isSome()) {
+                    mDownstream.onNext(getUnsafe(item));
+                } else {
+                    mUpstream.request(1);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,175 @@
+package polanski.option.reactive
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.Test
+import polanski.option.Option
+import polanski.option.Option.none
+import polanski.option.Option.ofObj
+import polanski.option.function.Func1
+import polanski.option.function.Func2
+import polanski.option.function.Func3
+import polanski.option.reactive.OptionPublishers.*
+
+class OptionPublishersTest {
+
+    private fun <T> options(vararg values: T?): ListPublisher<Option<T>> =
+            ListPublisher(values.map { ofObj(it) })
+
+    private fun <T> subscribe(publisher: org.reactivestreams.Publisher<T>,
+                              request: Long = Long.MAX_VALUE): TestSubscriber<T> {
+        val subscriber = TestSubscriber<T>(request)
+        publisher.subscribe(subscriber)
+        return subscriber
+    }
+
+    @Test
+    fun filterSome_dropsNones() {
+        val subscriber = subscribe(filterSome(options(1, null, 2, null)))
+
+        assertThat(subscriber.values).containsExactly(ofObj(1), ofObj(2))
+        assertThat(subscriber.completed).isTrue()
+    }
+
+    @Test
+    fun filterSome_passesSameSomeInstances() {
+        val some = ofObj("a")
+        val subscriber = subscribe(filterSome(ListPublisher(listOf(some))))
+
+        assertThat(subscriber.values[0]).isSameAs(some)
+    }
+
+    @Test
+    fun filterSome_respectsBackpressure() {
+        val source = options(1, null, null, 2, 3)
+        val subscriber = subscribe(filterSome(source), 2)
+
+        assertThat(subscriber.values).containsExactly(ofObj(1), ofObj(2))
+        assertThat(subscriber.completed).isFalse()
+        assertThat(source.requests).containsExactly(2L, 1L, 1L)
+    }
+
+    @Test
+    fun filterSome_whenAlreadyFiltered_returnsSamePublisher() {
+        val filtered = filterSome(options(1))
+
+        assertThat(filterSome(filtered)).isSameAs(filtered)
+    }
+
+    @Test
+    fun unwrapSome_emitsValuesOfSomes() {
+        val subscriber = subscribe(unwrapSome(options("a", null, "b")))
+
+        assertThat(subscriber.values).containsExactly("a", "b")
+        assertThat(subscriber.completed).isTrue()
+    }
+
+    @Test
+    fun unwrapSome_afterFilterSome_emitsValuesOfSomes() {
+        val subscriber = subscribe(unwrapSome(filterSome(options("a", null, "b"))))
+
+        assertThat(subscriber.values).containsExactly("a", "b")
+    }
+
+    @Test
+    fun mapOption_convertsSomesAndPassesNones() {
+        val subscriber = subscribe(mapOption(options(1, null, 2), Func1<Int, Int> { it * 10 }))
+
+        assertThat(subscriber.values).containsExactly(ofObj(10), none<Int>(), ofObj(20))
+    }
+
+    @Test
+    fun mapOption_chained_behavesLikeOptionMap() {
+        val mapped = mapOption(mapOption(options(1, 2, null), Func1<Int, Int?> { if (it == 1) null else it }),
+                               Func1<Int?, Int> { it!! + 1 })
+        val subscriber = subscribe(mapped)
+
+        assertThat(subscriber.values).containsExactly(none<Int>(), ofObj(3), none<Int>())
+    }
+
+    @Test
+    fun mapOption_whenSelectorThrows_emitsErrorAndCancels() {
+        val source = options(1, 2)
+        val subscriber = subscribe(mapOption(source, Func1<Int, Int> { throw IllegalStateException() }))
+
+        assertThat(subscriber.error).isInstanceOf(IllegalStateException::class.java)
+        assertThat(subscriber.values).isEmpty()
+        assertThat(subscriber.completed).isFalse()
+        assertThat(source.cancelled).isTrue()
+    }
+
+    @Test
+    fun lift_combinesPairs() {
+        val subscriber = subscribe(lift(options(1, null, 3), options(10, 20, 30), Func2<Int, Int, Int> { a, b -> a + b }))
+
+        assertThat(subscriber.values).containsExactly(ofObj(11), none<Int>(), ofObj(33))
+        assertThat(subscriber.completed).isTrue()
+    }
+
+    @Test
+    fun lift_completesWithShorterSource() {
+        val longer = options(10, 20, 30)
+        val subscriber = subscribe(lift(options(1), longer, Func2<Int, Int, Int> { a, b -> a + b }))
+
+        assertThat(subscriber.values).containsExactly(ofObj(11))
+        assertThat(subscriber.completed).isTrue()
+        assertThat(longer.cancelled).isTrue()
+    }
+
+    @Test
+    fun lift_respectsBackpressure() {
+        val subscriber = subscribe(lift(options(1, 2), options(10, 20), Func2<Int, Int, Int> { a, b -> a + b }), 1)
+
+        assertThat(subscriber.values).containsExactly(ofObj(11))
+
+        subscriber.subscription.request(1)
+
+        assertThat(subscriber.values).containsExactly(ofObj(11), ofObj(22))
+        assertThat(subscriber.completed).isTrue()
+    }
+
+    @Test
+    fun lift_requestsSourcesInBatches() {
+        val items = (1..1000).toList()
+        val source = ListPublisher(items.map { ofObj(it) })
+        val subscriber = subscribe(lift(source, ListPublisher(items.map { ofObj(it) }), Func2<Int, Int, Int> { a, b -> a + b }))
+
+        assertThat(subscriber.values).hasSize(1000)
+        assertThat(subscriber.values.last()).isEqualTo(ofObj(2000))
+        assertThat(source.requests.first()).isEqualTo(LiftPublisher.PREFETCH.toLong())
+        assertThat(source.requests.size).isLessThan(20)
+    }
+
+    @Test
+    fun lift_combinesTriples() {
+        val subscriber = subscribe(lift(options(1, 2), options(10, null), options(100, 200),
+                                        Func3<Int, Int, Int, Int> { a, b, c -> a + b + c }))
+
+        assertThat(subscriber.values).containsExactly(ofObj(111), none<Int>())
+    }
+
+    @Test
+    fun lift_whenSourceFails_emitsError() {
+        val failing = org.reactivestreams.Publisher<Option<Int>> { s ->
+            s.onSubscribe(object : org.reactivestreams.Subscription {
+                override fun request(n: Long) = s.onError(IllegalStateException())
+                override fun cancel() {
+                }
+            })
+        }
+        val subscriber = subscribe(lift(options(1), failing, Func2<Int, Int, Int> { a, b -> a + b }))
+
+        assertThat(subscriber.error).isInstanceOf(IllegalStateException::class.java)
+    }
+
+    @Test
+    fun lift_whenRequestNotPositive_emitsError() {
+        val subscriber = subscribe(lift(options(1), options(2), Func2<Int, Int, Int> { a, b -> a + b }), 0)
+
+        assertThat(subscriber.error).isInstanceOf(IllegalArgumentException::class.java)
+    }
+
+    @Test(expected = AssertionError::class)
+    fun constructor_throwsException() {
+        OptionPublishers()
+    }
+}
@@ -0,0 +1,76 @@
+package polanski.option.reactive
+
+import org.reactivestreams.Publisher
+import org.reactivestreams.Subscriber
+import org.reactivestreams.Subscription
+
+/**
+ * Synchronous publisher emitting given items, only as many as requested.
+ */
+class ListPublisher<T>(private val items: List<T>) : Publisher<T> {
+
+    val requests = arrayListOf<Long>()
+
+    var cancelled = false
+
+    override fun subscribe(subscriber: Subscriber<in T>) {
+        subscriber.onSubscribe(object : Subscription {
+            var index = 0
+            var requested = 0L
+            var emitting = false
+
+            override fun request(n: Long) {
+                requests.add(n)
+                requested = if (requested + n < 0) Long.MAX_VALUE else requested + n
+                if (emitting) {
+                    return
+                }
+                emitting = true
+                while (requested > 0 && index < items.size && !cancelled) {
+                    requested--
+                    subscriber.onNext(items[index++])
+                }
+                if (index == items.size && !cancelled) {
+                    cancelled = true
+                    subscriber.onComplete()
+                }
+                emitting = false
+            }
+
+            override fun cancel() {
+                cancelled = true
+            }
+        })
+    }
+}
+
+/**
+ * Subscriber recording all received signals.
+ */
+class TestSubscriber<T>(private val initialRequest: Long = Long.MAX_VALUE) : Subscriber<T> {
+
+    val values = arrayListOf<T>()
+
+    var completed = false
+
+    var error: Throwable? = null
+
+    lateinit var subscription: Subscription
+
+    override fun onSubscribe(s: Subscription) {
+        subscription = s
+        s.request(initialRequest)
+    }
+
+    override fun onNext(t: T) {
+        values.add(t)
+    }
+
+    override fun onError(t: Throwable) {
+        error = t
+    }
+
+    override fun onComplete() {
+        completed = true
+    }
+}